@@ -0,0 +1,58 @@
+package TSPBenchmark;
+
+import TSP.BatchResult;
+import TSP.BatchSolver;
+import TSP.BoundingStrategy;
+import TSP.DistanceMatrix;
+import TSP.SearchOrder;
+import TSP.TspSolver;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many small instances solved as one batch against one TspSolver per instance
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class BatchSolverBenchmark {
+    @Param({"1000"})
+    int instances;
+
+    @Param({"RANDOM", "EUCLIDEAN"})
+    Matrices.Shape shape;
+
+    DistanceMatrix[] matrices;
+    BatchSolver batchSolver;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(Matrices.SEED);
+        matrices = new DistanceMatrix[instances];
+        for (int i = 0; i < instances; i++) {
+            // 8 to 12 stops
+            matrices[i] = Matrices.create(shape, 8 + random.nextInt(5), random);
+        }
+        batchSolver = new BatchSolver();
+    }
+
+    @Benchmark
+    public BatchResult batch() {
+        return batchSolver.solve(matrices);
+    }
+
+    @Benchmark
+    public long perInstance() {
+        long total = 0;
+        for (DistanceMatrix m : matrices) {
+            total += new TspSolver(m, Matrices.cities(m.getSize()))
+                    .fastBranchAndBound(BoundingStrategy.REDUCED_MATRIX, SearchOrder.BEST_FIRST).getCost();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,45 @@
+package TSPBenchmark;
+
+import TSP.BoundingStrategy;
+import TSP.SearchOrder;
+import TSP.TspResult;
+import TSP.TspSolver;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class BranchAndBoundBenchmark {
+    @Param({"8", "10", "12"})
+    int cities;
+
+    @Param({"RANDOM", "EUCLIDEAN", "ONE_PATH"})
+    Matrices.Shape shape;
+
+    TspSolver solver;
+
+    @Setup
+    public void setup() {
+        solver = new TspSolver(Matrices.create(shape, cities), Matrices.cities(cities));
+    }
+
+    @Benchmark
+    public TspResult branchAndBound() {
+        return solver.branchAndBound();
+    }
+
+    @Benchmark
+    public TspResult fastBranchAndBound() {
+        return solver.fastBranchAndBound(BoundingStrategy.ONE_TREE, SearchOrder.DEPTH_FIRST);
+    }
+
+    @Benchmark
+    public TspResult heldKarp() {
+        return solver.heldKarp();
+    }
+}
@@ -0,0 +1,42 @@
+package TSPBenchmark;
+
+import TSP.TspResult;
+import TSP.TspSolver;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Brute force is factorial in the number of cities, so only small sizes are
+ * measured
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class BruteForceBenchmark {
+    @Param({"7", "8", "9", "10"})
+    int cities;
+
+    @Param({"RANDOM", "EUCLIDEAN", "ONE_PATH"})
+    Matrices.Shape shape;
+
+    TspSolver solver;
+
+    @Setup
+    public void setup() {
+        solver = new TspSolver(Matrices.create(shape, cities), Matrices.cities(cities));
+    }
+
+    @Benchmark
+    public TspResult bruteForce() {
+        return solver.bruteForce();
+    }
+
+    @Benchmark
+    public TspResult bruteForceStreaming() {
+        return solver.bruteForceStreaming();
+    }
+}
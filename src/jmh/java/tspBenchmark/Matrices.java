@@ -0,0 +1,99 @@
+package TSPBenchmark;
+
+import TSP.City;
+import TSP.Weight;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeded distance matrices for the benchmarks, so every run measures the same
+ * inputs
+ */
+final class Matrices {
+    static final long SEED = 42;
+
+    /**
+     * Kinds of matrix the solvers are measured on
+     */
+    enum Shape {
+        // Independent random distances between 1 and 1000, symmetric
+        RANDOM,
+        // Rounded distances between random points on a 1000 x 1000 grid
+        EUCLIDEAN,
+        // One random cycle of cost 1 edges, every other edge costs 100 to 10000
+        ONE_PATH
+    }
+
+    private Matrices() {
+    }
+
+    static Weight create(Shape shape, int size) {
+        return create(shape, size, new Random(SEED));
+    }
+
+    static Weight create(Shape shape, int size, Random random) {
+        Weight weight = new Weight(size);
+        switch (shape) {
+            case RANDOM:
+                for (int i = 0; i < size; i++) {
+                    for (int j = i + 1; j < size; j++) {
+                        int value = 1 + random.nextInt(1000);
+                        weight.setWeight(i, j, value);
+                        weight.setWeight(j, i, value);
+                    }
+                }
+                break;
+            case EUCLIDEAN:
+                int[] x = new int[size];
+                int[] y = new int[size];
+                for (int i = 0; i < size; i++) {
+                    x[i] = random.nextInt(1000);
+                    y[i] = random.nextInt(1000);
+                }
+                for (int i = 0; i < size; i++) {
+                    for (int j = 0; j < size; j++) {
+                        weight.setWeight(i, j, (int) Math.round(Math.hypot(x[i] - x[j], y[i] - y[j])));
+                    }
+                }
+                break;
+            case ONE_PATH:
+                for (int i = 0; i < size; i++) {
+                    for (int j = 0; j < size; j++) {
+                        weight.setWeight(i, j, i == j ? 0 : 100 + random.nextInt(9901));
+                    }
+                }
+                int[] order = shuffledCities(size, random);
+                for (int i = 0; i < size; i++) {
+                    weight.setWeight(order[i], order[(i + 1) % size], 1);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown shape " + shape);
+        }
+        return weight;
+    }
+
+    static List<City> cities(int size) {
+        List<City> cities = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            cities.add(new City("City" + i, i, false));
+        }
+        return cities;
+    }
+
+    static int[] shuffledCities(int size, Random random) {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = order[i];
+            order[i] = order[j];
+            order[j] = temp;
+        }
+        return order;
+    }
+}
@@ -0,0 +1,54 @@
+package TSPBenchmark;
+
+import TSP.NearestNeighbour;
+import TSP.NeighbourIndex;
+import TSP.TspResult;
+import TSP.TspSolver;
+import TSP.Weight;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class NearestNeighbourBenchmark {
+    @Param({"10", "100", "1000"})
+    int cities;
+
+    @Param({"RANDOM", "EUCLIDEAN", "ONE_PATH"})
+    Matrices.Shape shape;
+
+    Weight distances;
+    TspSolver solver;
+
+    @Setup
+    public void setup() {
+        distances = Matrices.create(shape, cities);
+        solver = new TspSolver(distances, Matrices.cities(cities));
+    }
+
+    /**
+     * Uses the neighbour index cached on the matrix, as repeated solves do
+     */
+    @Benchmark
+    public TspResult nearestNeighbour() {
+        return solver.nearestNeighbour();
+    }
+
+    /**
+     * Builds the neighbour index on every call, as the first solve on a matrix does
+     */
+    @Benchmark
+    public int[] nearestNeighbourColdIndex() {
+        return new NearestNeighbour(distances, new NeighbourIndex(distances, 16)).tour(cities - 1);
+    }
+
+    @Benchmark
+    public TspResult nearestNeighbourLocalSearch() {
+        return solver.nearestNeighbourLocalSearch();
+    }
+}
@@ -0,0 +1,59 @@
+package TSPBenchmark;
+
+import TSP.BoundingStrategy;
+import TSP.BranchAndBoundSolver;
+import TSP.ParallelBranchAndBound;
+import TSP.Weight;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fork-join branch and bound against the sequential array engine with the same
+ * lower bound, on pools of different sizes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class ParallelBranchAndBoundBenchmark {
+    @Param({"12", "14"})
+    int cities;
+
+    @Param({"RANDOM", "EUCLIDEAN"})
+    Matrices.Shape shape;
+
+    @Param({"1", "4"})
+    int threads;
+
+    Weight distances;
+    ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        distances = Matrices.create(shape, cities);
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int sequential() {
+        BranchAndBoundSolver solver = new BranchAndBoundSolver(distances);
+        solver.setBoundingStrategy(BoundingStrategy.MIN_OUTGOING_EDGE);
+        return solver.solve();
+    }
+
+    @Benchmark
+    public int parallel() {
+        ParallelBranchAndBound solver = new ParallelBranchAndBound(distances, cities - 1, pool);
+        solver.setBoundingStrategy(BoundingStrategy.MIN_OUTGOING_EDGE);
+        return solver.solve();
+    }
+}
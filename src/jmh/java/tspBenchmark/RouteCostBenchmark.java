@@ -0,0 +1,68 @@
+package TSPBenchmark;
+
+import TSP.City;
+import TSP.DistanceMatrix;
+import TSP.Route;
+import TSP.TSP;
+import TSP.TspSolver;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The static TSP.getRouteCost over the shared matrix next to the instance
+ * TspSolver.getRouteCost, on the same route
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RouteCostBenchmark {
+    @Param({"10", "100", "1000"})
+    int cities;
+
+    @Param({"RANDOM", "EUCLIDEAN", "ONE_PATH"})
+    Matrices.Shape shape;
+
+    TspSolver solver;
+    Route route;
+    DistanceMatrix previous;
+
+    @Setup
+    public void setup() {
+        List<City> cityList = Matrices.cities(cities);
+        DistanceMatrix distances = Matrices.create(shape, cities);
+        solver = new TspSolver(distances, cityList);
+
+        // The static method reads the shared matrix
+        previous = TSP.distances;
+        TSP.setDistances(distances);
+
+        // A random closed route starting and ending at the depot
+        int[] order = Matrices.shuffledCities(cities - 1, new Random(Matrices.SEED));
+        route = new Route(cityList.get(cities - 1));
+        for (int id : order) {
+            route.getRoute().add(cityList.get(id));
+        }
+        route.getRoute().add(cityList.get(cities - 1));
+    }
+
+    @TearDown
+    public void tearDown() {
+        TSP.setDistances(previous);
+    }
+
+    @Benchmark
+    public int getRouteCost() {
+        return solver.getRouteCost(route);
+    }
+
+    @Benchmark
+    public Integer staticGetRouteCost() {
+        return TSP.getRouteCost(route);
+    }
+}
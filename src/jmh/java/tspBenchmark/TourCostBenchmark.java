@@ -0,0 +1,71 @@
+package TSPBenchmark;
+
+import TSP.TourCostEvaluator;
+import TSP.Weight;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch tour costing with and without vector gathers, against the per-edge
+ * getWeight loop. Scores are tours per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@OperationsPerInvocation(TourCostBenchmark.TOURS)
+public class TourCostBenchmark {
+    // Tours costed per call, a genetic algorithm population
+    static final int TOURS = 256;
+
+    @Param({"10", "100", "1000"})
+    int cities;
+
+    @Param({"true", "false"})
+    boolean vectorised;
+
+    Weight distances;
+    TourCostEvaluator evaluator;
+    int[] tours;
+    long[] costs;
+
+    @Setup
+    public void setup() {
+        distances = Matrices.create(Matrices.Shape.EUCLIDEAN, cities);
+        evaluator = new TourCostEvaluator(distances);
+        evaluator.setVectorised(vectorised);
+
+        // Random closed tours one after another
+        Random random = new Random(Matrices.SEED);
+        tours = new int[TOURS * (cities + 1)];
+        for (int t = 0; t < TOURS; t++) {
+            int[] order = Matrices.shuffledCities(cities, random);
+            System.arraycopy(order, 0, tours, t * (cities + 1), cities);
+            tours[t * (cities + 1) + cities] = order[0];
+        }
+        costs = new long[TOURS];
+    }
+
+    @Benchmark
+    public long[] evaluator() {
+        evaluator.costs(tours, cities + 1, TOURS, costs);
+        return costs;
+    }
+
+    @Benchmark
+    public long[] getWeightLoop() {
+        int stride = cities + 1;
+        for (int t = 0; t < TOURS; t++) {
+            long cost = 0;
+            for (int p = t * stride; p < t * stride + cities; p++) {
+                cost += distances.getWeight(tours[p], tours[p + 1]);
+            }
+            costs[t] = cost;
+        }
+        return costs;
+    }
+}
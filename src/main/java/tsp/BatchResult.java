@@ -0,0 +1,114 @@
+package TSP;
+
+import java.util.Arrays;
+
+/**
+ * Routes and costs of a batch of instances stored column by column: one cost
+ * array and one array holding every closed tour back to back, instead of a
+ * Route of City objects per instance. Instance i's tour is
+ * tours[tourStart[i] .. tourStart[i + 1]).
+ *
+ * Results never change after they are created, so they can be handed between
+ * threads freely.
+ */
+public final class BatchResult {
+	private final int[] costs;
+	private final int[] tourStart;
+	private final int[] tours;
+	private final long[] nodesExpanded;
+
+	/**
+	 * Constructor with variables, the arrays are kept rather than copied
+	 *
+	 * @param costs         cost of each instance, Integer.MAX_VALUE if no route
+	 *                      was found
+	 * @param tourStart     start of each instance's tour in tours, then its end
+	 * @param tours         closed tours back to back
+	 * @param nodesExpanded search nodes of each instance
+	 */
+	BatchResult(int[] costs, int[] tourStart, int[] tours, long[] nodesExpanded) {
+		this.costs = costs;
+		this.tourStart = tourStart;
+		this.tours = tours;
+		this.nodesExpanded = nodesExpanded;
+	}
+
+	/**
+	 * Gets the number of instances
+	 *
+	 * @return size
+	 */
+	public int size() {
+		return costs.length;
+	}
+
+	public int getCost(int instance) {
+		return costs[instance];
+	}
+
+	/**
+	 * Gets the number of cities in an instance's closed tour, one more than the
+	 * cities in the instance
+	 *
+	 * @param instance
+	 * @return length
+	 */
+	public int getTourLength(int instance) {
+		return tourStart[instance + 1] - tourStart[instance];
+	}
+
+	/**
+	 * Gets one city of an instance's tour without copying the tour
+	 *
+	 * @param instance
+	 * @param position 0 and getTourLength(instance) - 1 are the depot
+	 * @return city ID
+	 */
+	public int getCity(int instance, int position) {
+		if (position < 0 || position >= getTourLength(instance)) {
+			throw new IndexOutOfBoundsException("Position " + position + " of a tour of " + getTourLength(instance));
+		}
+		return tours[tourStart[instance] + position];
+	}
+
+	/**
+	 * Gets an instance's closed tour
+	 *
+	 * @param instance
+	 * @return tour, a new array on every call
+	 */
+	public int[] getTour(int instance) {
+		return Arrays.copyOfRange(tours, tourStart[instance], tourStart[instance + 1]);
+	}
+
+	public long getNodesExpanded(int instance) {
+		return nodesExpanded[instance];
+	}
+
+	/**
+	 * Gets every cost, in instance order
+	 *
+	 * @return costs, a new array on every call
+	 */
+	public int[] getCosts() {
+		return costs.clone();
+	}
+
+	/**
+	 * Gets the sum of every cost, for example the distance driven by a whole fleet
+	 *
+	 * @return total
+	 */
+	public long getTotalCost() {
+		long total = 0;
+		for (int cost : costs) {
+			total += cost;
+		}
+		return total;
+	}
+
+	@Override
+	public String toString() {
+		return "BatchResult{" + "size=" + size() + ", totalCost=" + getTotalCost() + '}';
+	}
+}
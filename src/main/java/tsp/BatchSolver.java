@@ -0,0 +1,169 @@
+package TSP;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Solves many small instances exactly, for example thousands of 8 to 12 stop
+ * routes, spread across a {@link ForkJoinPool}. Each worker keeps one
+ * {@link BranchAndBoundSolver} and points it at instance after instance, so its
+ * arrays are allocated once rather than per instance, and finished workers hand
+ * their solver on to the next batch, which sets its bound and order again.
+ * Routes go straight into a {@link BatchResult} without building cities or
+ * routes.
+ *
+ * The last city of every instance is its depot. Instances may differ in size.
+ */
+public class BatchSolver {
+	// Instances a worker claims at a time, enough to keep the shared counter cold
+	private static final int CHUNK = 32;
+
+	private final ForkJoinPool pool;
+	// Solvers of finished workers, ready for the next batch
+	private final Queue<BranchAndBoundSolver> idle = new ConcurrentLinkedQueue<>();
+
+	// Fastest on random 8 to 12 city matrices, about twice the depth first speed even though best
+	// first allocates its open nodes
+	private volatile BoundingStrategy strategy = BoundingStrategy.REDUCED_MATRIX;
+	private volatile SearchOrder searchOrder = SearchOrder.BEST_FIRST;
+
+	/**
+	 * Constructor using the common pool
+	 */
+	public BatchSolver() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Constructor with variables
+	 *
+	 * @param pool pool to run the workers in
+	 */
+	public BatchSolver(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Calculates the shortest route of every instance
+	 *
+	 * @param instances
+	 * @return routes and costs in instance order
+	 */
+	public BatchResult solve(DistanceMatrix[] instances) {
+		int n = instances.length;
+		// Every tour's place is known up front, so workers write without locking
+		int[] tourStart = new int[n + 1];
+		for (int i = 0; i < n; i++) {
+			tourStart[i + 1] = tourStart[i] + instances[i].getSize() + 1;
+		}
+		int[] tours = new int[tourStart[n]];
+		int[] costs = new int[n];
+		long[] nodesExpanded = new long[n];
+
+		AtomicInteger next = new AtomicInteger();
+		int workers = Math.min(pool.getParallelism(), (n + CHUNK - 1) / CHUNK);
+		ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[workers];
+		for (int w = 0; w < workers; w++) {
+			tasks[w] = pool.submit(() -> work(instances, next, tourStart, tours, costs, nodesExpanded));
+		}
+		for (ForkJoinTask<?> task : tasks) {
+			task.join();
+		}
+		return new BatchResult(costs, tourStart, tours, nodesExpanded);
+	}
+
+	/**
+	 * Calculates the shortest route of every instance
+	 *
+	 * @param instances
+	 * @return routes and costs in list order
+	 */
+	public BatchResult solve(List<? extends DistanceMatrix> instances) {
+		return solve(instances.toArray(new DistanceMatrix[0]));
+	}
+
+	/**
+	 * Calculates the shortest route of every instance in a finite stream
+	 *
+	 * @param instances
+	 * @return routes and costs in encounter order
+	 */
+	public BatchResult solve(Stream<? extends DistanceMatrix> instances) {
+		return solve(instances.toArray(DistanceMatrix[]::new));
+	}
+
+	/**
+	 * Claims chunks of instances until none are left, solving each with one
+	 * reused solver
+	 */
+	private void work(DistanceMatrix[] instances, AtomicInteger next, int[] tourStart, int[] tours, int[] costs,
+			long[] nodesExpanded) {
+		BranchAndBoundSolver solver = idle.poll();
+		if (solver != null) {
+			// It may have been set up before the bound or order last changed
+			solver.setBoundingStrategy(strategy);
+			solver.setSearchOrder(searchOrder);
+		}
+		try {
+			for (int start = next.getAndAdd(CHUNK); start < instances.length; start = next.getAndAdd(CHUNK)) {
+				int end = Math.min(instances.length, start + CHUNK);
+				for (int i = start; i < end; i++) {
+					DistanceMatrix distances = instances[i];
+					if (solver == null) {
+						solver = newSolver(distances);
+					} else {
+						solver.setDistances(distances, distances.getSize() - 1);
+					}
+					costs[i] = solver.solve();
+					solver.copyBestTour(tours, tourStart[i]);
+					nodesExpanded[i] = solver.getNodesExpanded();
+				}
+			}
+		} finally {
+			if (solver != null) {
+				idle.offer(solver);
+			}
+		}
+	}
+
+	private BranchAndBoundSolver newSolver(DistanceMatrix distances) {
+		BranchAndBoundSolver solver = new BranchAndBoundSolver(distances);
+		solver.setBoundingStrategy(strategy);
+		solver.setSearchOrder(searchOrder);
+		solver.setNearestNeighbourStart(true);
+		return solver;
+	}
+
+	// Mutator functions
+
+	public BoundingStrategy getBoundingStrategy() {
+		return strategy;
+	}
+
+	/**
+	 * Sets the lower bound for later batches
+	 *
+	 * @param strategy
+	 */
+	public void setBoundingStrategy(BoundingStrategy strategy) {
+		this.strategy = strategy;
+	}
+
+	public SearchOrder getSearchOrder() {
+		return searchOrder;
+	}
+
+	/**
+	 * Sets the node order for later batches
+	 *
+	 * @param searchOrder
+	 */
+	public void setSearchOrder(SearchOrder searchOrder) {
+		this.searchOrder = searchOrder;
+	}
+}
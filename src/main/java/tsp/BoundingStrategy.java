@@ -0,0 +1,33 @@
+package TSP;
+
+/**
+ * Built in lower bounds for {@link BranchAndBoundSolver}
+ */
+public enum BoundingStrategy {
+	// Prune on the prefix cost only, like TSP.branchAndBound()
+	NONE,
+	// Every remaining city has to be left once through its cheapest edge
+	MIN_OUTGOING_EDGE,
+	// Row and column reduction of the remaining matrix
+	REDUCED_MATRIX,
+	// Held-Karp 1-tree with subgradient optimised node penalties
+	ONE_TREE;
+
+	/**
+	 * Creates a new bound instance for one solver
+	 *
+	 * @return bound
+	 */
+	public LowerBound create() {
+		switch (this) {
+			case MIN_OUTGOING_EDGE:
+				return new MinOutgoingEdgeBound();
+			case REDUCED_MATRIX:
+				return new ReducedMatrixBound();
+			case ONE_TREE:
+				return new OneTreeBound();
+			default:
+				return (current, visited, budget) -> 0L;
+		}
+	}
+}
@@ -0,0 +1,551 @@
+package TSP;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Depth first branch and bound that works on primitive arrays only. The partial
+ * tour lives in a single int[], visited cities in a bitset and the prefix cost is
+ * carried down the recursion, so no objects are allocated per search node.
+ *
+ * A {@link LowerBound} on the rest of the tour can be plugged in to prune
+ * earlier, and nodes can be expanded depth first or best first. Distances are
+ * assumed to be non-negative, as the prefix cost is part of every bound.
+ *
+ * A solve can be given a time limit and a cancellation token. When either
+ * stops it early the best route so far is kept, along with a lower bound on the
+ * shortest route, and every cheaper route found on the way can be reported to a
+ * listener.
+ *
+ * One solver can be pointed at matrix after matrix with
+ * {@link #setDistances(DistanceMatrix, int)}, reusing its arrays whenever the new
+ * matrix is no larger than the largest before it.
+ */
+public class BranchAndBoundSolver {
+	private int size;
+	private int depot;
+	private int checkMask; // Nodes expanded between clock reads, less one
+	// Arrays may be larger than the current matrix needs, left from a larger one
+	private int[] matrix; // Row-major copy of the distances
+	private int[] tour; // tour[0] is the depot, tour[1..depth-1] the partial path
+	private long[] visited; // Bitset of cities in the partial path
+	private int[] bestTour; // Closed tour, depot at start and end
+
+	private LowerBound bound = BoundingStrategy.NONE.create();
+	private SearchOrder searchOrder = SearchOrder.DEPTH_FIRST;
+	private boolean nearestNeighbourStart; // Start from the nearest neighbour tour if no initial tour is set
+
+	private int[] initialTour; // Best so far at the start of a solve, may be null
+	private long upperBound = Long.MAX_VALUE; // Routes must cost at most this
+
+	private Duration timeLimit; // null for no limit
+	private CancellationToken cancellationToken;
+	private IncumbentListener listener;
+	private StopCondition stop = StopCondition.NEVER;
+
+	private long bestCost;
+	private boolean found;
+	private long nodesExpanded;
+	private long nodesPruned;
+	private boolean stopped; // Time limit ran out or the solve was cancelled
+	private long lowerBound; // On the shortest route, from the root or the best first frontier
+	private final IncumbentTracker incumbents = new IncumbentTracker();
+
+	/**
+	 * Constructor using the last city as the depot, like {@link TSP#branchAndBound()}
+	 *
+	 * @param distances
+	 */
+	public BranchAndBoundSolver(DistanceMatrix distances) {
+		this(distances, distances.getSize() - 1);
+	}
+
+	/**
+	 * Constructor with variables
+	 *
+	 * @param distances
+	 * @param depot     city the tour starts and ends at
+	 */
+	public BranchAndBoundSolver(DistanceMatrix distances, int depot) {
+		setDistances(distances, depot);
+	}
+
+	/**
+	 * Points the solver at another matrix, copying it into the solver's arrays if
+	 * they are large enough. Clears the initial tour and upper bound, which belong
+	 * to the old matrix.
+	 *
+	 * @param distances
+	 * @param depot     city the tour starts and ends at
+	 */
+	public void setDistances(DistanceMatrix distances, int depot) {
+		int n = distances.getSize();
+		if (depot < 0 || depot >= n) {
+			throw new IllegalArgumentException("Depot " + depot + " is not a city of a " + n + " city matrix");
+		}
+		this.size = n;
+		this.depot = depot;
+		// A node tries up to n children, so it is about n of the steps in CHECK_INTERVAL
+		this.checkMask = Integer.highestOneBit(Math.max(1, StopCondition.CHECK_INTERVAL / n)) - 1;
+		if (matrix == null || matrix.length < n * n) {
+			this.matrix = new int[n * n];
+			this.tour = new int[n];
+			this.visited = new long[(n + 63) >>> 6];
+			this.bestTour = new int[n + 1];
+		}
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				matrix[i * n + j] = distances.getWeight(i, j);
+			}
+		}
+		this.initialTour = null;
+		this.upperBound = Long.MAX_VALUE;
+		this.found = false;
+	}
+
+	/**
+	 * Calculates the shortest route starting and ending at the depot. If an upper
+	 * bound is set and no route is within it, no route is found. If the time
+	 * limit runs out or the token is cancelled first, the best route so far is
+	 * kept and {@link #isComplete()} is false.
+	 *
+	 * @return cost of the shortest route, Integer.MAX_VALUE if none was found
+	 */
+	public int solve() {
+		incumbents.start();
+		stop = StopCondition.start(timeLimit, cancellationToken);
+		stopped = stop.isReached();
+		// Routes must be strictly cheaper than bestCost, so allow ties with the bound
+		bestCost = upperBound == Long.MAX_VALUE ? upperBound : upperBound + 1;
+		found = false;
+		if (initialTour != null) {
+			long initialCost = tourCost(initialTour);
+			if (initialCost < bestCost) {
+				bestCost = initialCost;
+				System.arraycopy(initialTour, 0, bestTour, 0, size + 1);
+				found = true;
+				improved();
+			}
+		} else if (nearestNeighbourStart) {
+			long nearestCost = nearestNeighbourTour();
+			if (nearestCost < bestCost) {
+				bestCost = nearestCost;
+				System.arraycopy(tour, 0, bestTour, 0, size);
+				bestTour[size] = depot;
+				found = true;
+				improved();
+			}
+		}
+		nodesExpanded = 0;
+		nodesPruned = 0;
+		Arrays.fill(visited, 0L);
+		bound.init(matrix, size, depot);
+
+		tour[0] = depot;
+		visit(depot);
+		lowerBound = bound.bound(depot, visited, Long.MAX_VALUE);
+		// Skip the search if cancelled before it began
+		if (!stopped) {
+			if (searchOrder == SearchOrder.BEST_FIRST) {
+				bestFirstSearch();
+			} else {
+				search(1, depot, 0L);
+			}
+		}
+		unvisit(depot);
+
+		return getBestCost();
+	}
+
+	/**
+	 * Builds the nearest neighbour tour from the depot in the tour array, ties
+	 * going to the lower city
+	 *
+	 * @return cost of the closed tour
+	 */
+	private long nearestNeighbourTour() {
+		Arrays.fill(visited, 0L);
+		tour[0] = depot;
+		visit(depot);
+		int current = depot;
+		long cost = 0;
+		for (int depth = 1; depth < size; depth++) {
+			int row = current * size;
+			int nearest = -1;
+			for (int next = 0; next < size; next++) {
+				if (!isVisited(next) && (nearest < 0 || matrix[row + next] < matrix[row + nearest])) {
+					nearest = next;
+				}
+			}
+			tour[depth] = nearest;
+			visit(nearest);
+			cost += matrix[row + nearest];
+			current = nearest;
+		}
+		return cost + matrix[current * size + depot];
+	}
+
+	/**
+	 * Counts a new best tour and reports it to the listener, if there is one
+	 */
+	private void improved() {
+		incumbents.improved();
+		if (listener != null) {
+			listener.improved(Arrays.copyOf(bestTour, size + 1), (int) bestCost);
+		}
+	}
+
+	private long tourCost(int[] closedTour) {
+		long cost = 0;
+		for (int i = 0; i < size; i++) {
+			cost += matrix[closedTour[i] * size + closedTour[i + 1]];
+		}
+		return cost;
+	}
+
+	/**
+	 * Extends the partial tour tour[0..depth-1] ending at current
+	 *
+	 * @param depth   number of cities in the partial tour
+	 * @param current last city of the partial tour
+	 * @param cost    cost of the partial tour
+	 */
+	private void search(int depth, int current, long cost) {
+		// Reading the clock at every node would cost more than small nodes
+		if ((nodesExpanded++ & checkMask) == 0 && stop.isReached()) {
+			stopped = true;
+			return;
+		}
+
+		if (depth == size) {
+			// Route is complete, close it back to the depot
+			long total = cost + matrix[current * size + depot];
+			if (total < bestCost) {
+				bestCost = total;
+				found = true;
+				System.arraycopy(tour, 0, bestTour, 0, size);
+				bestTour[size] = depot;
+				improved();
+			}
+			return;
+		}
+
+		int row = current * size;
+		for (int next = 0; next < size; next++) {
+			if (isVisited(next)) {
+				continue;
+			}
+
+			long nextCost = cost + matrix[row + next];
+			tour[depth] = next;
+			visit(next);
+			// Only keep going while the bound is cheaper than the best complete route so far
+			if (isPromising(next, nextCost)) {
+				search(depth + 1, next, nextCost);
+			}
+			unvisit(next);
+			if (stopped) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Expands the open node with the lowest bound first. Open nodes each keep a
+	 * copy of their partial tour, so unlike the depth first search this allocates
+	 * per node.
+	 */
+	private void bestFirstSearch() {
+		PriorityQueue<Node> open = new PriorityQueue<>();
+		open.add(new Node(new int[] { depot }, 0L, bound.bound(depot, visited, Long.MAX_VALUE)));
+
+		while (!open.isEmpty()) {
+			Node node = open.poll();
+			if (node.bound >= bestCost) {
+				// Every remaining node is at least as expensive
+				nodesPruned += open.size() + 1;
+				break;
+			}
+			if ((nodesExpanded & checkMask) == 0 && stop.isReached()) {
+				// No open node, nor any route through one, costs less than this node's bound
+				stopped = true;
+				lowerBound = Math.max(lowerBound, node.bound);
+				break;
+			}
+
+			// Restore the node's partial tour into the shared arrays
+			int depth = node.path.length;
+			System.arraycopy(node.path, 0, tour, 0, depth);
+			Arrays.fill(visited, 0L);
+			for (int city : node.path) {
+				visit(city);
+			}
+			int current = tour[depth - 1];
+
+			nodesExpanded++;
+			if (depth == size) {
+				long total = node.cost + matrix[current * size + depot];
+				if (total < bestCost) {
+					bestCost = total;
+					found = true;
+					System.arraycopy(tour, 0, bestTour, 0, size);
+					bestTour[size] = depot;
+					improved();
+				}
+				continue;
+			}
+
+			for (int next = 0; next < size; next++) {
+				if (isVisited(next)) {
+					continue;
+				}
+				long nextCost = node.cost + matrix[current * size + next];
+				visit(next);
+				if (nextCost < bestCost) {
+					long lowerBound = nextCost + bound.bound(next, visited, budget(nextCost));
+					if (lowerBound < bestCost) {
+						int[] path = Arrays.copyOf(node.path, depth + 1);
+						path[depth] = next;
+						open.add(new Node(path, nextCost, lowerBound));
+					} else {
+						nodesPruned++;
+					}
+				} else {
+					nodesPruned++;
+				}
+				unvisit(next);
+			}
+		}
+	}
+
+	/**
+	 * Checks the prefix cost and then the lower bound against the best route so
+	 * far, counting the node as pruned if either fails
+	 *
+	 * @param current last city of the partial tour, already marked visited
+	 * @param cost    cost of the partial tour
+	 * @return true if the node can still lead to a cheaper route
+	 */
+	private boolean isPromising(int current, long cost) {
+		if (cost >= bestCost || cost + bound.bound(current, visited, budget(cost)) >= bestCost) {
+			nodesPruned++;
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Gets how much the rest of the tour may cost before the node is pruned
+	 *
+	 * @param cost cost of the partial tour
+	 * @return budget, Long.MAX_VALUE while no complete route is known
+	 */
+	private long budget(long cost) {
+		return bestCost == Long.MAX_VALUE ? Long.MAX_VALUE : bestCost - cost;
+	}
+
+	private boolean isVisited(int city) {
+		return (visited[city >>> 6] & (1L << city)) != 0;
+	}
+
+	private void visit(int city) {
+		visited[city >>> 6] |= 1L << city;
+	}
+
+	private void unvisit(int city) {
+		visited[city >>> 6] &= ~(1L << city);
+	}
+
+	/**
+	 * Open node of the best first search
+	 */
+	private static final class Node implements Comparable<Node> {
+		private final int[] path;
+		private final long cost;
+		private final long bound;
+
+		private Node(int[] path, long cost, long bound) {
+			this.path = path;
+			this.cost = cost;
+			this.bound = bound;
+		}
+
+		@Override
+		public int compareTo(Node other) {
+			int byBound = Long.compare(bound, other.bound);
+			// Deeper nodes first on ties, they reach complete routes sooner
+			return byBound != 0 ? byBound : Integer.compare(other.path.length, path.length);
+		}
+	}
+
+	// Mutator functions
+
+	public void setBound(LowerBound bound) {
+		this.bound = bound;
+	}
+
+	public void setBoundingStrategy(BoundingStrategy strategy) {
+		this.bound = strategy.create();
+	}
+
+	public SearchOrder getSearchOrder() {
+		return searchOrder;
+	}
+
+	public void setSearchOrder(SearchOrder searchOrder) {
+		this.searchOrder = searchOrder;
+	}
+
+	public boolean isNearestNeighbourStart() {
+		return nearestNeighbourStart;
+	}
+
+	/**
+	 * Sets whether a solve without an initial tour starts from the nearest
+	 * neighbour tour, built in the solver's own arrays
+	 *
+	 * @param nearestNeighbourStart
+	 */
+	public void setNearestNeighbourStart(boolean nearestNeighbourStart) {
+		this.nearestNeighbourStart = nearestNeighbourStart;
+	}
+
+	/**
+	 * Sets a route to start from as the best so far, for example one found by a
+	 * heuristic, so pruning starts at the first node
+	 *
+	 * @param initialTour closed tour with the depot at both ends, or null
+	 */
+	public void setInitialTour(int[] initialTour) {
+		if (initialTour != null && (initialTour.length != size + 1 || initialTour[0] != depot
+				|| initialTour[size] != depot)) {
+			throw new IllegalArgumentException("Initial tour must visit " + size + " cities from depot " + depot);
+		}
+		this.initialTour = initialTour == null ? null : initialTour.clone();
+	}
+
+	/**
+	 * Sets a known upper bound on the cost of the shortest route, so pruning starts
+	 * at the first node without needing the route itself
+	 *
+	 * @param upperBound
+	 */
+	public void setUpperBound(int upperBound) {
+		this.upperBound = upperBound;
+	}
+
+	/**
+	 * Gets a copy of the best tour found by the last solve, depot at both ends
+	 *
+	 * @return bestTour, null if no route was found within the upper bound
+	 */
+	public int[] getBestTour() {
+		return found ? Arrays.copyOf(bestTour, size + 1) : null;
+	}
+
+	/**
+	 * Copies the best tour found by the last solve into an array, so callers
+	 * solving many matrices need not allocate one per solve
+	 *
+	 * @param out    receives size + 1 cities, depot at both ends
+	 * @param offset where in out the tour starts
+	 * @return true if a route was found and copied
+	 */
+	public boolean copyBestTour(int[] out, int offset) {
+		if (found) {
+			System.arraycopy(bestTour, 0, out, offset, size + 1);
+		}
+		return found;
+	}
+
+	public int getBestCost() {
+		return found ? (int) bestCost : Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Sets the longest a solve may run before it stops with the best route so far
+	 *
+	 * @param timeLimit or null for no limit
+	 */
+	public void setTimeLimit(Duration timeLimit) {
+		StopCondition.check(timeLimit);
+		this.timeLimit = timeLimit;
+	}
+
+	public Duration getTimeLimit() {
+		return timeLimit;
+	}
+
+	/**
+	 * Sets a token that stops a solve early with the best route so far
+	 *
+	 * @param cancellationToken or null
+	 */
+	public void setCancellationToken(CancellationToken cancellationToken) {
+		this.cancellationToken = cancellationToken;
+	}
+
+	/**
+	 * Sets a listener told of every cheaper route as it is found, starting with
+	 * the initial tour
+	 *
+	 * @param listener or null
+	 */
+	public void setIncumbentListener(IncumbentListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Checks if the last solve searched the whole tree, so the best route is the
+	 * shortest, rather than stopping at the time limit or on cancellation
+	 *
+	 * @return complete
+	 */
+	public boolean isComplete() {
+		return !stopped;
+	}
+
+	/**
+	 * Gets a lower bound on the cost of the shortest route from the last solve:
+	 * the best cost itself when the solve was complete, otherwise the bound at the
+	 * root, raised by the open nodes when searching best first
+	 *
+	 * @return lowerBound, Integer.MAX_VALUE if a complete solve found no route
+	 */
+	public int getLowerBound() {
+		if (!stopped) {
+			return getBestCost();
+		}
+		return (int) Math.min(found ? bestCost : Integer.MAX_VALUE, lowerBound);
+	}
+
+	// Incumbent counts of the last solve, see IncumbentTracker
+	public long getIncumbentUpdates() {
+		return incumbents.getUpdates();
+	}
+
+	public long getTimeToFirstSolution() {
+		return incumbents.getTimeToFirst();
+	}
+
+	public long getTimeToBestSolution() {
+		return incumbents.getTimeToBest();
+	}
+
+	public long getNodesExpanded() {
+		return nodesExpanded;
+	}
+
+	public long getNodesPruned() {
+		return nodesPruned;
+	}
+
+	public int getDepot() {
+		return depot;
+	}
+
+	public int getSize() {
+		return size;
+	}
+}
@@ -0,0 +1,22 @@
+package TSP;
+
+/**
+ * Stops running solves from another thread. One token can be shared by any
+ * number of solves, and once cancelled it stays cancelled.
+ *
+ * A cancelled solve still returns the best route it has found so far.
+ */
+public final class CancellationToken {
+	private volatile boolean cancelled;
+
+	/**
+	 * Asks every solve using this token to stop as soon as it next checks
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+}
@@ -0,0 +1,14 @@
+package TSP;
+
+/**
+ * How {@link SimulatedAnnealingSolver} lowers the temperature from the initial
+ * to the final one over a restart
+ */
+public enum CoolingSchedule {
+	// Multiplied by the same factor every step, the usual choice
+	GEOMETRIC,
+	// Lowered by the same amount every step, spends longer hot
+	LINEAR,
+	// Lundy-Mees, T / (1 + beta T) every step, drops fast and then spends longer cold
+	LUNDY_MEES
+}
@@ -0,0 +1,304 @@
+package TSP;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Distances computed on demand from city coordinates, so memory grows with the
+ * number of cities instead of its square. 100k cities take about 1.6 MB here
+ * against 40 GB as a {@link Weight}.
+ *
+ * An optional row cache keeps the most recently used rows, filling each
+ * distance in when it is first read. It pays off when the same cities are
+ * looked at again and again, as exact solvers do. Heuristics on large instances
+ * jump between cities and are faster without it.
+ *
+ * Coordinates never change, so the neighbour index is built once. On a plane
+ * it is built with a grid of cells, looking only at cells close enough to
+ * hold one of the k nearest cities.
+ */
+public class CoordinateDistances implements DistanceMatrix {
+	// Cities per grid cell when building the neighbour index
+	private static final int CITIES_PER_CELL = 2;
+	// Rows of the neighbour index built by one parallel task
+	private static final int CHUNK = 64;
+	// Cached distance not computed yet, no metric is negative
+	private static final int UNKNOWN = Integer.MIN_VALUE;
+
+	private final DistanceMetric metric;
+	private final int size;
+	private final double[] x;
+	private final double[] y;
+
+	// Least recently used rows, null without a cache. Guarded by itself.
+	private final Map<Integer, int[]> rows;
+	private final int cacheRows;
+	private volatile CachedRow lastRow;
+
+	private volatile NeighbourIndex neighbourIndex;
+	private volatile Long fingerprint;
+
+	/**
+	 * Row with its city, read and replaced as one object between threads
+	 */
+	private static final class CachedRow {
+		private final int city;
+		private final int[] values;
+
+		CachedRow(int city, int[] values) {
+			this.city = city;
+			this.values = values;
+		}
+	}
+
+	/**
+	 * Constructor without a row cache
+	 *
+	 * @param metric
+	 * @param x      x coordinates, or latitudes for geographic metrics
+	 * @param y      y coordinates, or longitudes for geographic metrics
+	 */
+	public CoordinateDistances(DistanceMetric metric, double[] x, double[] y) {
+		this(metric, x, y, 0);
+	}
+
+	/**
+	 * Constructor with variables
+	 *
+	 * @param metric
+	 * @param x         x coordinates, or latitudes for geographic metrics
+	 * @param y         y coordinates, or longitudes for geographic metrics
+	 * @param cacheRows most rows to keep, 0 for no cache
+	 */
+	public CoordinateDistances(DistanceMetric metric, double[] x, double[] y, int cacheRows) {
+		if (x.length != y.length) {
+			throw new IllegalArgumentException(x.length + " x coordinates but " + y.length + " y coordinates");
+		}
+		if (cacheRows < 0) {
+			throw new IllegalArgumentException("Cache size must not be negative: " + cacheRows);
+		}
+		this.metric = metric;
+		this.size = x.length;
+		this.x = new double[size];
+		this.y = new double[size];
+		for (int i = 0; i < size; i++) {
+			this.x[i] = metric.prepare(x[i]);
+			this.y[i] = metric.prepare(y[i]);
+		}
+
+		this.cacheRows = cacheRows;
+		this.rows = cacheRows == 0 ? null : new LinkedHashMap<Integer, int[]>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, int[]> eldest) {
+				return size() > CoordinateDistances.this.cacheRows;
+			}
+		};
+	}
+
+	@Override
+	public int getSize() {
+		return size;
+	}
+
+	@Override
+	public int getWeight(int i, int j) {
+		if (rows == null) {
+			return distance(i, j);
+		}
+
+		int[] row;
+		CachedRow last = lastRow;
+		if (last != null && last.city == i) {
+			row = last.values;
+		} else {
+			synchronized (rows) {
+				row = rows.get(i);
+				if (row == null) {
+					row = new int[size];
+					Arrays.fill(row, UNKNOWN);
+					rows.put(i, row);
+				}
+			}
+			lastRow = new CachedRow(i, row);
+		}
+
+		// Threads may race to fill in a distance, they all write the same value
+		int value = row[j];
+		if (value == UNKNOWN) {
+			value = distance(i, j);
+			row[j] = value;
+		}
+		return value;
+	}
+
+	private int distance(int i, int j) {
+		return i == j ? 0 : metric.distance(x[i], y[i], x[j], y[j]);
+	}
+
+	/**
+	 * Distances are the same both ways for every metric
+	 *
+	 * @return true
+	 */
+	@Override
+	public boolean isSymmetric() {
+		return true;
+	}
+
+	/**
+	 * Gets the bytes used by the coordinates and cached rows
+	 *
+	 * @return bytes
+	 */
+	@Override
+	public long getMemoryFootprint() {
+		long cached;
+		if (rows == null) {
+			cached = 0;
+		} else {
+			synchronized (rows) {
+				cached = rows.size() * (Weight.ARRAY_HEADER_BYTES + (long) Integer.BYTES * size);
+			}
+		}
+		return 2 * (Weight.ARRAY_HEADER_BYTES + (long) Double.BYTES * size) + cached;
+	}
+
+	/**
+	 * Gets the k nearest cities of every city. The coordinates never change, so
+	 * the largest index built is kept and smaller k are served as prefixes of it.
+	 *
+	 * @param k
+	 * @return index
+	 */
+	@Override
+	public NeighbourIndex getNeighbourIndex(int k) {
+		NeighbourIndex index = neighbourIndex;
+		if (index == null || index.getK() < Math.min(k, size - 1)) {
+			index = metric.isPlanar() && Math.min(k, size - 1) > 0 ? gridNeighbourIndex(Math.min(k, size - 1))
+					: new NeighbourIndex(this, k);
+			neighbourIndex = index;
+		}
+		return index.prefix(k);
+	}
+
+	/**
+	 * Gets a fingerprint of the metric and the coordinates, which decide every
+	 * distance, so it takes a pass over the cities rather than over every pair.
+	 * It only matches other coordinate instances with the same metric and
+	 * coordinates, not a matrix holding the same distances. Hashed once as the
+	 * coordinates never change.
+	 *
+	 * @return fingerprint
+	 */
+	@Override
+	public long getFingerprint() {
+		Long hash = fingerprint;
+		if (hash == null) {
+			XxHash64 xxHash = new XxHash64(0L);
+			xxHash.update(metric.ordinal());
+			for (int i = 0; i < size; i++) {
+				xxHash.update(Double.doubleToLongBits(x[i]));
+				xxHash.update(Double.doubleToLongBits(y[i]));
+			}
+			hash = xxHash.digest();
+			fingerprint = hash;
+		}
+		return hash;
+	}
+
+	/**
+	 * Builds the neighbour index by searching square rings of grid cells around
+	 * each city, stopping once no city in the next ring can be nearer than the
+	 * k-th nearest found. Gives the same index as checking every city.
+	 */
+	private NeighbourIndex gridNeighbourIndex(int k) {
+		double minX = Double.MAX_VALUE;
+		double minY = Double.MAX_VALUE;
+		double maxX = -Double.MAX_VALUE;
+		double maxY = -Double.MAX_VALUE;
+		for (int i = 0; i < size; i++) {
+			minX = Math.min(minX, x[i]);
+			minY = Math.min(minY, y[i]);
+			maxX = Math.max(maxX, x[i]);
+			maxY = Math.max(maxY, y[i]);
+		}
+
+		// Square cells, about CITIES_PER_CELL cities in each
+		double extent = Math.max(maxX - minX, maxY - minY);
+		int cellsPerSide = Math.max(1, (int) Math.sqrt((double) size / CITIES_PER_CELL));
+		double cell = extent > 0 ? extent / cellsPerSide : 1;
+		int columns = (int) ((maxX - minX) / cell) + 1;
+		int gridRows = (int) ((maxY - minY) / cell) + 1;
+
+		// Bucket the cities by cell, cellStart[c] to cellStart[c + 1] in cellCities
+		int[] cellOf = new int[size];
+		int[] cellStart = new int[columns * gridRows + 1];
+		for (int i = 0; i < size; i++) {
+			int column = Math.min(columns - 1, (int) ((x[i] - minX) / cell));
+			int row = Math.min(gridRows - 1, (int) ((y[i] - minY) / cell));
+			cellOf[i] = row * columns + column;
+			cellStart[cellOf[i] + 1]++;
+		}
+		for (int c = 0; c < columns * gridRows; c++) {
+			cellStart[c + 1] += cellStart[c];
+		}
+		int[] cellCities = new int[size];
+		int[] next = cellStart.clone();
+		for (int i = 0; i < size; i++) {
+			cellCities[next[cellOf[i]]++] = i;
+		}
+
+		int[] neighbours = new int[size * k];
+		int chunks = (size + CHUNK - 1) / CHUNK;
+		IntStream.range(0, chunks).parallel().forEach(chunk -> {
+			int[] heap = new int[k];
+			int[] heapCost = new int[k];
+			int end = Math.min(size, (chunk + 1) * CHUNK);
+			for (int city = chunk * CHUNK; city < end; city++) {
+				int column = cellOf[city] % columns;
+				int row = cellOf[city] / columns;
+				int count = 0;
+				for (int ring = 0; ring <= Math.max(columns, gridRows); ring++) {
+					// Every city in this ring or further out is at least ring - 1 cells away along an axis
+					// (shrunk a little for rounding in the cell assignment)
+					if (count == k && metric.distance(0, 0, (ring - 1) * cell * 0.999999, 0) > heapCost[0]) {
+						break;
+					}
+					for (int r = row - ring; r <= row + ring; r++) {
+						if (r < 0 || r >= gridRows) {
+							continue;
+						}
+						// Whole rows on the top and bottom of the ring, only the ends in between
+						int step = r == row - ring || r == row + ring ? 1 : Math.max(1, 2 * ring);
+						for (int c = column - ring; c <= column + ring; c += step) {
+							if (c < 0 || c >= columns) {
+								continue;
+							}
+							int g = r * columns + c;
+							for (int p = cellStart[g]; p < cellStart[g + 1]; p++) {
+								int other = cellCities[p];
+								if (other != city) {
+									count = NeighbourIndex.offer(heap, heapCost, count, k, other, distance(city, other));
+								}
+							}
+						}
+					}
+				}
+				NeighbourIndex.popSorted(heap, heapCost, count, neighbours, city * k);
+			}
+		});
+		return new NeighbourIndex(size, k, neighbours);
+	}
+
+	// Mutator functions
+
+	public DistanceMetric getMetric() {
+		return metric;
+	}
+
+	public int getCacheRows() {
+		return cacheRows;
+	}
+}
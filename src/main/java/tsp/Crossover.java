@@ -0,0 +1,11 @@
+package TSP;
+
+/**
+ * Way {@link GeneticSolver} combines two parent tours into a child
+ */
+public enum Crossover {
+	// Order crossover (OX), keeps a slice of one parent and the order of the other
+	ORDER,
+	// Edge recombination, builds the child mostly from edges found in either parent
+	EDGE_RECOMBINATION
+}
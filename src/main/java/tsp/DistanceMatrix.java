@@ -0,0 +1,84 @@
+package TSP;
+
+/**
+ * Read access to a square table of distances between cities
+ */
+public interface DistanceMatrix {
+	// Version of a matrix that does not track changes
+	long UNTRACKED_VERSION = -1;
+
+	/**
+	 * Gets the number of cities in the matrix
+	 *
+	 * @return size
+	 */
+	int getSize();
+
+	/**
+	 * Gets the cost of traveling from city i to city j
+	 *
+	 * @param i
+	 * @param j
+	 * @return weight
+	 */
+	int getWeight(int i, int j);
+
+	/**
+	 * Gets the approximate number of bytes used to store the distances
+	 *
+	 * @return bytes
+	 */
+	long getMemoryFootprint();
+
+	/**
+	 * Checks if traveling from i to j always costs the same as from j to i.
+	 * Checks every pair unless the matrix knows without looking.
+	 *
+	 * @return symmetric
+	 */
+	default boolean isSymmetric() {
+		for (int i = 0; i < getSize(); i++) {
+			for (int j = i + 1; j < getSize(); j++) {
+				if (getWeight(i, j) != getWeight(j, i)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the k nearest cities of every city. Matrices that can detect changes
+	 * may return a cached index.
+	 *
+	 * @param k
+	 * @return index
+	 */
+	default NeighbourIndex getNeighbourIndex(int k) {
+		return new NeighbourIndex(this, k);
+	}
+
+	/**
+	 * Gets a number that changes every time the matrix is changed, so callers
+	 * can tell whether anything changed since they last looked
+	 *
+	 * @return version, UNTRACKED_VERSION if changes are not tracked
+	 */
+	default long getVersion() {
+		return UNTRACKED_VERSION;
+	}
+
+	/**
+	 * Gets a 64-bit xxHash of every distance, row by row, so matrices with the
+	 * same distances have the same fingerprint whatever class stores them.
+	 * Matrices that can detect changes may return a cached fingerprint, and ones
+	 * computed from much less data than n^2 distances may hash that data
+	 * instead.
+	 *
+	 * @return fingerprint
+	 */
+	default long getFingerprint() {
+		return XxHash64.of(this);
+	}
+
+}
@@ -0,0 +1,108 @@
+package TSP;
+
+/**
+ * Ways of turning two coordinates into a whole-number distance for
+ * {@link CoordinateDistances}. Distances are rounded to the nearest integer.
+ */
+public enum DistanceMetric {
+	/**
+	 * Straight line distance on the plane, as TSPLIB EUC_2D
+	 */
+	EUCLIDEAN {
+		@Override
+		public int distance(double x1, double y1, double x2, double y2) {
+			double dx = x1 - x2;
+			double dy = y1 - y2;
+			return (int) (Math.sqrt(dx * dx + dy * dy) + 0.5);
+		}
+	},
+
+	/**
+	 * Sum of the horizontal and vertical distances on the plane, as TSPLIB MAN_2D
+	 */
+	MANHATTAN {
+		@Override
+		public int distance(double x1, double y1, double x2, double y2) {
+			return (int) (Math.abs(x1 - x2) + Math.abs(y1 - y2) + 0.5);
+		}
+	},
+
+	/**
+	 * Great circle distance in kilometres, x is the latitude and y the longitude
+	 * in decimal degrees
+	 */
+	HAVERSINE {
+		@Override
+		double prepare(double degrees) {
+			return Math.toRadians(degrees);
+		}
+
+		@Override
+		public int distance(double latitude1, double longitude1, double latitude2, double longitude2) {
+			double sinLatitude = Math.sin((latitude2 - latitude1) / 2);
+			double sinLongitude = Math.sin((longitude2 - longitude1) / 2);
+			double a = sinLatitude * sinLatitude
+					+ Math.cos(latitude1) * Math.cos(latitude2) * sinLongitude * sinLongitude;
+			return (int) (2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a))) + 0.5);
+		}
+	},
+
+	/**
+	 * TSPLIB GEO distance in kilometres, x is the latitude and y the longitude as
+	 * DDD.MM degrees and minutes. Rounds up as TSPLIB does, so distances match
+	 * published optima.
+	 */
+	GEO {
+		@Override
+		double prepare(double degreesMinutes) {
+			// TSPLIB's value of pi
+			double pi = 3.141592;
+			int degrees = (int) degreesMinutes;
+			double minutes = degreesMinutes - degrees;
+			return pi * (degrees + 5.0 * minutes / 3.0) / 180.0;
+		}
+
+		@Override
+		public int distance(double latitude1, double longitude1, double latitude2, double longitude2) {
+			double radius = 6378.388;
+			double q1 = Math.cos(longitude1 - longitude2);
+			double q2 = Math.cos(latitude1 - latitude2);
+			double q3 = Math.cos(latitude1 + latitude2);
+			return (int) (radius * Math.acos(0.5 * ((1.0 + q1) * q2 - (1.0 - q1) * q3)) + 1.0);
+		}
+	};
+
+	private static final double EARTH_RADIUS_KM = 6371.0;
+
+	/**
+	 * Gets the distance between two prepared coordinates
+	 *
+	 * @param x1
+	 * @param y1
+	 * @param x2
+	 * @param y2
+	 * @return distance
+	 */
+	public abstract int distance(double x1, double y1, double x2, double y2);
+
+	/**
+	 * Converts a coordinate as given into the form {@link #distance} expects, for
+	 * example degrees into radians
+	 *
+	 * @param coordinate
+	 * @return prepared coordinate
+	 */
+	double prepare(double coordinate) {
+		return coordinate;
+	}
+
+	/**
+	 * Checks if coordinates are on a plane, where two points are at least as far
+	 * apart as they are along either axis
+	 *
+	 * @return planar
+	 */
+	public boolean isPlanar() {
+		return this == EUCLIDEAN || this == MANHATTAN;
+	}
+}
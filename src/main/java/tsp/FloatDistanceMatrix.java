@@ -0,0 +1,58 @@
+package TSP;
+
+/**
+ * Row-major distance matrix backed by a float[], for instances with fractional
+ * distances. {@link #getWeight(int, int)} rounds to the nearest integer so the
+ * matrix can be used by the integer solvers.
+ */
+public class FloatDistanceMatrix implements DistanceMatrix {
+	private final int size;
+	private final float[] values;
+
+	/**
+	 * Constructor for an empty matrix
+	 *
+	 * @param size
+	 */
+	public FloatDistanceMatrix(int size) {
+		this.size = size;
+		this.values = new float[size * size];
+	}
+
+	/**
+	 * Constructor copying another matrix
+	 *
+	 * @param source
+	 */
+	public FloatDistanceMatrix(DistanceMatrix source) {
+		this(source.getSize());
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				values[i * size + j] = source.getWeight(i, j);
+			}
+		}
+	}
+
+	@Override
+	public int getSize() {
+		return size;
+	}
+
+	@Override
+	public int getWeight(int i, int j) {
+		return Math.round(values[i * size + j]);
+	}
+
+	public float getFloatWeight(int i, int j) {
+		return values[i * size + j];
+	}
+
+	public void setWeight(int i, int j, float value) {
+		values[i * size + j] = value;
+	}
+
+	@Override
+	public long getMemoryFootprint() {
+		return Weight.ARRAY_HEADER_BYTES + (long) Float.BYTES * values.length;
+	}
+}
@@ -0,0 +1,693 @@
+package TSP;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Genetic algorithm for instances far too large for the exact searches, from a
+ * thousand cities up. Each generation keeps the best tour and breeds the rest
+ * from parents picked by tournament, with {@link Crossover#ORDER} or
+ * {@link Crossover#EDGE_RECOMBINATION} crossover and a random segment reversal
+ * as mutation. With local search on, every child is also improved with 2-opt
+ * and Or-opt, which makes it a memetic algorithm and is what makes large
+ * instances converge.
+ *
+ * Fitness is the cost of the closed tour, the same sum as
+ * {@link TspSolver#getRouteCost(Route)}, worked out a chunk at a time by a
+ * {@link TourCostEvaluator}. Children are bred and costed in parallel, in
+ * fixed chunks that each draw from their own random stream, so one seed gives
+ * the same tours whether chunks run in parallel or not.
+ *
+ * Tours are kept closed with the depot at both ends, all in two flat arrays
+ * that swap roles each generation. Those and each chunk's working arrays are
+ * kept between generations and solves, so nothing is allocated per child.
+ */
+public class GeneticSolver {
+	// Children bred by one parallel task
+	private static final int CHUNK = 4;
+	// Candidates tried by edge recombination before picking a random city
+	private static final int DEFAULT_NEIGHBOURS = 10;
+
+	private final DistanceMatrix distances;
+	private final int size;
+	private final int depot;
+	private final NeighbourIndex neighbours;
+
+	private int populationSize = 64;
+	private int generations = 1000;
+	private int stallGenerations = 200;
+	private int tournamentSize = 3;
+	private double mutationRate = 0.2;
+	private Crossover crossover = Crossover.ORDER;
+	private boolean localSearch = false;
+	private boolean parallel = true;
+	private long seed = 0L;
+
+	private Duration timeLimit; // null for no limit
+	private CancellationToken cancellationToken;
+	private IncumbentListener listener;
+
+	// Population, size + 1 cities per tour, reused between solves
+	private int[] current;
+	private int[] next;
+	private long[] costs;
+	private long[] nextCosts;
+	private Breeder[] breeders;
+	private TourCostEvaluator evaluator; // Flat copy of the matrix, copied again only after it changes
+
+	private final int[] bestTour;
+	private long bestCost;
+	private int bestIndex;
+
+	private long generationsRun;
+	private long evaluations;
+	private boolean stopped; // Time limit ran out or the solve was cancelled
+	private final IncumbentTracker incumbents = new IncumbentTracker();
+
+	/**
+	 * Constructor using the last city as the depot
+	 *
+	 * @param distances
+	 */
+	public GeneticSolver(DistanceMatrix distances) {
+		this(distances, distances.getSize() - 1);
+	}
+
+	/**
+	 * Constructor with variables
+	 *
+	 * @param distances
+	 * @param depot     city every tour starts and ends at
+	 */
+	public GeneticSolver(DistanceMatrix distances, int depot) {
+		this.size = distances.getSize();
+		if (depot < 0 || depot >= size) {
+			throw new IllegalArgumentException("Depot " + depot + " is not a city of a " + size + " city matrix");
+		}
+		this.distances = distances;
+		this.depot = depot;
+		this.neighbours = distances.getNeighbourIndex(DEFAULT_NEIGHBOURS);
+		this.bestTour = new int[size + 1];
+	}
+
+	/**
+	 * Evolves the population until the generation limit, until the best tour has
+	 * not improved for the stall limit, or until the time limit runs out or the
+	 * token is cancelled. The first population is always built.
+	 *
+	 * @return cost of the shortest route found
+	 */
+	public int solve() {
+		incumbents.start();
+		StopCondition stop = StopCondition.start(timeLimit, cancellationToken);
+		if (evaluator == null || !evaluator.isCopyOf(distances)) {
+			evaluator = new TourCostEvaluator(distances);
+		}
+		allocate();
+		generationsRun = 0;
+		bestCost = Long.MAX_VALUE;
+
+		run(-1);
+		updateBest();
+
+		int stall = 0;
+		stopped = stop.isReached();
+		while (generationsRun < generations && stall < stallGenerations && !stopped) {
+			run((int) generationsRun);
+			int[] tours = current;
+			current = next;
+			next = tours;
+			long[] temp = costs;
+			costs = nextCosts;
+			nextCosts = temp;
+			generationsRun++;
+
+			stall = updateBest() ? 0 : stall + 1;
+			stopped = stop.isReached();
+		}
+
+		evaluations = 0;
+		for (Breeder breeder : breeders) {
+			evaluations += breeder.evaluations;
+		}
+		return (int) bestCost;
+	}
+
+	/**
+	 * Creates the population arrays, or keeps them if the population size is
+	 * unchanged
+	 */
+	private void allocate() {
+		int stride = size + 1;
+		if (current == null || costs.length != populationSize) {
+			current = new int[populationSize * stride];
+			next = new int[populationSize * stride];
+			costs = new long[populationSize];
+			nextCosts = new long[populationSize];
+			breeders = new Breeder[(populationSize + CHUNK - 1) / CHUNK];
+			for (int c = 0; c < breeders.length; c++) {
+				breeders[c] = new Breeder(c);
+			}
+		}
+		for (Breeder breeder : breeders) {
+			breeder.evaluations = 0;
+		}
+	}
+
+	/**
+	 * Breeds one generation into next, or the first population into current
+	 *
+	 * @param generation -1 for the first population
+	 */
+	private void run(int generation) {
+		if (parallel && breeders.length > 1) {
+			IntStream.range(0, breeders.length).parallel().forEach(c -> breeders[c].run(generation));
+		} else {
+			for (Breeder breeder : breeders) {
+				breeder.run(generation);
+			}
+		}
+	}
+
+	/**
+	 * Finds the best tour of the current population, keeping it if it beats the
+	 * best so far. Ties go to the lowest index so the result does not depend on
+	 * thread timing.
+	 *
+	 * @return improved
+	 */
+	private boolean updateBest() {
+		bestIndex = 0;
+		for (int i = 1; i < populationSize; i++) {
+			if (costs[i] < costs[bestIndex]) {
+				bestIndex = i;
+			}
+		}
+		if (costs[bestIndex] >= bestCost) {
+			return false;
+		}
+		bestCost = costs[bestIndex];
+		System.arraycopy(current, bestIndex * (size + 1), bestTour, 0, size + 1);
+
+		incumbents.improved();
+		if (listener != null) {
+			listener.improved(bestTour.clone(), (int) bestCost);
+		}
+		return true;
+	}
+
+	/**
+	 * Breeds one chunk of the population with its own random stream and working
+	 * arrays
+	 */
+	private final class Breeder {
+		private final int chunk;
+		private final int[] mark; // Stamp of the child a city was placed in
+		private int stamp;
+		private final int[] adjacent; // Edge recombination, up to 4 parent edges per city
+		private final int[] adjacentCount;
+		private final int[] unvisited; // Cities not yet in the child, swap removal
+		private final int[] slot;
+		private LocalSearch search; // Created on first use
+		private long state; // Random stream
+		private long evaluations;
+
+		Breeder(int chunk) {
+			this.chunk = chunk;
+			this.mark = new int[size];
+			this.adjacent = new int[4 * size];
+			this.adjacentCount = new int[size];
+			this.unvisited = new int[size];
+			this.slot = new int[size];
+		}
+
+		void run(int generation) {
+			// Same stream for the same seed, generation and chunk, whichever thread runs it
+			state = mix(seed + mix(((long) generation << 32) ^ chunk));
+			int stride = size + 1;
+			int start = chunk * CHUNK;
+			int end = Math.min(populationSize, start + CHUNK);
+			for (int i = start; i < end; i++) {
+				if (generation < 0) {
+					randomTour(current, i * stride, i);
+					improve(current, i * stride);
+				} else if (i == 0) {
+					// Elitism, the best tour always survives
+					System.arraycopy(current, bestIndex * stride, next, 0, stride);
+					nextCosts[0] = costs[bestIndex];
+				} else {
+					int first = select();
+					int second = select();
+					if (crossover == Crossover.EDGE_RECOMBINATION) {
+						edgeRecombination(first * stride, second * stride, i * stride);
+					} else {
+						orderCrossover(first * stride, second * stride, i * stride);
+					}
+					if (nextDouble() < mutationRate) {
+						mutate(next, i * stride);
+					}
+					improve(next, i * stride);
+				}
+			}
+
+			// Cost the chunk in one batch, apart from the elite tour which kept its cost
+			int[] tours = generation < 0 ? current : next;
+			long[] tourCosts = generation < 0 ? costs : nextCosts;
+			int from = generation < 0 ? start : Math.max(start, 1);
+			evaluator.costs(tours, from * stride, stride, end - from, tourCosts, from);
+			evaluations += end - from;
+		}
+
+		/**
+		 * First population, the nearest neighbour tour and then random tours
+		 */
+		private void randomTour(int[] tours, int offset, int individual) {
+			if (individual == 0) {
+				System.arraycopy(new NearestNeighbour(distances, neighbours).tour(depot), 0, tours, offset, size + 1);
+				return;
+			}
+			tours[offset] = depot;
+			for (int p = 1, city = 0; city < size; city++) {
+				if (city != depot) {
+					tours[offset + p++] = city;
+				}
+			}
+			tours[offset + size] = depot;
+			for (int p = size - 1; p > 1; p--) {
+				int q = 1 + nextInt(p);
+				int temp = tours[offset + p];
+				tours[offset + p] = tours[offset + q];
+				tours[offset + q] = temp;
+			}
+		}
+
+		/**
+		 * Picks the cheapest of a few random tours of the current population
+		 */
+		private int select() {
+			int best = nextInt(populationSize);
+			for (int t = 1; t < tournamentSize; t++) {
+				int other = nextInt(populationSize);
+				if (costs[other] < costs[best]) {
+					best = other;
+				}
+			}
+			return best;
+		}
+
+		/**
+		 * Copies a random slice of the first parent and fills the rest of the
+		 * child in the order the cities follow the slice in the second parent
+		 */
+		private void orderCrossover(int first, int second, int child) {
+			int free = size - 1; // Positions 1 to size - 1, the depot stays put
+			next[child] = depot;
+			next[child + size] = depot;
+			if (free == 0) {
+				return;
+			}
+			int a = 1 + nextInt(free);
+			int b = 1 + nextInt(free);
+			if (a > b) {
+				int temp = a;
+				a = b;
+				b = temp;
+			}
+
+			newStamp();
+			for (int p = a; p <= b; p++) {
+				int city = current[first + p];
+				next[child + p] = city;
+				mark[city] = stamp;
+			}
+			int write = b == free ? 1 : b + 1;
+			int read = write;
+			for (int k = 0; k < free; k++) {
+				int city = current[second + read];
+				read = read == free ? 1 : read + 1;
+				if (mark[city] != stamp) {
+					next[child + write] = city;
+					write = write == free ? 1 : write + 1;
+				}
+			}
+		}
+
+		/**
+		 * Builds the child from the depot, moving each time along a parent edge to
+		 * the city with the fewest parent edges left. When no parent edge is left
+		 * it moves to the nearest free candidate, or failing that a random city.
+		 */
+		private void edgeRecombination(int first, int second, int child) {
+			Arrays.fill(adjacentCount, 0);
+			for (int p = 0; p < size; p++) {
+				link(current[first + p], current[first + p + 1]);
+				link(current[second + p], current[second + p + 1]);
+			}
+			for (int city = 0; city < size; city++) {
+				unvisited[city] = city;
+				slot[city] = city;
+			}
+			int remaining = size;
+			newStamp();
+
+			int city = depot;
+			for (int p = 0; p < size; p++) {
+				next[child + p] = city;
+				mark[city] = stamp;
+				int last = unvisited[--remaining];
+				unvisited[slot[city]] = last;
+				slot[last] = slot[city];
+				for (int e = 0; e < adjacentCount[city]; e++) {
+					unlink(adjacent[4 * city + e], city);
+				}
+				if (remaining == 0) {
+					break;
+				}
+
+				int chosen = -1;
+				int ties = 0;
+				for (int e = 0; e < adjacentCount[city]; e++) {
+					int candidate = adjacent[4 * city + e];
+					if (chosen < 0 || adjacentCount[candidate] < adjacentCount[chosen]) {
+						chosen = candidate;
+						ties = 1;
+					} else if (adjacentCount[candidate] == adjacentCount[chosen] && nextInt(++ties) == 0) {
+						chosen = candidate;
+					}
+				}
+				for (int r = 0; chosen < 0 && r < neighbours.getK(); r++) {
+					int candidate = neighbours.getNeighbour(city, r);
+					if (mark[candidate] != stamp) {
+						chosen = candidate;
+					}
+				}
+				city = chosen >= 0 ? chosen : unvisited[nextInt(remaining)];
+			}
+			next[child + size] = depot;
+		}
+
+		private void link(int a, int b) {
+			addEdge(a, b);
+			addEdge(b, a);
+		}
+
+		private void addEdge(int from, int to) {
+			for (int e = 0; e < adjacentCount[from]; e++) {
+				if (adjacent[4 * from + e] == to) {
+					return;
+				}
+			}
+			adjacent[4 * from + adjacentCount[from]++] = to;
+		}
+
+		private void unlink(int from, int to) {
+			for (int e = 0; e < adjacentCount[from]; e++) {
+				if (adjacent[4 * from + e] == to) {
+					adjacent[4 * from + e] = adjacent[4 * from + --adjacentCount[from]];
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Reverses a random segment, keeping the depot at both ends
+		 */
+		private void mutate(int[] tours, int offset) {
+			if (size < 4) {
+				return;
+			}
+			int a = 1 + nextInt(size - 1);
+			int b = 1 + nextInt(size - 1);
+			for (int i = offset + Math.min(a, b), j = offset + Math.max(a, b); i < j; i++, j--) {
+				int temp = tours[i];
+				tours[i] = tours[j];
+				tours[j] = temp;
+			}
+		}
+
+		private void improve(int[] tours, int offset) {
+			if (localSearch) {
+				if (search == null) {
+					search = new LocalSearch(distances, neighbours);
+				}
+				search.improve(tours, offset);
+			}
+		}
+
+		private void newStamp() {
+			if (++stamp == Integer.MAX_VALUE) {
+				Arrays.fill(mark, 0);
+				stamp = 1;
+			}
+		}
+
+		private int nextInt(int bound) {
+			return (int) (((nextLong() >>> 32) * bound) >>> 32);
+		}
+
+		private double nextDouble() {
+			return (nextLong() >>> 11) * 0x1.0p-53;
+		}
+
+		private long nextLong() {
+			state += 0x9E3779B97F4A7C15L;
+			return mix(state);
+		}
+	}
+
+	/**
+	 * SplitMix64 finaliser
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Gets a copy of the best tour, depot at both ends
+	 *
+	 * @return bestTour
+	 */
+	public int[] getBestTour() {
+		return bestTour.clone();
+	}
+
+	public int getBestCost() {
+		return (int) bestCost;
+	}
+
+	/**
+	 * Gets the number of generations bred by the last solve, not counting the
+	 * first population
+	 *
+	 * @return generationsRun
+	 */
+	public long getGenerationsRun() {
+		return generationsRun;
+	}
+
+	/**
+	 * Gets the number of tours costed by the last solve
+	 *
+	 * @return evaluations
+	 */
+	public long getEvaluations() {
+		return evaluations;
+	}
+
+	// Mutator functions
+
+	public int getPopulationSize() {
+		return populationSize;
+	}
+
+	/**
+	 * Sets the number of tours in each generation
+	 *
+	 * @param populationSize at least 2
+	 */
+	public void setPopulationSize(int populationSize) {
+		if (populationSize < 2) {
+			throw new IllegalArgumentException("Population must hold at least 2 tours, not " + populationSize);
+		}
+		this.populationSize = populationSize;
+	}
+
+	public int getGenerations() {
+		return generations;
+	}
+
+	/**
+	 * Sets the most generations a solve breeds
+	 *
+	 * @param generations
+	 */
+	public void setGenerations(int generations) {
+		if (generations < 0) {
+			throw new IllegalArgumentException("Generations must not be negative: " + generations);
+		}
+		this.generations = generations;
+	}
+
+	public int getStallGenerations() {
+		return stallGenerations;
+	}
+
+	/**
+	 * Sets how many generations in a row may pass without a better tour before
+	 * the solve stops
+	 *
+	 * @param stallGenerations at least 1
+	 */
+	public void setStallGenerations(int stallGenerations) {
+		if (stallGenerations < 1) {
+			throw new IllegalArgumentException("Stall limit must be at least 1, not " + stallGenerations);
+		}
+		this.stallGenerations = stallGenerations;
+	}
+
+	public int getTournamentSize() {
+		return tournamentSize;
+	}
+
+	/**
+	 * Sets the number of tours each parent is picked from
+	 *
+	 * @param tournamentSize at least 1
+	 */
+	public void setTournamentSize(int tournamentSize) {
+		if (tournamentSize < 1) {
+			throw new IllegalArgumentException("Tournament must hold at least 1 tour, not " + tournamentSize);
+		}
+		this.tournamentSize = tournamentSize;
+	}
+
+	public double getMutationRate() {
+		return mutationRate;
+	}
+
+	/**
+	 * Sets the chance of a child having a random segment reversed
+	 *
+	 * @param mutationRate 0 to 1
+	 */
+	public void setMutationRate(double mutationRate) {
+		if (!(mutationRate >= 0 && mutationRate <= 1)) {
+			throw new IllegalArgumentException("Mutation rate must be between 0 and 1: " + mutationRate);
+		}
+		this.mutationRate = mutationRate;
+	}
+
+	public Crossover getCrossover() {
+		return crossover;
+	}
+
+	public void setCrossover(Crossover crossover) {
+		this.crossover = crossover;
+	}
+
+	public boolean isLocalSearch() {
+		return localSearch;
+	}
+
+	/**
+	 * Sets whether every child is improved with 2-opt and Or-opt
+	 *
+	 * @param localSearch
+	 */
+	public void setLocalSearch(boolean localSearch) {
+		this.localSearch = localSearch;
+	}
+
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	/**
+	 * Sets whether chunks of children are bred on the common fork-join pool. The
+	 * result is the same either way.
+	 *
+	 * @param parallel
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Sets the longest a solve may run before it stops with the best tour so far
+	 *
+	 * @param timeLimit or null for no limit
+	 */
+	public void setTimeLimit(Duration timeLimit) {
+		StopCondition.check(timeLimit);
+		this.timeLimit = timeLimit;
+	}
+
+	public Duration getTimeLimit() {
+		return timeLimit;
+	}
+
+	/**
+	 * Sets a token that stops a solve early with the best tour so far
+	 *
+	 * @param cancellationToken or null
+	 */
+	public void setCancellationToken(CancellationToken cancellationToken) {
+		this.cancellationToken = cancellationToken;
+	}
+
+	/**
+	 * Sets a listener told of every new best tour as it is found
+	 *
+	 * @param listener or null
+	 */
+	public void setIncumbentListener(IncumbentListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Sets the evaluator tours are costed with, so solvers of the same matrix can
+	 * share one copy of it
+	 *
+	 * @param evaluator made from this solver's matrix
+	 */
+	public void setEvaluator(TourCostEvaluator evaluator) {
+		if (!evaluator.isCopyOf(distances)) {
+			throw new IllegalArgumentException("Evaluator is not a current copy of this solver's matrix");
+		}
+		this.evaluator = evaluator;
+	}
+
+	/**
+	 * Checks if the last solve stopped at the time limit or on cancellation,
+	 * rather than at its generation or stall limit
+	 *
+	 * @return stoppedEarly
+	 */
+	public boolean isStoppedEarly() {
+		return stopped;
+	}
+
+	// Incumbent counts of the last solve, see IncumbentTracker
+	public long getIncumbentUpdates() {
+		return incumbents.getUpdates();
+	}
+
+	public long getTimeToFirstSolution() {
+		return incumbents.getTimeToFirst();
+	}
+
+	public long getTimeToBestSolution() {
+		return incumbents.getTimeToBest();
+	}
+}
@@ -0,0 +1,309 @@
+package TSP;
+
+import java.util.stream.IntStream;
+
+/**
+ * Exact Held-Karp dynamic programming solver for instances too large for brute
+ * force or branch and bound (roughly 15 to 25 cities).
+ *
+ * The cost of the cheapest path from the depot through a subset of cities ending
+ * at a city of that subset only depends on the subsets one city smaller, so the
+ * table is built one layer of subsets at a time by number of cities (popcount).
+ * Inside a layer subsets are stored by their combinatorial rank, and each subset
+ * only stores entries for the cities it contains, so nothing is wasted on
+ * impossible (subset, last city) pairs. Only two cost layers are alive at once,
+ * stored as shorts when every path fits into 16 bits.
+ *
+ * The parent city of every entry is kept until the end to rebuild the tour, a
+ * byte per entry of every layer, (n - 1) * 2^(n - 2) bytes for n cities. Memory
+ * roughly doubles with each city: at 25 cities the parents take 192 MB and the
+ * two largest cost layers up to 260 MB, at 29 cities it would be 3.7 GB of
+ * parents and 4.2 GB of costs, which is why 25 is the limit.
+ */
+public class HeldKarpSolver {
+	// Largest instance solved in under half a gigabyte, see above
+	public static final int MAX_CITIES = 25;
+
+	// Ranks in a layer handled by one parallel task
+	private static final int CHUNK = 1 << 12;
+
+	private final int size;
+	private final int depot;
+	private final int m; // Cities other than the depot
+	private final int[] city; // city[k] is the matrix index of the k-th non-depot city
+	private final int[] matrix; // Row-major copy of the distances
+	private final int[][] binomial; // binomial[n][k] = n choose k
+	private final boolean compressed; // Store costs as shorts
+
+	private boolean parallel = true;
+	private int[] bestTour;
+	private long bestCost;
+
+	/**
+	 * Constructor using the last city as the depot
+	 *
+	 * @param distances
+	 */
+	public HeldKarpSolver(DistanceMatrix distances) {
+		this(distances, distances.getSize() - 1);
+	}
+
+	/**
+	 * Constructor with variables
+	 *
+	 * @param distances
+	 * @param depot     city the tour starts and ends at
+	 */
+	public HeldKarpSolver(DistanceMatrix distances, int depot) {
+		this.size = distances.getSize();
+		if (size > MAX_CITIES) {
+			throw new IllegalArgumentException("Held-Karp supports at most " + MAX_CITIES + " cities, not " + size);
+		}
+		if (depot < 0 || depot >= size) {
+			throw new IllegalArgumentException("Depot " + depot + " is not a city of a " + size + " city matrix");
+		}
+		this.depot = depot;
+		this.m = size - 1;
+
+		this.matrix = new int[size * size];
+		long maxAbs = 0;
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				matrix[i * size + j] = distances.getWeight(i, j);
+				if (i != j) {
+					maxAbs = Math.max(maxAbs, Math.abs((long) matrix[i * size + j]));
+				}
+			}
+		}
+		// A path uses at most size edges, so its cost is bounded by size * maxAbs
+		if (size * maxAbs >= Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Route costs could overflow an int");
+		}
+		this.compressed = size * maxAbs < Short.MAX_VALUE;
+
+		this.city = new int[m];
+		for (int i = 0, c = 0; c < size; c++) {
+			if (c != depot) {
+				city[i++] = c;
+			}
+		}
+
+		this.binomial = new int[m + 1][m + 1];
+		for (int n = 0; n <= m; n++) {
+			binomial[n][0] = 1;
+			for (int k = 1; k <= n; k++) {
+				binomial[n][k] = binomial[n - 1][k - 1] + (k <= n - 1 ? binomial[n - 1][k] : 0);
+			}
+		}
+	}
+
+	/**
+	 * Calculates the shortest route starting and ending at the depot
+	 *
+	 * @return cost of the shortest route
+	 */
+	public int solve() {
+		if (m == 0) {
+			bestCost = matrix[depot * size + depot];
+			bestTour = new int[] { depot, depot };
+			return getBestCost();
+		}
+
+		// parents[k][rank * k + position] is the city before the last one
+		byte[][] parents = new byte[m + 1][];
+
+		// Layer 1: straight from the depot to each city
+		CostLayer previous = new CostLayer(m);
+		for (int j = 0; j < m; j++) {
+			previous.set(j, matrix[depot * size + city[j]]);
+		}
+
+		for (int k = 2; k <= m; k++) {
+			int count = binomial[m][k];
+			CostLayer current = new CostLayer(count * k);
+			byte[] parent = new byte[count * k];
+			CostLayer from = previous;
+			int layer = k;
+
+			int chunks = (count + CHUNK - 1) / CHUNK;
+			IntStream tasks = IntStream.range(0, chunks);
+			if (parallel) {
+				tasks = tasks.parallel();
+			}
+			tasks.forEach(chunk -> fillChunk(layer, chunk, from, current, parent));
+
+			parents[k] = parent;
+			// The older layer is no longer needed
+			previous = current;
+		}
+
+		// Close the tour back to the depot
+		int full = (1 << m) - 1;
+		long best = Long.MAX_VALUE;
+		int last = -1;
+		for (int j = 0; j < m; j++) {
+			long cost = (long) previous.get(j) + matrix[city[j] * size + depot];
+			if (cost < best) {
+				best = cost;
+				last = j;
+			}
+		}
+		bestCost = best;
+
+		// Walk the parents back from the full subset
+		bestTour = new int[size + 1];
+		bestTour[0] = depot;
+		bestTour[size] = depot;
+		int mask = full;
+		for (int k = m; k >= 1; k--) {
+			bestTour[k] = city[last];
+			if (k > 1) {
+				int prev = parents[k][rank(mask) * k + position(mask, last)];
+				mask ^= 1 << last;
+				last = prev;
+			}
+		}
+
+		return getBestCost();
+	}
+
+	/**
+	 * Fills one chunk of ranks of layer k from layer k - 1
+	 */
+	private void fillChunk(int k, int chunk, CostLayer from, CostLayer to, byte[] parent) {
+		int start = chunk * CHUNK;
+		int end = Math.min(start + CHUNK, binomial[m][k]);
+		int mask = unrank(start, k);
+
+		for (int r = start; r < end; r++) {
+			int pos = 0;
+			for (int bits = mask; bits != 0; bits &= bits - 1, pos++) {
+				int last = Integer.numberOfTrailingZeros(bits);
+				int rest = mask ^ (1 << last);
+				int base = rank(rest) * (k - 1);
+				int column = city[last];
+
+				long best = Long.MAX_VALUE;
+				int bestPrev = 0;
+				int prevPos = 0;
+				for (int prevBits = rest; prevBits != 0; prevBits &= prevBits - 1, prevPos++) {
+					int prev = Integer.numberOfTrailingZeros(prevBits);
+					long cost = (long) from.get(base + prevPos) + matrix[city[prev] * size + column];
+					if (cost < best) {
+						best = cost;
+						bestPrev = prev;
+					}
+				}
+				to.set(r * k + pos, (int) best);
+				parent[r * k + pos] = (byte) bestPrev;
+			}
+			mask = nextSubset(mask);
+		}
+	}
+
+	/**
+	 * Rank of a subset among the subsets with the same number of cities, in
+	 * increasing numeric order
+	 *
+	 * @param mask
+	 * @return rank
+	 */
+	private int rank(int mask) {
+		int r = 0;
+		int i = 1;
+		for (int bits = mask; bits != 0; bits &= bits - 1, i++) {
+			r += binomial[Integer.numberOfTrailingZeros(bits)][i];
+		}
+		return r;
+	}
+
+	/**
+	 * Subset of k cities with the given rank
+	 *
+	 * @param r
+	 * @param k
+	 * @return mask
+	 */
+	private int unrank(int r, int k) {
+		int mask = 0;
+		int p = m - 1;
+		for (int i = k; i >= 1; i--) {
+			while (binomial[p][i] > r) {
+				p--;
+			}
+			r -= binomial[p][i];
+			mask |= 1 << p;
+			p--;
+		}
+		return mask;
+	}
+
+	// Next larger subset with the same number of cities (Gosper's hack)
+	private static int nextSubset(int mask) {
+		int low = mask & -mask;
+		int ripple = mask + low;
+		return (((ripple ^ mask) >>> 2) / low) | ripple;
+	}
+
+	// Index of city among the cities of the subset
+	private static int position(int mask, int city) {
+		return Integer.bitCount(mask & ((1 << city) - 1));
+	}
+
+	/**
+	 * One layer of path costs, stored as shorts when every path fits
+	 */
+	private final class CostLayer {
+		private final int[] ints;
+		private final short[] shorts;
+
+		private CostLayer(int length) {
+			ints = compressed ? null : new int[length];
+			shorts = compressed ? new short[length] : null;
+		}
+
+		private int get(int i) {
+			return compressed ? shorts[i] : ints[i];
+		}
+
+		private void set(int i, int value) {
+			if (compressed) {
+				shorts[i] = (short) value;
+			} else {
+				ints[i] = value;
+			}
+		}
+	}
+
+	// Mutator functions
+
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	/**
+	 * Sets whether each layer is computed on the common fork-join pool
+	 *
+	 * @param parallel
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	public boolean isCompressed() {
+		return compressed;
+	}
+
+	/**
+	 * Gets a copy of the best tour found by the last solve, depot at both ends
+	 *
+	 * @return bestTour
+	 */
+	public int[] getBestTour() {
+		return bestTour == null ? null : bestTour.clone();
+	}
+
+	public int getBestCost() {
+		return (int) bestCost;
+	}
+}
@@ -0,0 +1,210 @@
+package TSP;
+
+/**
+ * Keeps the shortest route of a matrix up to date as a few of its edges change,
+ * for example through {@link Weight#addExtraToPos} or
+ * {@link Weight#subtractExtraFromPos}. The first solve is a full branch and
+ * bound; after that each solve compares the matrix with a copy taken at the
+ * last solve and only searches when the changes could give a shorter route.
+ *
+ * With C the last optimum and T its tour, after the changes T costs C plus the
+ * changes on T, and any other route costs at least C plus every decrease. So T
+ * is still the shortest when the changes on T add up to no more than all the
+ * decreases, as when an edge off T gets dearer or an edge on T gets cheaper.
+ * The same amount added to every edge, as {@link Weight#addExtraToAll} does,
+ * also keeps T. Otherwise the search starts from T at its new cost.
+ *
+ * The matrix must not change while a solve is running.
+ */
+public class IncrementalSolver {
+	/**
+	 * How the last solve found its route
+	 */
+	public enum Outcome {
+		// No earlier route, searched from scratch
+		FULL_SEARCH,
+		// The matrix had not changed
+		UNCHANGED,
+		// Edges changed, but the earlier route provably stays the shortest
+		TOUR_STILL_OPTIMAL,
+		// Edges changed so a shorter route may exist, searched from the earlier route
+		WARM_START
+	}
+
+	private final DistanceMatrix distances;
+	private final int size;
+	private final int depot;
+	private final BranchAndBoundSolver solver;
+	private final int[] snapshot; // Row-major copy of the matrix at the last solve
+	private final int[] next; // next[i] is the city after i on the best tour
+
+	private boolean solved;
+	private long snapshotVersion;
+	private int[] bestTour;
+	private int bestCost;
+	private Outcome lastOutcome;
+	private int changedEdges;
+	private long nodesExpanded;
+
+	/**
+	 * Constructor using the last city as the depot
+	 *
+	 * @param distances
+	 */
+	public IncrementalSolver(DistanceMatrix distances) {
+		this(distances, distances.getSize() - 1, BoundingStrategy.REDUCED_MATRIX);
+	}
+
+	/**
+	 * Constructor with variables
+	 *
+	 * @param distances matrix whose changes are followed, not copied
+	 * @param depot     city the tour starts and ends at
+	 * @param strategy  lower bound for the searches
+	 */
+	public IncrementalSolver(DistanceMatrix distances, int depot, BoundingStrategy strategy) {
+		this.distances = distances;
+		this.size = distances.getSize();
+		this.depot = depot;
+		this.solver = new BranchAndBoundSolver(distances, depot);
+		solver.setBoundingStrategy(strategy);
+		this.snapshot = new int[size * size];
+		this.next = new int[size];
+	}
+
+	/**
+	 * Calculates the shortest route of the matrix as it is now, searching only
+	 * if the changes since the last solve could make a shorter route
+	 *
+	 * @return cost of the shortest route
+	 */
+	public int solve() {
+		long version = distances.getVersion();
+		if (!solved) {
+			for (int i = 0; i < size; i++) {
+				for (int j = 0; j < size; j++) {
+					snapshot[i * size + j] = distances.getWeight(i, j);
+				}
+			}
+			search(null);
+			solved = true;
+			lastOutcome = Outcome.FULL_SEARCH;
+			changedEdges = 0;
+		} else if (version != DistanceMatrix.UNTRACKED_VERSION && version == snapshotVersion) {
+			lastOutcome = Outcome.UNCHANGED;
+			changedEdges = 0;
+			nodesExpanded = 0;
+		} else {
+			resolve();
+		}
+		snapshotVersion = version;
+		return bestCost;
+	}
+
+	/**
+	 * Compares the matrix with the snapshot, bringing the snapshot up to date,
+	 * and keeps the route or searches again from it
+	 */
+	private void resolve() {
+		long tourChange = 0; // Change in the cost of the best tour
+		long decreases = 0; // Sum of every edge that got cheaper
+		long shift = 0; // Change of the first changed edge
+		boolean uniform = true; // Every edge changed by shift
+		changedEdges = 0;
+
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				if (i == j) {
+					// No route uses the diagonal
+					continue;
+				}
+				int value = distances.getWeight(i, j);
+				long change = (long) value - snapshot[i * size + j];
+				if (i == 0 && j == 1) {
+					shift = change;
+				}
+				uniform &= change == shift;
+				if (change == 0) {
+					continue;
+				}
+				changedEdges++;
+				snapshot[i * size + j] = value;
+				if (next[i] == j) {
+					tourChange += change;
+				}
+				if (change < 0) {
+					decreases += change;
+				}
+			}
+		}
+
+		nodesExpanded = 0;
+		if (changedEdges == 0) {
+			lastOutcome = Outcome.UNCHANGED;
+		} else if ((uniform && size > 1) || tourChange <= decreases) {
+			// Every route changed by the same amount, or no route could overtake the best one
+			bestCost = (int) (bestCost + tourChange);
+			lastOutcome = Outcome.TOUR_STILL_OPTIMAL;
+		} else {
+			search(bestTour);
+			lastOutcome = Outcome.WARM_START;
+		}
+	}
+
+	/**
+	 * Runs branch and bound on the current matrix
+	 *
+	 * @param initialTour best so far, or null
+	 */
+	private void search(int[] initialTour) {
+		solver.setDistances(distances, depot);
+		solver.setInitialTour(initialTour);
+		bestCost = solver.solve();
+		bestTour = solver.getBestTour();
+		nodesExpanded = solver.getNodesExpanded();
+		for (int k = 0; k < size; k++) {
+			next[bestTour[k]] = bestTour[k + 1];
+		}
+	}
+
+	// Mutator functions
+
+	/**
+	 * Gets a copy of the best tour, depot at both ends
+	 *
+	 * @return bestTour, null before the first solve
+	 */
+	public int[] getBestTour() {
+		return bestTour == null ? null : bestTour.clone();
+	}
+
+	public int getBestCost() {
+		return bestCost;
+	}
+
+	public Outcome getLastOutcome() {
+		return lastOutcome;
+	}
+
+	/**
+	 * Gets the number of edges the last solve found changed, 0 for a full search
+	 *
+	 * @return changedEdges
+	 */
+	public int getChangedEdges() {
+		return changedEdges;
+	}
+
+	/**
+	 * Gets the search nodes of the last solve, 0 when no search was needed
+	 *
+	 * @return nodesExpanded
+	 */
+	public long getNodesExpanded() {
+		return nodesExpanded;
+	}
+
+	public DistanceMatrix getDistances() {
+		return distances;
+	}
+}
@@ -0,0 +1,18 @@
+package TSP;
+
+/**
+ * Receives each cheaper route as a solve finds it, so callers can use the best
+ * route so far before the solve finishes
+ */
+@FunctionalInterface
+public interface IncumbentListener {
+	/**
+	 * Called on the solving thread every time the best route so far improves,
+	 * so it should return quickly
+	 *
+	 * @param tour closed tour of city IDs, depot at both ends, a copy the listener
+	 *             may keep
+	 * @param cost
+	 */
+	void improved(int[] tour, int cost);
+}
@@ -0,0 +1,63 @@
+package TSP;
+
+/**
+ * Counts how often one solve found a new best route and when, shared by the
+ * anytime solvers for their getIncumbentUpdates, getTimeToFirstSolution and
+ * getTimeToBestSolution. Not thread safe: solvers whose workers find routes in
+ * parallel record them under a lock.
+ */
+final class IncumbentTracker {
+	private long startTime; // System.nanoTime() at the start of the solve
+	private long updates;
+	private long timeToFirst = -1; // Nanoseconds from the start to the first route, -1 if none
+	private long timeToBest = -1;
+
+	/**
+	 * Starts the clock of a new solve, forgetting the last one
+	 */
+	void start() {
+		startTime = System.nanoTime();
+		updates = 0;
+		timeToFirst = -1;
+		timeToBest = -1;
+	}
+
+	/**
+	 * Counts a new best route found now
+	 */
+	void improved() {
+		long elapsed = System.nanoTime() - startTime;
+		if (updates++ == 0) {
+			timeToFirst = elapsed;
+		}
+		timeToBest = elapsed;
+	}
+
+	/**
+	 * Gets the number of times the last solve found a cheaper route, including
+	 * an initial tour it was given
+	 *
+	 * @return updates
+	 */
+	long getUpdates() {
+		return updates;
+	}
+
+	/**
+	 * Gets the time from the start of the last solve to its first route
+	 *
+	 * @return nanoseconds, -1 if no route was found
+	 */
+	long getTimeToFirst() {
+		return timeToFirst;
+	}
+
+	/**
+	 * Gets the time from the start of the last solve to its best route
+	 *
+	 * @return nanoseconds, -1 if no route was found
+	 */
+	long getTimeToBest() {
+		return timeToBest;
+	}
+}
@@ -0,0 +1,148 @@
+package TSP;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of durations in nanoseconds, bucketed the way HdrHistogram does:
+ * exact below 128 and then 128 buckets for every power of two, so any recorded
+ * value is reported within 1% of what it was. Memory is fixed at about 40 KB
+ * however many values are recorded.
+ *
+ * Recording takes no locks and allocates nothing, so it can be called from many
+ * solves at once. Reads while values are being recorded may be a few values
+ * behind.
+ */
+public class LatencyHistogram {
+	// Bits of each value kept below its highest set bit
+	private static final int SUB_BUCKET_BITS = 7;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	// Values from 2^47 ns, about 39 hours, are counted as the highest trackable one
+	private static final int HIGHEST_BIT = 46;
+	public static final long HIGHEST_TRACKABLE_VALUE = (1L << (HIGHEST_BIT + 1)) - 1;
+
+	private final AtomicLongArray counts = new AtomicLongArray((HIGHEST_BIT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS);
+	private final AtomicLong count = new AtomicLong();
+	private final LongAdder sum = new LongAdder();
+	private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Records one duration
+	 *
+	 * @param nanos negative durations are counted as 0
+	 */
+	public void record(long nanos) {
+		long value = Math.max(0L, Math.min(nanos, HIGHEST_TRACKABLE_VALUE));
+		counts.incrementAndGet(index(value));
+		sum.add(value);
+		min.accumulateAndGet(value, Math::min);
+		max.accumulateAndGet(value, Math::max);
+		count.incrementAndGet();
+	}
+
+	/**
+	 * Gets the bucket of a value: the value itself below SUB_BUCKETS, then the
+	 * power of two and the next SUB_BUCKET_BITS bits
+	 */
+	private static int index(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int highestBit = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (highestBit - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (highestBit - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	/**
+	 * Gets the highest value that falls in a bucket
+	 */
+	private static long highestValue(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int shift = index / SUB_BUCKETS - 1;
+		long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+
+	/**
+	 * Gets the value that the given percentage of recorded values are at or below
+	 *
+	 * @param percentile between 0 and 100
+	 * @return value in nanoseconds, 0 if nothing was recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (percentile < 0 || percentile > 100) {
+			throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+		}
+		long total = 0;
+		for (int i = 0; i < counts.length(); i++) {
+			total += counts.get(i);
+		}
+		if (total == 0) {
+			return 0;
+		}
+
+		// Rank of the value, at least the first so the 0th percentile is the minimum
+		long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * total));
+		long seen = 0;
+		for (int i = 0; i < counts.length(); i++) {
+			seen += counts.get(i);
+			if (seen >= rank) {
+				return Math.min(highestValue(i), getMax());
+			}
+		}
+		return getMax();
+	}
+
+	/**
+	 * Clears every recorded value
+	 */
+	public void reset() {
+		for (int i = 0; i < counts.length(); i++) {
+			counts.set(i, 0L);
+		}
+		count.set(0L);
+		sum.reset();
+		min.set(Long.MAX_VALUE);
+		max.set(0L);
+	}
+
+	// Mutator functions
+
+	public long getCount() {
+		return count.get();
+	}
+
+	/**
+	 * Gets the smallest recorded value
+	 *
+	 * @return min, 0 if nothing was recorded
+	 */
+	public long getMin() {
+		long value = min.get();
+		return value == Long.MAX_VALUE ? 0L : value;
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Gets the mean of the recorded values
+	 *
+	 * @return mean, 0 if nothing was recorded
+	 */
+	public double getMean() {
+		long n = count.get();
+		return n == 0 ? 0.0 : (double) sum.sum() / n;
+	}
+
+	@Override
+	public String toString() {
+		return "LatencyHistogram{" + "count=" + getCount() + ", min=" + getMin() + ", p50="
+				+ getValueAtPercentile(50) + ", p99=" + getValueAtPercentile(99) + ", max=" + getMax() + '}';
+	}
+}
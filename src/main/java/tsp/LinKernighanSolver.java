@@ -0,0 +1,734 @@
+package TSP;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Chained Lin-Kernighan for large symmetric instances. Each trial starts from a
+ * nearest neighbour tour and improves it until no move helps, then repeatedly
+ * kicks it with a double bridge, improves again around the kick, and keeps the
+ * result if it is shorter. Trials run in parallel from different starting
+ * cities and the best tour of all of them wins.
+ *
+ * A Lin-Kernighan move is a chain of 2-opt moves. It breaks an edge at t1, adds
+ * an edge from its other end t2 to a candidate t3, breaks the edge from t3 to t4
+ * that keeps one cycle, and carries on from t4 while the edges added cost less
+ * than the ones broken. The chain is kept as soon as closing it back to t1 gives
+ * a shorter tour. The first levels try several candidates before giving up,
+ * deeper levels only the best. Or-opt moves, which take a segment of up to
+ * three cities somewhere else, are tried where no chain helps.
+ *
+ * Candidates are each city's nearest neighbours, and don't-look bits keep the
+ * search on the cities around the last change, so a kick only costs work near
+ * where it was made. Tours are arrays of cities with the position of each city,
+ * so next, prev and between are O(1) and a 2-opt move reverses the shorter side.
+ *
+ * Moves reverse part of the tour, so the matrix must be symmetric. Without a
+ * time limit every trial makes the same moves for the same seed, and ties go to
+ * the lower trial, so the result does not depend on how trials are scheduled.
+ */
+public class LinKernighanSolver {
+	// Alternatives tried at each level of a chain, one from the last level on
+	private static final int[] BREADTH = { 5, 3, 1 };
+	private static final int DEFAULT_NEIGHBOURS = 8;
+	// Longest segment a kick moves, so kicks stay local
+	private static final int KICK_SEGMENT = 50;
+	// Longest segment an Or-opt move takes
+	private static final int MAX_SEGMENT = 3;
+
+	private final DistanceMatrix distances;
+	private final int size;
+	private final int depot;
+
+	private int trials = Math.max(1, ForkJoinPool.commonPool().getParallelism());
+	private int kicks;
+	private int maxDepth = 10;
+	private int candidates = DEFAULT_NEIGHBOURS;
+	private boolean parallel = true;
+	private long seed = 0L;
+
+	private Duration timeLimit; // null for no limit
+	private CancellationToken cancellationToken;
+	private IncumbentListener listener;
+
+	private NeighbourIndex neighbours;
+	private StopCondition stop;
+
+	// Best tour of every trial so far, guarded by this
+	private final int[] bestTour;
+	private long bestCost;
+	private int bestTrial;
+	private final IncumbentTracker incumbents = new IncumbentTracker();
+
+	private long kicksMade;
+	private long kicksKept;
+	private long improvements;
+	private boolean stopped; // Time limit ran out or the solve was cancelled
+
+	/**
+	 * Constructor using the last city as the depot
+	 *
+	 * @param distances symmetric matrix
+	 */
+	public LinKernighanSolver(DistanceMatrix distances) {
+		this(distances, distances.getSize() - 1);
+	}
+
+	/**
+	 * Constructor with variables
+	 *
+	 * @param distances symmetric matrix
+	 * @param depot     city the tour starts and ends at
+	 */
+	public LinKernighanSolver(DistanceMatrix distances, int depot) {
+		this.size = distances.getSize();
+		if (depot < 0 || depot >= size) {
+			throw new IllegalArgumentException("Depot " + depot + " is not a city of a " + size + " city matrix");
+		}
+		if (!distances.isSymmetric()) {
+			throw new IllegalArgumentException("Lin-Kernighan reverses parts of the tour, the matrix must be symmetric");
+		}
+		this.distances = distances;
+		this.depot = depot;
+		this.kicks = size;
+		this.bestTour = new int[size + 1];
+	}
+
+	/**
+	 * Runs every trial until it has made its kicks, or until the time limit runs
+	 * out or the token is cancelled. Each trial always improves its starting
+	 * tour before checking.
+	 *
+	 * @return cost of the shortest route found
+	 */
+	public int solve() {
+		incumbents.start();
+		stop = StopCondition.start(timeLimit, cancellationToken);
+		neighbours = distances.getNeighbourIndex(candidates);
+		bestCost = Long.MAX_VALUE;
+		bestTrial = Integer.MAX_VALUE;
+
+		Trial[] runs = new Trial[trials];
+		if (parallel && trials > 1) {
+			IntStream.range(0, trials).parallel().forEach(t -> runs[t] = run(t));
+		} else {
+			for (int t = 0; t < trials; t++) {
+				runs[t] = run(t);
+			}
+		}
+
+		kicksMade = 0;
+		kicksKept = 0;
+		improvements = 0;
+		stopped = false;
+		for (Trial trial : runs) {
+			kicksMade += trial.kicksMade;
+			kicksKept += trial.kicksKept;
+			improvements += trial.improvements;
+			stopped |= trial.stopped;
+		}
+		return (int) bestCost;
+	}
+
+	private Trial run(int index) {
+		Trial trial = new Trial(index);
+		trial.run();
+		return trial;
+	}
+
+	/**
+	 * Keeps a trial's tour if it beats the best so far, or ties with it from a
+	 * lower trial
+	 */
+	private synchronized void offer(Trial trial) {
+		if (trial.cost > bestCost || (trial.cost == bestCost && trial.index >= bestTrial)) {
+			return;
+		}
+		boolean improved = trial.cost < bestCost;
+		bestCost = trial.cost;
+		bestTrial = trial.index;
+		trial.copyTo(bestTour);
+		if (improved) {
+			incumbents.improved();
+			if (listener != null) {
+				listener.improved(bestTour.clone(), (int) bestCost);
+			}
+		}
+	}
+
+	/**
+	 * One chain of kicks from one starting tour, with its own tour and random
+	 * stream
+	 */
+	private final class Trial {
+		private final int index;
+		private final SplittableRandom random;
+		private final int[] tour; // City at each position, as a cycle
+		private final int[] pos; // Position of each city
+		private final int[] queue; // Cities whose don't-look bit is off
+		private final boolean[] queued;
+		private int head;
+		private int queueSize;
+		private long cost;
+
+		// Reversals since the last kick, as position pairs, so a kick can be undone
+		private int[] log = new int[64];
+		private int logSize;
+
+		// Per level of a chain, the edge it added and its candidate t3 and t4
+		private final int[] addedFrom;
+		private final int[] addedTo;
+		private final int[][] chainT3;
+		private final int[][] chainT4;
+		private final long[][] chainScore;
+
+		private long kicksMade;
+		private long kicksKept;
+		private long improvements;
+		private boolean stopped;
+
+		Trial(int index) {
+			this.index = index;
+			this.random = new SplittableRandom(seed + index * 0x9E3779B97F4A7C15L);
+			this.tour = new int[size];
+			this.pos = new int[size];
+			this.queue = new int[size];
+			this.queued = new boolean[size];
+			this.addedFrom = new int[maxDepth];
+			this.addedTo = new int[maxDepth];
+			this.chainT3 = new int[maxDepth][BREADTH[0]];
+			this.chainT4 = new int[maxDepth][BREADTH[0]];
+			this.chainScore = new long[maxDepth][BREADTH[0]];
+		}
+
+		void run() {
+			// The first trial starts from the depot, the others from random cities
+			int start = index == 0 ? depot : random.nextInt(size);
+			int[] initial = new NearestNeighbour(distances, neighbours).tour(start);
+			for (int p = 0; p < size; p++) {
+				tour[p] = initial[p];
+				pos[tour[p]] = p;
+				cost += distances.getWeight(initial[p], initial[p + 1]);
+				push(tour[p]);
+			}
+			optimise();
+			offer(this);
+
+			// A double bridge needs three segments and a city outside them
+			if (size < 8) {
+				return;
+			}
+			for (int k = 0; k < kicks; k++) {
+				if (stop.isReached()) {
+					stopped = true;
+					break;
+				}
+				long before = cost;
+				logSize = 0;
+				kick();
+				optimise();
+				kicksMade++;
+				if (cost < before) {
+					kicksKept++;
+					offer(this);
+				} else {
+					// Undo every reversal since the kick, last first
+					while (logSize > 0) {
+						logSize -= 2;
+						reverse(log[logSize], log[logSize + 1]);
+					}
+					cost = before;
+				}
+			}
+		}
+
+		/**
+		 * Makes moves until every city's don't-look bit is on
+		 */
+		private void optimise() {
+			while (queueSize > 0 && size > 4) {
+				int city = queue[head];
+				head = head + 1 == size ? 0 : head + 1;
+				queueSize--;
+				queued[city] = false;
+
+				if (improveChain(city) || improveOrOpt(city)) {
+					improvements++;
+					push(city);
+				}
+			}
+		}
+
+		/**
+		 * Tries a chain from each of the two edges at t1
+		 */
+		private boolean improveChain(int t1) {
+			return step(0, t1, next(t1), distances.getWeight(t1, next(t1)))
+					|| step(0, t1, prev(t1), distances.getWeight(t1, prev(t1)));
+		}
+
+		/**
+		 * Extends a chain whose tour has the edge t1-t2 to be broken, with gain
+		 * being what the broken edges cost minus the added ones, not counting
+		 * t1-t2's replacement
+		 *
+		 * @return true if a shorter tour was kept
+		 */
+		private boolean step(int level, int t1, int t2, long gain) {
+			boolean forward = next(t1) == t2;
+			int breadth = level < BREADTH.length ? BREADTH[level] : 1;
+			int[] t3s = chainT3[level];
+			int[] t4s = chainT4[level];
+			long[] scores = chainScore[level];
+			int count = 0;
+
+			for (int r = 0; r < neighbours.getK(); r++) {
+				int t3 = neighbours.getNeighbour(t2, r);
+				long d23 = distances.getWeight(t2, t3);
+				// Neighbours are sorted, no later one leaves a positive gain
+				if (d23 >= gain) {
+					break;
+				}
+				if (t3 == t1 || t3 == next(t2) || t3 == prev(t2)) {
+					continue;
+				}
+				// The edge broken at t3 is on the side that keeps a single cycle
+				int t4 = forward ? prev(t3) : next(t3);
+				if (isAdded(level, t3, t4)) {
+					continue;
+				}
+				long score = distances.getWeight(t3, t4) - d23;
+
+				// Keep the best breadth candidates, highest score first
+				int slot = Math.min(count, breadth - 1);
+				if (count == breadth && score <= scores[slot]) {
+					continue;
+				}
+				while (slot > 0 && scores[slot - 1] < score) {
+					t3s[slot] = t3s[slot - 1];
+					t4s[slot] = t4s[slot - 1];
+					scores[slot] = scores[slot - 1];
+					slot--;
+				}
+				t3s[slot] = t3;
+				t4s[slot] = t4;
+				scores[slot] = score;
+				count = Math.min(count + 1, breadth);
+			}
+
+			for (int c = 0; c < count; c++) {
+				int t3 = t3s[c];
+				int t4 = t4s[c];
+				long newGain = gain + scores[c];
+				int mark = logSize;
+				move(t1, t2, t4, t3);
+				addedFrom[level] = t2;
+				addedTo[level] = t3;
+
+				long closed = newGain - distances.getWeight(t4, t1);
+				if (closed > 0) {
+					cost -= closed;
+					pushAll(t1, t2, t3, t4);
+					return true;
+				}
+				if (level + 1 < maxDepth && step(level + 1, t1, t4, newGain)) {
+					pushAll(t1, t2, t3, t4);
+					return true;
+				}
+				// Undo this level, deeper levels already undid theirs
+				while (logSize > mark) {
+					logSize -= 2;
+					reverse(log[logSize], log[logSize + 1]);
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Checks if the chain added the edge a-b, which it must not break again
+		 */
+		private boolean isAdded(int level, int a, int b) {
+			for (int l = 0; l < level; l++) {
+				if ((addedFrom[l] == a && addedTo[l] == b) || (addedFrom[l] == b && addedTo[l] == a)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Tries to move the segment of up to three cities starting at s1 next to a
+		 * near neighbour of either of its ends, either way round
+		 */
+		private boolean improveOrOpt(int s1) {
+			for (int length = 1; length <= MAX_SEGMENT && length < size - 3; length++) {
+				int s2 = tour[(pos[s1] + length - 1) % size];
+				int p = prev(s1);
+				int n = next(s2);
+				long removeGain = (long) distances.getWeight(p, s1) + distances.getWeight(s2, n)
+						- distances.getWeight(p, n);
+				if (removeGain <= 0) {
+					continue;
+				}
+
+				for (int end = 0; end < 2; end++) {
+					int anchor = end == 0 ? s1 : s2;
+					int other = end == 0 ? s2 : s1;
+					for (int r = 0; r < neighbours.getK(); r++) {
+						int c = neighbours.getNeighbour(anchor, r);
+						long dac = distances.getWeight(anchor, c);
+						if (dac >= removeGain) {
+							break;
+						}
+						if (between(s1, c, s2)) {
+							continue;
+						}
+						// Anchor next to c, with the segment after c and then before it
+						for (int side = 0; side < 2; side++) {
+							int x = side == 0 ? c : prev(c);
+							int y = side == 0 ? next(c) : c;
+							if (x == p || between(s1, x, s2) || between(s1, y, s2)) {
+								continue;
+							}
+							long delta = dac + distances.getWeight(other, side == 0 ? y : x) - distances.getWeight(x, y)
+									- removeGain;
+							if (delta < 0) {
+								// After x the segment runs s1..s2 when s1 is next to x
+								boolean reversed = (side == 0) != (anchor == s1);
+								insert(p, s1, s2, x, reversed);
+								cost += delta;
+								pushAll(p, n, s1, s2);
+								push(x);
+								push(y);
+								return true;
+							}
+						}
+					}
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Moves the segment s1..s2 from after p to between x and next(x)
+		 */
+		private void insert(int p, int s1, int s2, int x, boolean reversed) {
+			int y = next(x);
+			swapSegments(p, s1, s2, x);
+			if (reversed) {
+				move(x, s1, s2, y);
+			}
+		}
+
+		/**
+		 * Double bridge on a short stretch of the tour: A B C D becomes A C B D
+		 */
+		private void kick() {
+			int longest = Math.min(KICK_SEGMENT, (size - 2) / 3);
+			int a = tour[random.nextInt(size)];
+			int b1 = next(a);
+			int b2 = tour[(pos[b1] + random.nextInt(longest)) % size];
+			int c1 = next(b2);
+			int c2 = tour[(pos[c1] + random.nextInt(longest)) % size];
+			int d = next(c2);
+
+			cost += (long) distances.getWeight(a, c1) + distances.getWeight(c2, b1) + distances.getWeight(b2, d)
+					- distances.getWeight(a, b1) - distances.getWeight(b2, c1) - distances.getWeight(c2, d);
+			swapSegments(a, b1, b2, c2);
+			pushAll(a, b1, b2, c1);
+			push(c2);
+			push(d);
+		}
+
+		/**
+		 * Turns a B C D into a C B D, where B runs from b1 = next(a) to b2 and C
+		 * from next(b2) to c2, as three 2-opt moves
+		 */
+		private void swapSegments(int a, int b1, int b2, int c2) {
+			int c1 = next(b2);
+			int d = next(c2);
+			move(a, b1, c2, d);
+			move(a, c2, c1, b2);
+			move(c2, b2, b1, d);
+		}
+
+		/**
+		 * 2-opt move replacing edges a-b and c-d with a-c and b-d, where b follows
+		 * a in the same direction as d follows c
+		 */
+		private void move(int a, int b, int c, int d) {
+			if (next(a) == b) {
+				logReverse(pos[b], pos[c]);
+			} else {
+				logReverse(pos[a], pos[d]);
+			}
+		}
+
+		private void logReverse(int i, int j) {
+			if (logSize == log.length) {
+				log = Arrays.copyOf(log, log.length * 2);
+			}
+			log[logSize++] = i;
+			log[logSize++] = j;
+			reverse(i, j);
+		}
+
+		/**
+		 * Reverses the tour from position i forward to position j, or the rest of
+		 * the cycle if that is shorter, which gives the same tour. Doing it twice
+		 * with the same positions restores the tour.
+		 */
+		private void reverse(int i, int j) {
+			int length = (j - i + size) % size + 1;
+			if (length * 2 > size) {
+				int temp = (j + 1) % size;
+				j = (i - 1 + size) % size;
+				i = temp;
+				length = size - length;
+			}
+			for (int swaps = length / 2; swaps > 0; swaps--) {
+				int a = tour[i];
+				int b = tour[j];
+				tour[i] = b;
+				pos[b] = i;
+				tour[j] = a;
+				pos[a] = j;
+				i = i + 1 == size ? 0 : i + 1;
+				j = j == 0 ? size - 1 : j - 1;
+			}
+		}
+
+		private int next(int city) {
+			int p = pos[city] + 1;
+			return tour[p == size ? 0 : p];
+		}
+
+		private int prev(int city) {
+			int p = pos[city] - 1;
+			return tour[p < 0 ? size - 1 : p];
+		}
+
+		/**
+		 * Checks if b is on the way forward from a to c, both included
+		 */
+		private boolean between(int a, int b, int c) {
+			int ab = pos[b] - pos[a];
+			int ac = pos[c] - pos[a];
+			return (ab < 0 ? ab + size : ab) <= (ac < 0 ? ac + size : ac);
+		}
+
+		private void push(int city) {
+			if (!queued[city]) {
+				queued[city] = true;
+				queue[(head + queueSize) % size] = city;
+				queueSize++;
+			}
+		}
+
+		private void pushAll(int a, int b, int c, int d) {
+			push(a);
+			push(b);
+			push(c);
+			push(d);
+		}
+
+		/**
+		 * Copies the tour closed and starting at the depot
+		 */
+		void copyTo(int[] closedTour) {
+			int start = pos[depot];
+			for (int p = 0; p < size; p++) {
+				closedTour[p] = tour[(start + p) % size];
+			}
+			closedTour[size] = depot;
+		}
+	}
+
+	/**
+	 * Gets a copy of the best tour, depot at both ends
+	 *
+	 * @return bestTour
+	 */
+	public int[] getBestTour() {
+		return bestTour.clone();
+	}
+
+	public int getBestCost() {
+		return (int) bestCost;
+	}
+
+	/**
+	 * Gets the number of kicks made by every trial of the last solve
+	 *
+	 * @return kicksMade
+	 */
+	public long getKicksMade() {
+		return kicksMade;
+	}
+
+	/**
+	 * Gets the number of kicks that led to a shorter tour
+	 *
+	 * @return kicksKept
+	 */
+	public long getKicksKept() {
+		return kicksKept;
+	}
+
+	/**
+	 * Gets the number of improving moves made by every trial of the last solve,
+	 * counting those undone with a kick that was not kept
+	 *
+	 * @return improvements
+	 */
+	public long getImprovements() {
+		return improvements;
+	}
+
+	// Mutator functions
+
+	public int getTrials() {
+		return trials;
+	}
+
+	/**
+	 * Sets the number of trials, each from its own starting tour
+	 *
+	 * @param trials at least 1
+	 */
+	public void setTrials(int trials) {
+		if (trials < 1) {
+			throw new IllegalArgumentException("Must run at least one trial, not " + trials);
+		}
+		this.trials = trials;
+	}
+
+	public int getKicks() {
+		return kicks;
+	}
+
+	/**
+	 * Sets the number of kicks each trial makes, one per city unless set
+	 *
+	 * @param kicks
+	 */
+	public void setKicks(int kicks) {
+		if (kicks < 0) {
+			throw new IllegalArgumentException("Kicks must not be negative: " + kicks);
+		}
+		this.kicks = kicks;
+	}
+
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	/**
+	 * Sets the most 2-opt moves in one chain
+	 *
+	 * @param maxDepth at least 1
+	 */
+	public void setMaxDepth(int maxDepth) {
+		if (maxDepth < 1) {
+			throw new IllegalArgumentException("Chains must be at least 1 move deep, not " + maxDepth);
+		}
+		this.maxDepth = maxDepth;
+	}
+
+	public int getCandidates() {
+		return candidates;
+	}
+
+	/**
+	 * Sets the number of nearest neighbours tried as the next city of a move
+	 *
+	 * @param candidates at least 1
+	 */
+	public void setCandidates(int candidates) {
+		if (candidates < 1) {
+			throw new IllegalArgumentException("Need at least one candidate, not " + candidates);
+		}
+		this.candidates = candidates;
+	}
+
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	/**
+	 * Sets whether trials run on the common fork-join pool. Without a time limit
+	 * the result is the same either way.
+	 *
+	 * @param parallel
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Sets the longest a solve may run before it stops with the best tour so far
+	 *
+	 * @param timeLimit or null for no limit
+	 */
+	public void setTimeLimit(Duration timeLimit) {
+		StopCondition.check(timeLimit);
+		this.timeLimit = timeLimit;
+	}
+
+	public Duration getTimeLimit() {
+		return timeLimit;
+	}
+
+	/**
+	 * Sets a token that stops a solve early with the best tour so far
+	 *
+	 * @param cancellationToken or null
+	 */
+	public void setCancellationToken(CancellationToken cancellationToken) {
+		this.cancellationToken = cancellationToken;
+	}
+
+	/**
+	 * Sets a listener told of every new best tour as it is found, from whichever
+	 * trial found it
+	 *
+	 * @param listener or null
+	 */
+	public void setIncumbentListener(IncumbentListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Checks if the last solve stopped at the time limit or on cancellation,
+	 * rather than after every kick
+	 *
+	 * @return stoppedEarly
+	 */
+	public boolean isStoppedEarly() {
+		return stopped;
+	}
+
+	// Incumbent counts of the last solve, see IncumbentTracker
+	public long getIncumbentUpdates() {
+		return incumbents.getUpdates();
+	}
+
+	public long getTimeToFirstSolution() {
+		return incumbents.getTimeToFirst();
+	}
+
+	public long getTimeToBestSolution() {
+		return incumbents.getTimeToBest();
+	}
+}
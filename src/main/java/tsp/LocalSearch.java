@@ -0,0 +1,383 @@
+package TSP;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Improves an existing route, for example the one from
+ * {@link TSP#nearestNeighbour()}, with 2-opt and Or-opt moves until no move
+ * improves it.
+ *
+ * Each move is costed in O(1) from the handful of edges it changes. Candidate
+ * moves only connect a city to one of its nearest neighbours, and don't-look bits
+ * skip cities whose surroundings have not changed since they last failed to
+ * improve, so a pass over a large tour only looks at the places that changed.
+ *
+ * 2-opt reverses part of the tour, which changes the cost of that part on an
+ * asymmetric matrix, so it is only used on symmetric matrices. Or-opt moves a
+ * segment of up to three cities without reversing it and works on any matrix.
+ */
+public class LocalSearch {
+	private static final int DEFAULT_NEIGHBOURS = 10;
+	private static final int MAX_SEGMENT = 3;
+
+	private final DistanceMatrix distances;
+	private final int size;
+	private final NeighbourIndex neighbours;
+	private final boolean symmetric;
+
+	private boolean twoOpt = true;
+	private boolean orOpt = true;
+
+	// Tour state, reused between runs
+	private final int[] tour; // City at each position, as a cycle
+	private final int[] pos; // Position of each city
+	private final int[] queue; // Cities whose don't-look bit is off
+	private final boolean[] queued;
+	private final int[] segment = new int[MAX_SEGMENT];
+	private int head;
+	private int queueSize;
+	private long improvements;
+
+	/**
+	 * Constructor using the 10 nearest neighbours of each city as candidates
+	 *
+	 * @param distances
+	 */
+	public LocalSearch(DistanceMatrix distances) {
+		this(distances, distances.getNeighbourIndex(DEFAULT_NEIGHBOURS));
+	}
+
+	/**
+	 * Constructor with variables
+	 *
+	 * @param distances
+	 * @param neighbours candidate cities for each city
+	 */
+	public LocalSearch(DistanceMatrix distances, NeighbourIndex neighbours) {
+		this.distances = distances;
+		this.size = distances.getSize();
+		this.neighbours = neighbours;
+		this.symmetric = distances.isSymmetric();
+		this.tour = new int[size];
+		this.pos = new int[size];
+		this.queue = new int[size];
+		this.queued = new boolean[size];
+	}
+
+	/**
+	 * Improves a route of City objects
+	 *
+	 * @param r closed route, first city at both ends
+	 * @return improved route with the same first city and City objects
+	 */
+	public Route improve(Route r) {
+		List<City> cities = r.getRoute();
+		int[] closedTour = new int[cities.size()];
+		Map<Integer, City> byID = new HashMap<>();
+		for (int i = 0; i < closedTour.length; i++) {
+			closedTour[i] = cities.get(i).getID();
+			byID.put(closedTour[i], cities.get(i));
+		}
+
+		int[] improved = improve(closedTour);
+
+		Route improvedRoute = new Route();
+		List<City> improvedCities = new ArrayList<>(improved.length);
+		for (int id : improved) {
+			improvedCities.add(byID.get(id));
+		}
+		improvedRoute.setRoute(improvedCities);
+		return improvedRoute;
+	}
+
+	/**
+	 * Improves a compact tour
+	 *
+	 * @param t tour priced with this matrix
+	 * @return improved tour with the same first city
+	 */
+	public Tour improve(Tour t) {
+		return Tour.of(improve(t.toArray()), distances);
+	}
+
+	/**
+	 * Improves a tour of city IDs
+	 *
+	 * @param closedTour every city once, first city repeated at the end
+	 * @return improved tour with the same first city
+	 */
+	public int[] improve(int[] closedTour) {
+		if (closedTour.length != size + 1) {
+			throw new IllegalArgumentException("Tour must visit all " + size + " cities and return to the start");
+		}
+		int[] improved = closedTour.clone();
+		improve(improved, 0);
+		return improved;
+	}
+
+	/**
+	 * Improves a tour of city IDs in place, for callers that keep many tours in
+	 * one array
+	 *
+	 * @param tours  array holding the closed tour
+	 * @param offset index of its first city, the tour runs to offset + size
+	 */
+	public void improve(int[] tours, int offset) {
+		if (offset < 0 || offset + size >= tours.length || tours[offset] != tours[offset + size]) {
+			throw new IllegalArgumentException("Tour must visit all " + size + " cities and return to the start");
+		}
+		for (int i = 0; i < size; i++) {
+			tour[i] = tours[offset + i];
+			pos[tour[i]] = i;
+		}
+
+		// Every city starts with its don't-look bit off
+		head = 0;
+		queueSize = 0;
+		for (int i = 0; i < size; i++) {
+			queued[tour[i]] = false;
+			push(tour[i]);
+		}
+
+		improvements = 0;
+		while (queueSize > 0 && size > 4) {
+			int city = queue[head];
+			head = (head + 1) % size;
+			queueSize--;
+			queued[city] = false;
+
+			if ((twoOpt && symmetric && tryTwoOpt(city)) || (orOpt && tryOrOpt(city))) {
+				improvements++;
+				// Look at the city again, its surroundings changed
+				push(city);
+			}
+		}
+
+		// Rotate back so the tour starts where it started
+		int start = pos[tours[offset]];
+		for (int i = 0; i < size; i++) {
+			tours[offset + i] = tour[(start + i) % size];
+		}
+		tours[offset + size] = tours[offset];
+	}
+
+	private void push(int city) {
+		if (!queued[city]) {
+			queued[city] = true;
+			queue[(head + queueSize) % size] = city;
+			queueSize++;
+		}
+	}
+
+	private int next(int city) {
+		int p = pos[city] + 1;
+		return tour[p == size ? 0 : p];
+	}
+
+	private int prev(int city) {
+		int p = pos[city] - 1;
+		return tour[p < 0 ? size - 1 : p];
+	}
+
+	/**
+	 * Tries to replace one of the two edges at t1 with an edge to a near neighbour
+	 *
+	 * @param t1
+	 * @return true if the tour was improved
+	 */
+	private boolean tryTwoOpt(int t1) {
+		for (int forward = 1; forward >= 0; forward--) {
+			int t2 = forward == 1 ? next(t1) : prev(t1);
+			int d12 = distances.getWeight(t1, t2);
+
+			for (int r = 0; r < neighbours.getK(); r++) {
+				int t3 = neighbours.getNeighbour(t2, r);
+				int d23 = distances.getWeight(t2, t3);
+				// Neighbours are sorted, so no later candidate can gain either
+				if (d23 >= d12) {
+					break;
+				}
+				// t4 is on the far side of t3, so the new edges keep a single cycle
+				int t4 = forward == 1 ? prev(t3) : next(t3);
+				if (t3 == t1 || t4 == t2) {
+					continue;
+				}
+
+				long delta = (long) d23 + distances.getWeight(t1, t4) - d12 - distances.getWeight(t3, t4);
+				if (delta < 0) {
+					// Replace edges t1-t2 and t3-t4 with t2-t3 and t1-t4
+					if (forward == 1) {
+						reverse(pos[t2], pos[t4]);
+					} else {
+						reverse(pos[t4], pos[t2]);
+					}
+					push(t2);
+					push(t3);
+					push(t4);
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Tries to move the segment of up to three cities starting at s1 next to a
+	 * near neighbour of either of its ends
+	 *
+	 * @param s1
+	 * @return true if the tour was improved
+	 */
+	private boolean tryOrOpt(int s1) {
+		for (int length = 1; length <= MAX_SEGMENT && length < size - 2; length++) {
+			int s2 = tour[(pos[s1] + length - 1) % size];
+			int p = prev(s1);
+			int n = next(s2);
+			long removeGain = (long) distances.getWeight(p, s1) + distances.getWeight(s2, n)
+					- distances.getWeight(p, n);
+			if (removeGain <= 0) {
+				continue;
+			}
+
+			for (int end = 0; end < 2; end++) {
+				int anchor = end == 0 ? s1 : s2;
+				for (int r = 0; r < neighbours.getK(); r++) {
+					int c = neighbours.getNeighbour(anchor, r);
+					if (distances.getWeight(anchor, c) >= removeGain) {
+						break;
+					}
+					if (inSegment(c, s1, length)) {
+						continue;
+					}
+
+					// Insert between c and its successor, then between its predecessor and c
+					for (int side = 0; side < 2; side++) {
+						int a = side == 0 ? c : prev(c);
+						int b = side == 0 ? next(c) : c;
+						if (inSegment(a, s1, length) || inSegment(b, s1, length)) {
+							continue;
+						}
+						long gap = distances.getWeight(a, b);
+						long forwardDelta = (long) distances.getWeight(a, s1) + distances.getWeight(s2, b) - gap - removeGain;
+						if (forwardDelta < 0) {
+							moveSegment(s1, length, a, false);
+							pushSegmentEnds(s1, s2, p, n, a, b);
+							return true;
+						}
+						if (symmetric) {
+							long reversedDelta = (long) distances.getWeight(a, s2) + distances.getWeight(s1, b) - gap
+									- removeGain;
+							if (reversedDelta < 0) {
+								moveSegment(s1, length, a, true);
+								pushSegmentEnds(s1, s2, p, n, a, b);
+								return true;
+							}
+						}
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	private void pushSegmentEnds(int s1, int s2, int p, int n, int a, int b) {
+		push(s1);
+		push(s2);
+		push(p);
+		push(n);
+		push(a);
+		push(b);
+	}
+
+	private boolean inSegment(int city, int s1, int length) {
+		return (pos[city] - pos[s1] + size) % size < length;
+	}
+
+	/**
+	 * Reverses the tour from position i forward to position j. On a symmetric
+	 * matrix reversing the rest of the cycle gives the same tour, so the shorter
+	 * side is reversed.
+	 */
+	private void reverse(int i, int j) {
+		int length = (j - i + size) % size + 1;
+		if (symmetric && length * 2 > size) {
+			int temp = (j + 1) % size;
+			j = (i - 1 + size) % size;
+			i = temp;
+			length = size - length;
+		}
+		for (int swaps = length / 2; swaps > 0; swaps--) {
+			int a = tour[i];
+			int b = tour[j];
+			tour[i] = b;
+			pos[b] = i;
+			tour[j] = a;
+			pos[a] = j;
+			i = i + 1 == size ? 0 : i + 1;
+			j = j == 0 ? size - 1 : j - 1;
+		}
+	}
+
+	/**
+	 * Moves the segment of length cities starting at s1 to just after city a,
+	 * shifting whichever side of the tour between them is shorter
+	 */
+	private void moveSegment(int s1, int length, int a, boolean reversed) {
+		int start = pos[s1];
+		for (int k = 0; k < length; k++) {
+			segment[k] = tour[(start + k) % size];
+		}
+
+		// Cities between the segment end and a, and between a's successor and the segment
+		int after = (pos[a] - (start + length - 1) + size) % size;
+		int before = size - length - after;
+		int first;
+		if (after <= before) {
+			// Shift the cities after the segment back over it
+			for (int k = 0; k < after; k++) {
+				place(tour[(start + length + k) % size], (start + k) % size);
+			}
+			first = (start + after) % size;
+		} else {
+			// Shift the cities before the segment forward over it
+			for (int k = 1; k <= before; k++) {
+				place(tour[(start - k + size) % size], (start + length - k + size) % size);
+			}
+			first = (start - before + size) % size;
+		}
+		for (int k = 0; k < length; k++) {
+			place(segment[reversed ? length - 1 - k : k], (first + k) % size);
+		}
+	}
+
+	private void place(int city, int position) {
+		tour[position] = city;
+		pos[city] = position;
+	}
+
+	// Mutator functions
+
+	public void setTwoOpt(boolean twoOpt) {
+		this.twoOpt = twoOpt;
+	}
+
+	public void setOrOpt(boolean orOpt) {
+		this.orOpt = orOpt;
+	}
+
+	public boolean isSymmetric() {
+		return symmetric;
+	}
+
+	/**
+	 * Gets the number of improving moves made by the last run
+	 *
+	 * @return improvements
+	 */
+	public long getImprovements() {
+		return improvements;
+	}
+}
@@ -0,0 +1,51 @@
+package TSP;
+
+/**
+ * Lower bound on the cost of finishing a partial tour, used by
+ * {@link BranchAndBoundSolver} to prune nodes before they are expanded.
+ *
+ * Implementations keep their own scratch space so they do not allocate per
+ * node, which means an instance must only be used by one solver at a time.
+ */
+public interface LowerBound {
+	/**
+	 * Prepares the bound for a matrix, called once at the start of a solve
+	 *
+	 * @param matrix row-major distances
+	 * @param size   number of cities
+	 * @param depot  city the tour starts and ends at
+	 */
+	default void init(int[] matrix, int size, int depot) {
+	}
+
+	/**
+	 * Gets a lower bound on the cost of going from current through every
+	 * unvisited city and back to the depot. When current is the depot this is a
+	 * bound on the whole tour.
+	 *
+	 * @param current last city of the partial tour
+	 * @param visited bitset of cities in the partial tour, including current
+	 * @param budget  cost above which the node will be pruned anyway, so the
+	 *                bound may stop refining once it reaches it
+	 * @return bound
+	 */
+	long bound(int current, long[] visited, long budget);
+
+	/**
+	 * Collects the cities that are not in the visited bitset
+	 *
+	 * @param visited
+	 * @param size
+	 * @param out     receives the unvisited cities
+	 * @return number of unvisited cities
+	 */
+	static int unvisited(long[] visited, int size, int[] out) {
+		int count = 0;
+		for (int city = 0; city < size; city++) {
+			if ((visited[city >>> 6] & (1L << city)) == 0) {
+				out[count++] = city;
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,187 @@
+package TSP;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Distance matrix read straight from a binary matrix file through memory
+ * mapping. Opening a file only maps it, so even a matrix of several GB opens in
+ * milliseconds and its values stay off the heap, paged in by the OS as rows are
+ * read.
+ *
+ * The file is a 16 byte header followed by the matrix, row-major and little
+ * endian:
+ *
+ * <pre>
+ * int magic          "TSPM"
+ * int version        1
+ * int size           number of cities
+ * int bytesPerValue  2 for short values, 4 for int values
+ * </pre>
+ *
+ * A single mapping is limited to 2 GB, so larger files are mapped in blocks of
+ * whole rows.
+ */
+public class MappedDistanceMatrix implements DistanceMatrix {
+	static final int MAGIC = 'T' | 'S' << 8 | 'P' << 16 | 'M' << 24;
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = 16;
+
+	// Largest block mapped at once, whole rows only
+	private static final long MAX_MAPPING_BYTES = 1L << 30;
+
+	private final int size;
+	private final int bytesPerValue;
+	private final int rowsPerBuffer;
+	private final ByteBuffer[] buffers;
+
+	private MappedDistanceMatrix(int size, int bytesPerValue, int rowsPerBuffer, ByteBuffer[] buffers) {
+		this.size = size;
+		this.bytesPerValue = bytesPerValue;
+		this.rowsPerBuffer = rowsPerBuffer;
+		this.buffers = buffers;
+	}
+
+	/**
+	 * Maps a binary matrix file. The file is only read as distances are looked
+	 * up, and must not be changed while the matrix is in use.
+	 *
+	 * @param file
+	 * @return matrix
+	 * @throws IOException if the file cannot be read or is not a binary matrix
+	 */
+	public static MappedDistanceMatrix open(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			while (header.hasRemaining()) {
+				if (channel.read(header) < 0) {
+					throw new IOException(file + " is too short for a binary matrix header");
+				}
+			}
+			header.flip();
+			if (header.getInt() != MAGIC) {
+				throw new IOException(file + " is not a binary matrix");
+			}
+			int version = header.getInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported binary matrix version " + version);
+			}
+			int size = header.getInt();
+			int bytesPerValue = header.getInt();
+			if (size < 0 || (bytesPerValue != Short.BYTES && bytesPerValue != Integer.BYTES)) {
+				throw new IOException("Invalid binary matrix header: size " + size + ", " + bytesPerValue + " bytes per value");
+			}
+
+			long rowBytes = (long) size * bytesPerValue;
+			if (rowBytes > MAX_MAPPING_BYTES) {
+				throw new IOException("A row of " + size + " cities does not fit into one mapping");
+			}
+			if (channel.size() < HEADER_BYTES + rowBytes * size) {
+				throw new IOException(file + " is shorter than a " + size + " city matrix");
+			}
+
+			// Map whole rows into each block so a lookup only touches one buffer
+			int rowsPerBuffer = size == 0 ? 1 : (int) Math.max(1, MAX_MAPPING_BYTES / rowBytes);
+			ByteBuffer[] buffers = new ByteBuffer[(size + rowsPerBuffer - 1) / rowsPerBuffer];
+			for (int b = 0; b < buffers.length; b++) {
+				int rows = Math.min(rowsPerBuffer, size - b * rowsPerBuffer);
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+						HEADER_BYTES + b * rowsPerBuffer * rowBytes, rows * rowBytes);
+				buffers[b] = buffer.order(ByteOrder.LITTLE_ENDIAN);
+			}
+			// The mappings stay valid after the channel is closed
+			return new MappedDistanceMatrix(size, bytesPerValue, rowsPerBuffer, buffers);
+		}
+	}
+
+	/**
+	 * Writes a matrix in the binary format, with short values when every distance
+	 * fits into 16 bits
+	 *
+	 * @param distances
+	 * @param file
+	 * @throws IOException
+	 */
+	public static void write(DistanceMatrix distances, Path file) throws IOException {
+		int size = distances.getSize();
+		int bytesPerValue = Short.BYTES;
+		for (int i = 0; i < size && bytesPerValue == Short.BYTES; i++) {
+			for (int j = 0; j < size; j++) {
+				int value = distances.getWeight(i, j);
+				if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+					bytesPerValue = Integer.BYTES;
+					break;
+				}
+			}
+		}
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(bytesPerValue).flip();
+			writeFully(channel, header);
+
+			// One row at a time, so writing never needs a second copy of the matrix
+			ByteBuffer row = ByteBuffer.allocateDirect(size * bytesPerValue).order(ByteOrder.LITTLE_ENDIAN);
+			for (int i = 0; i < size; i++) {
+				row.clear();
+				for (int j = 0; j < size; j++) {
+					if (bytesPerValue == Short.BYTES) {
+						row.putShort((short) distances.getWeight(i, j));
+					} else {
+						row.putInt(distances.getWeight(i, j));
+					}
+				}
+				row.flip();
+				writeFully(channel, row);
+			}
+		}
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	@Override
+	public int getSize() {
+		return size;
+	}
+
+	@Override
+	public int getWeight(int i, int j) {
+		ByteBuffer buffer = buffers[i / rowsPerBuffer];
+		int offset = ((i % rowsPerBuffer) * size + j) * bytesPerValue;
+		return bytesPerValue == Short.BYTES ? buffer.getShort(offset) : buffer.getInt(offset);
+	}
+
+	/**
+	 * Gets the heap used by the matrix. The values themselves are in the mapped
+	 * file, not on the heap.
+	 *
+	 * @return bytes
+	 */
+	@Override
+	public long getMemoryFootprint() {
+		return Weight.ARRAY_HEADER_BYTES + 8L * buffers.length;
+	}
+
+	/**
+	 * Gets the size of the mapped values
+	 *
+	 * @return bytes
+	 */
+	public long getMappedBytes() {
+		return (long) size * size * bytesPerValue;
+	}
+
+	public int getBytesPerValue() {
+		return bytesPerValue;
+	}
+}
@@ -0,0 +1,51 @@
+package TSP;
+
+/**
+ * Bound where the current city and every unvisited city still has to be left
+ * exactly once, each through its cheapest edge to an unvisited city or the
+ * depot.
+ */
+public class MinOutgoingEdgeBound implements LowerBound {
+	private int[] matrix;
+	private int size;
+	private int depot;
+	private int[] remaining;
+
+	@Override
+	public void init(int[] matrix, int size, int depot) {
+		this.matrix = matrix;
+		this.size = size;
+		this.depot = depot;
+		// Keep the scratch space of an earlier matrix that was at least as large
+		if (remaining == null || remaining.length < size) {
+			this.remaining = new int[size];
+		}
+	}
+
+	@Override
+	public long bound(int current, long[] visited, long budget) {
+		int count = LowerBound.unvisited(visited, size, remaining);
+		if (count == 0) {
+			return matrix[current * size + depot];
+		}
+
+		// Current city has to move on to one of the remaining cities
+		long total = cheapestEdge(current, count, false);
+		for (int k = 0; k < count && total < budget; k++) {
+			total += cheapestEdge(remaining[k], count, true);
+		}
+		return total;
+	}
+
+	private long cheapestEdge(int from, int count, boolean toDepot) {
+		int row = from * size;
+		int min = toDepot && from != depot ? matrix[row + depot] : Integer.MAX_VALUE;
+		for (int k = 0; k < count; k++) {
+			int to = remaining[k];
+			if (to != from && matrix[row + to] < min) {
+				min = matrix[row + to];
+			}
+		}
+		return min;
+	}
+}
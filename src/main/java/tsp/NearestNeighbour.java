@@ -0,0 +1,97 @@
+package TSP;
+
+/**
+ * Nearest neighbour construction on city IDs. Each step first looks at the
+ * current city's k nearest candidates and only scans the unvisited cities when
+ * all of them are already in the tour, so most steps cost O(k) instead of O(n).
+ *
+ * Picks the same city as a full scan would, the closest unvisited city with the
+ * lowest ID among ties.
+ */
+public class NearestNeighbour {
+	private static final int DEFAULT_NEIGHBOURS = 16;
+
+	private final DistanceMatrix distances;
+	private final NeighbourIndex neighbours;
+	private final int size;
+
+	/**
+	 * Constructor using the matrix's index of the 16 nearest cities
+	 *
+	 * @param distances
+	 */
+	public NearestNeighbour(DistanceMatrix distances) {
+		this(distances, distances.getNeighbourIndex(DEFAULT_NEIGHBOURS));
+	}
+
+	/**
+	 * Constructor with variables
+	 *
+	 * @param distances
+	 * @param neighbours candidate cities for each city
+	 */
+	public NearestNeighbour(DistanceMatrix distances, NeighbourIndex neighbours) {
+		this.distances = distances;
+		this.neighbours = neighbours;
+		this.size = distances.getSize();
+	}
+
+	/**
+	 * Builds a tour by always moving to the nearest unvisited city
+	 *
+	 * @param start city the tour starts and ends at
+	 * @return closed tour, start at both ends
+	 */
+	public int[] tour(int start) {
+		int[] tour = new int[size + 1];
+		boolean[] visited = new boolean[size];
+
+		// Unvisited cities, kept compact with swap removal for the fallback scan
+		int[] unvisited = new int[size];
+		int[] slot = new int[size];
+		for (int city = 0; city < size; city++) {
+			unvisited[city] = city;
+			slot[city] = city;
+		}
+		int remaining = size;
+
+		int current = start;
+		for (int step = 0; step < size; step++) {
+			tour[step] = current;
+			visited[current] = true;
+			int last = unvisited[--remaining];
+			unvisited[slot[current]] = last;
+			slot[last] = slot[current];
+
+			if (remaining == 0) {
+				break;
+			}
+
+			int next = -1;
+			for (int r = 0; r < neighbours.getK(); r++) {
+				int candidate = neighbours.getNeighbour(current, r);
+				if (!visited[candidate]) {
+					next = candidate;
+					break;
+				}
+			}
+
+			if (next < 0) {
+				// Every candidate is taken, scan what is left
+				int nextDistance = Integer.MAX_VALUE;
+				for (int k = 0; k < remaining; k++) {
+					int city = unvisited[k];
+					int distance = distances.getWeight(current, city);
+					if (next < 0 || distance < nextDistance || (distance == nextDistance && city < next)) {
+						next = city;
+						nextDistance = distance;
+					}
+				}
+			}
+			current = next;
+		}
+
+		tour[size] = start;
+		return tour;
+	}
+}
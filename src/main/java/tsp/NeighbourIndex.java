@@ -0,0 +1,198 @@
+package TSP;
+
+import java.util.stream.IntStream;
+
+/**
+ * The k nearest cities of every city, closest first with ties broken by the lower
+ * city ID. Heuristics look only at these candidates instead of scanning every
+ * city. Rows are built in parallel.
+ *
+ * Prefer {@link DistanceMatrix#getNeighbourIndex(int)}, which lets a matrix reuse
+ * its index until it is changed. Rows are in a fixed order, so the first k
+ * neighbours of a larger index are exactly the index for k, and a matrix keeps
+ * only its largest index and hands out {@link #prefix(int)} views of it.
+ */
+public class NeighbourIndex {
+	// Rows built by one parallel task
+	private static final int CHUNK = 64;
+
+	private final int size;
+	private final int k;
+	private final int stride; // Neighbours stored per city, k or more for a prefix view
+	private final int[] neighbours; // neighbours[city * stride + r] is the r-th closest city
+
+	/**
+	 * Constructor with variables
+	 *
+	 * @param distances
+	 * @param k         neighbours kept per city, capped at size - 1
+	 */
+	public NeighbourIndex(DistanceMatrix distances, int k) {
+		this.size = distances.getSize();
+		this.k = Math.max(0, Math.min(k, size - 1));
+		this.stride = this.k;
+		this.neighbours = new int[size * this.k];
+
+		// Each task builds a block of rows with its own heap
+		int chunks = (size + CHUNK - 1) / CHUNK;
+		IntStream.range(0, chunks).parallel().forEach(chunk -> {
+			int[] heap = new int[this.k];
+			int[] heapCost = new int[this.k];
+			int end = Math.min(size, (chunk + 1) * CHUNK);
+			for (int city = chunk * CHUNK; city < end; city++) {
+				nearest(distances, city, heap, heapCost);
+			}
+		});
+	}
+
+	/**
+	 * Constructor for rows built elsewhere
+	 *
+	 * @param size
+	 * @param k
+	 * @param neighbours k cities per city, closest first
+	 */
+	NeighbourIndex(int size, int k, int[] neighbours) {
+		this(size, k, k, neighbours);
+	}
+
+	private NeighbourIndex(int size, int k, int stride, int[] neighbours) {
+		this.size = size;
+		this.k = k;
+		this.stride = stride;
+		this.neighbours = neighbours;
+	}
+
+	/**
+	 * Gets the index for fewer neighbours, sharing these rows
+	 *
+	 * @param k neighbours per city, at most getK() once capped at size - 1
+	 * @return this if k is not smaller, otherwise a view
+	 */
+	public NeighbourIndex prefix(int k) {
+		int capped = Math.max(0, Math.min(k, size - 1));
+		if (capped > this.k) {
+			throw new IllegalArgumentException("Index of " + this.k + " neighbours has no prefix of " + capped);
+		}
+		return capped == this.k ? this : new NeighbourIndex(size, capped, stride, neighbours);
+	}
+
+	/**
+	 * Selects the k nearest cities with a bounded max heap, then sorts them
+	 * closest first into the index
+	 */
+	private void nearest(DistanceMatrix distances, int city, int[] heap, int[] heapCost) {
+		int count = 0;
+		for (int other = 0; other < size; other++) {
+			if (other == city) {
+				continue;
+			}
+			count = offer(heap, heapCost, count, k, other, distances.getWeight(city, other));
+		}
+		popSorted(heap, heapCost, count, neighbours, city * stride);
+	}
+
+	/**
+	 * Offers a city to a bounded max heap of the k nearest so far
+	 *
+	 * @return number of cities in the heap
+	 */
+	static int offer(int[] heap, int[] heapCost, int count, int k, int city, int cost) {
+		if (count < k) {
+			heap[count] = city;
+			heapCost[count] = cost;
+			siftUp(heap, heapCost, count);
+			return count + 1;
+		}
+		if (k > 0 && (cost < heapCost[0] || (cost == heapCost[0] && city < heap[0]))) {
+			heap[0] = city;
+			heapCost[0] = cost;
+			siftDown(heap, heapCost, k);
+		}
+		return count;
+	}
+
+	/**
+	 * Pops the farthest off the heap into the back of the row, leaving the row
+	 * closest first
+	 */
+	static void popSorted(int[] heap, int[] heapCost, int count, int[] row, int offset) {
+		for (int end = count - 1; end >= 0; end--) {
+			row[offset + end] = heap[0];
+			heap[0] = heap[end];
+			heapCost[0] = heapCost[end];
+			siftDown(heap, heapCost, end);
+		}
+	}
+
+	// Heap order, farther first and the higher ID first among equal costs
+	private static boolean isAfter(int[] heap, int[] cost, int a, int b) {
+		return cost[a] > cost[b] || (cost[a] == cost[b] && heap[a] > heap[b]);
+	}
+
+	private static void siftUp(int[] heap, int[] cost, int i) {
+		while (i > 0) {
+			int parent = (i - 1) / 2;
+			if (!isAfter(heap, cost, i, parent)) {
+				return;
+			}
+			swap(heap, cost, i, parent);
+			i = parent;
+		}
+	}
+
+	private static void siftDown(int[] heap, int[] cost, int length) {
+		int i = 0;
+		while (true) {
+			int largest = i;
+			int left = 2 * i + 1;
+			int right = left + 1;
+			if (left < length && isAfter(heap, cost, left, largest)) {
+				largest = left;
+			}
+			if (right < length && isAfter(heap, cost, right, largest)) {
+				largest = right;
+			}
+			if (largest == i) {
+				return;
+			}
+			swap(heap, cost, i, largest);
+			i = largest;
+		}
+	}
+
+	private static void swap(int[] heap, int[] cost, int a, int b) {
+		int temp = heap[a];
+		heap[a] = heap[b];
+		heap[b] = temp;
+		temp = cost[a];
+		cost[a] = cost[b];
+		cost[b] = temp;
+	}
+
+	// Mutator functions
+
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Gets the number of neighbours kept per city
+	 *
+	 * @return k
+	 */
+	public int getK() {
+		return k;
+	}
+
+	/**
+	 * Gets the r-th closest city to a city
+	 *
+	 * @param city
+	 * @param r    0 for the closest
+	 * @return neighbour
+	 */
+	public int getNeighbour(int city, int r) {
+		return neighbours[city * stride + r];
+	}
+}
@@ -0,0 +1,199 @@
+package TSP;
+
+import java.util.Arrays;
+
+/**
+ * Held-Karp bound. At the root the tour is a cycle through every city, bounded by
+ * a 1-tree: a minimum spanning tree of every city but the depot plus the two
+ * cheapest depot edges. Deeper in the tree the rest of the tour is a path from the
+ * current city to the depot through the unvisited cities, bounded by a minimum
+ * spanning tree of those cities.
+ *
+ * Node penalties are tuned by subgradient optimisation to push the tree towards
+ * the degrees of a tour, tightening the bound. Edges are made symmetric with the
+ * cheaper direction so the bound also holds for asymmetric matrices.
+ */
+public class OneTreeBound implements LowerBound {
+	private static final int DEFAULT_ITERATIONS = 20;
+
+	private final int iterations;
+
+	private int[] matrix;
+	private int size;
+	private int depot;
+	private int[] nodes; // Cities the tree spans
+	private int[] target; // Degree of each node in a tour
+	private int[] degree; // Degree of each node in the last tree
+	private double[] penalty;
+	private double[] key;
+	private int[] parent;
+	private boolean[] inTree;
+
+	/**
+	 * Constructor with the default number of subgradient iterations
+	 */
+	public OneTreeBound() {
+		this(DEFAULT_ITERATIONS);
+	}
+
+	/**
+	 * Constructor with variables
+	 *
+	 * @param iterations subgradient steps per bound, 0 gives the plain tree bound
+	 */
+	public OneTreeBound(int iterations) {
+		this.iterations = iterations;
+	}
+
+	@Override
+	public void init(int[] matrix, int size, int depot) {
+		this.matrix = matrix;
+		this.size = size;
+		this.depot = depot;
+		// Keep the scratch space of an earlier matrix that was at least as large
+		if (nodes == null || nodes.length < size + 1) {
+			this.nodes = new int[size + 1];
+			this.target = new int[size + 1];
+			this.degree = new int[size + 1];
+			this.penalty = new double[size + 1];
+			this.key = new double[size + 1];
+			this.parent = new int[size + 1];
+			this.inTree = new boolean[size + 1];
+		}
+	}
+
+	@Override
+	public long bound(int current, long[] visited, long budget) {
+		int count = LowerBound.unvisited(visited, size, nodes);
+		boolean cycle = current == depot;
+
+		// Node layout: unvisited cities, then current, then the depot for a path
+		nodes[count] = current;
+		int n = count + 1;
+		if (!cycle) {
+			nodes[n++] = depot;
+		}
+		for (int k = 0; k < n; k++) {
+			target[k] = 2;
+		}
+		if (!cycle) {
+			target[n - 2] = 1;
+			target[n - 1] = 1;
+		}
+		Arrays.fill(penalty, 0, n, 0.0);
+
+		double best = Double.NEGATIVE_INFINITY;
+		double step = 2.0;
+		for (int it = 0; it <= iterations; it++) {
+			double value = cycle ? oneTree(n) : spanningTree(n, n);
+			for (int k = 0; k < n; k++) {
+				value -= penalty[k] * target[k];
+			}
+			best = Math.max(best, value);
+			if (best >= budget) {
+				break;
+			}
+
+			long norm = 0;
+			for (int k = 0; k < n; k++) {
+				int g = degree[k] - target[k];
+				norm += (long) g * g;
+			}
+			if (norm == 0) {
+				// The tree is itself a tour, so the bound is exact
+				break;
+			}
+
+			double goal = budget == Long.MAX_VALUE ? Math.abs(best) * 1.05 + 1 : budget;
+			double t = step * (goal - value) / norm;
+			for (int k = 0; k < n; k++) {
+				penalty[k] += t * (degree[k] - target[k]);
+			}
+			step *= 0.9;
+		}
+
+		return (long) Math.ceil(best - 1e-9);
+	}
+
+	/**
+	 * Spanning tree of nodes[0..n-2] plus the two cheapest edges to nodes[n-1],
+	 * which is the depot
+	 */
+	private double oneTree(int n) {
+		if (n == 1) {
+			degree[0] = 0;
+			return 0;
+		}
+		double total = spanningTree(n - 1, n);
+
+		double first = Double.MAX_VALUE;
+		double second = Double.MAX_VALUE;
+		int firstNode = 0;
+		int secondNode = 0;
+		for (int k = 0; k < n - 1; k++) {
+			double cost = cost(k, n - 1);
+			if (cost < first) {
+				second = first;
+				secondNode = firstNode;
+				first = cost;
+				firstNode = k;
+			} else if (cost < second) {
+				second = cost;
+				secondNode = k;
+			}
+		}
+		if (n == 2) {
+			// Only one other city, the tour uses its edge both ways
+			second = first;
+			secondNode = firstNode;
+		}
+		degree[firstNode]++;
+		degree[secondNode]++;
+		degree[n - 1] = 2;
+		return total + first + second;
+	}
+
+	/**
+	 * Prim's minimum spanning tree over nodes[0..m-1], resetting degree[0..n-1]
+	 */
+	private double spanningTree(int m, int n) {
+		Arrays.fill(degree, 0, n, 0);
+		Arrays.fill(inTree, 0, m, false);
+		Arrays.fill(key, 0, m, Double.MAX_VALUE);
+		key[0] = 0;
+		parent[0] = -1;
+
+		double total = 0;
+		for (int added = 0; added < m; added++) {
+			int u = -1;
+			for (int k = 0; k < m; k++) {
+				if (!inTree[k] && (u < 0 || key[k] < key[u])) {
+					u = k;
+				}
+			}
+			inTree[u] = true;
+			total += key[u];
+			if (parent[u] >= 0) {
+				degree[u]++;
+				degree[parent[u]]++;
+			}
+			for (int k = 0; k < m; k++) {
+				if (!inTree[k]) {
+					double cost = cost(u, k);
+					if (cost < key[k]) {
+						key[k] = cost;
+						parent[k] = u;
+					}
+				}
+			}
+		}
+		return total;
+	}
+
+	// Penalised symmetric cost between nodes a and b
+	private double cost(int a, int b) {
+		int i = nodes[a];
+		int j = nodes[b];
+		return Math.min(matrix[i * size + j], matrix[j * size + i]) + penalty[a] + penalty[b];
+	}
+}
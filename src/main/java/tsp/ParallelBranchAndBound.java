@@ -0,0 +1,315 @@
+package TSP;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Branch and bound split across a {@link ForkJoinPool}. The first levels of the
+ * search tree become tasks, and below that each task runs the same allocation free
+ * depth first search as {@link BranchAndBoundSolver}. The best route so far is
+ * replaced under a lock, which only routes that beat it take, and published
+ * through a volatile field that workers read without locking, so a route found
+ * by one worker prunes every other worker from its next node on.
+ *
+ * Unlike the static TSP solvers an instance holds all of its own state, so any
+ * number of solves can run at the same time.
+ */
+public class ParallelBranchAndBound {
+	private final int size;
+	private final int depot;
+	private final int[] matrix; // Row-major copy of the distances
+	private final ForkJoinPool pool;
+	private volatile Incumbent incumbent; // Reset by solve, then replaced under offer's lock
+	private final LongAdder nodesExpanded = new LongAdder();
+	private final IncumbentTracker incumbents = new IncumbentTracker(); // Guarded by offer's lock
+
+	private BoundingStrategy strategy = BoundingStrategy.MIN_OUTGOING_EDGE;
+	private int splitDepth; // Tree levels turned into tasks, 0 picks one from the pool size
+	private int[] initialTour;
+	private long upperBound = Long.MAX_VALUE;
+
+	/**
+	 * Constructor using the common pool and the last city as the depot
+	 *
+	 * @param distances
+	 */
+	public ParallelBranchAndBound(DistanceMatrix distances) {
+		this(distances, distances.getSize() - 1, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Constructor with variables
+	 *
+	 * @param distances
+	 * @param depot     city the tour starts and ends at
+	 * @param pool      pool to run the tasks in
+	 */
+	public ParallelBranchAndBound(DistanceMatrix distances, int depot, ForkJoinPool pool) {
+		this.size = distances.getSize();
+		if (depot < 0 || depot >= size) {
+			throw new IllegalArgumentException("Depot " + depot + " is not a city of a " + size + " city matrix");
+		}
+		this.depot = depot;
+		this.pool = pool;
+		this.matrix = new int[size * size];
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				matrix[i * size + j] = distances.getWeight(i, j);
+			}
+		}
+	}
+
+	/**
+	 * Calculates the shortest route starting and ending at the depot
+	 *
+	 * @return cost of the shortest route, Integer.MAX_VALUE if none was found
+	 *         within the upper bound
+	 */
+	public int solve() {
+		// Routes must be strictly cheaper than the incumbent, so allow ties with the bound
+		long limit = upperBound == Long.MAX_VALUE ? upperBound : upperBound + 1;
+		incumbents.start();
+		incumbent = new Incumbent(limit, null);
+		if (initialTour != null) {
+			offer(tourCost(initialTour), initialTour);
+		}
+		nodesExpanded.reset();
+
+		int[] path = new int[size];
+		path[0] = depot;
+		long[] visited = new long[(size + 63) >>> 6];
+		visited[depot >>> 6] |= 1L << depot;
+		pool.invoke(new SearchTask(path, 1, visited, 0L, splitDepth > 0 ? splitDepth : defaultSplitDepth()));
+
+		return getBestCost();
+	}
+
+	/**
+	 * Picks enough levels to give every pool thread several tasks, so threads that
+	 * finish pruned subtrees early can steal more work
+	 *
+	 * @return splitDepth
+	 */
+	private int defaultSplitDepth() {
+		long tasks = 1;
+		int depth = 0;
+		while (tasks < pool.getParallelism() * 16L && depth < size - 2) {
+			tasks *= size - 1 - depth;
+			depth++;
+		}
+		return depth;
+	}
+
+	/**
+	 * Publishes a route if it is cheaper than the incumbent. Workers compare
+	 * against the incumbent without the lock first, so only routes that were
+	 * cheaper a moment ago wait for it, and they are counted in cost order.
+	 *
+	 * @param cost
+	 * @param closedTour
+	 */
+	private synchronized void offer(long cost, int[] closedTour) {
+		if (cost < incumbent.cost) {
+			incumbent = new Incumbent(cost, closedTour.clone());
+			incumbents.improved();
+		}
+	}
+
+	private long tourCost(int[] closedTour) {
+		long cost = 0;
+		for (int i = 0; i < size; i++) {
+			cost += matrix[closedTour[i] * size + closedTour[i + 1]];
+		}
+		return cost;
+	}
+
+	/**
+	 * Best route so far, replaced rather than mutated so readers always see a
+	 * matching cost and tour
+	 */
+	private static final class Incumbent {
+		private final long cost;
+		private final int[] tour; // null while only a bound is known
+
+		private Incumbent(long cost, int[] tour) {
+			this.cost = cost;
+			this.tour = tour;
+		}
+	}
+
+	/**
+	 * Subtree rooted at a partial tour. Shallow subtrees fork a task per child,
+	 * deep ones are searched by a worker.
+	 */
+	private final class SearchTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final int[] path;
+		private final int depth;
+		private final long[] visited;
+		private final long cost;
+		private final int splitDepth;
+
+		private SearchTask(int[] path, int depth, long[] visited, long cost, int splitDepth) {
+			this.path = path;
+			this.depth = depth;
+			this.visited = visited;
+			this.cost = cost;
+			this.splitDepth = splitDepth;
+		}
+
+		@Override
+		protected void compute() {
+			if (depth > splitDepth || depth == size) {
+				new Worker().search(path, depth, visited, cost);
+				return;
+			}
+
+			nodesExpanded.increment();
+			int current = path[depth - 1];
+			SearchTask[] children = new SearchTask[size - depth];
+			int count = 0;
+			for (int next = 0; next < size; next++) {
+				if ((visited[next >>> 6] & (1L << next)) != 0) {
+					continue;
+				}
+				long nextCost = cost + matrix[current * size + next];
+				if (nextCost < incumbent.cost) {
+					int[] childPath = path.clone();
+					childPath[depth] = next;
+					long[] childVisited = visited.clone();
+					childVisited[next >>> 6] |= 1L << next;
+					children[count++] = new SearchTask(childPath, depth + 1, childVisited, nextCost, splitDepth);
+				}
+			}
+			invokeAll(Arrays.copyOf(children, count));
+		}
+	}
+
+	/**
+	 * Scratch space for the depth first search below the split levels, allocated
+	 * once per leaf task
+	 */
+	private final class Worker {
+		private final int[] tour = new int[size + 1];
+		private final long[] visited = new long[(size + 63) >>> 6];
+		private final LowerBound bound = strategy.create();
+		private long nodes;
+
+		private Worker() {
+			bound.init(matrix, size, depot);
+		}
+
+		private void search(int[] path, int depth, long[] startVisited, long cost) {
+			System.arraycopy(path, 0, tour, 0, depth);
+			System.arraycopy(startVisited, 0, visited, 0, visited.length);
+			int current = tour[depth - 1];
+			long best = incumbent.cost;
+			long budget = best == Long.MAX_VALUE ? best : best - cost;
+			if (depth == size || cost + bound.bound(current, visited, budget) < best) {
+				search(depth, current, cost);
+			}
+			nodesExpanded.add(nodes);
+		}
+
+		private void search(int depth, int current, long cost) {
+			nodes++;
+
+			if (depth == size) {
+				long total = cost + matrix[current * size + depot];
+				if (total < incumbent.cost) {
+					tour[size] = depot;
+					offer(total, tour);
+				}
+				return;
+			}
+
+			int row = current * size;
+			for (int next = 0; next < size; next++) {
+				if ((visited[next >>> 6] & (1L << next)) != 0) {
+					continue;
+				}
+
+				long nextCost = cost + matrix[row + next];
+				// Re-read the incumbent at every node so other workers' routes prune at once
+				long best = incumbent.cost;
+				if (nextCost >= best) {
+					continue;
+				}
+				tour[depth] = next;
+				visited[next >>> 6] |= 1L << next;
+				long budget = best == Long.MAX_VALUE ? best : best - nextCost;
+				if (nextCost + bound.bound(next, visited, budget) < best) {
+					search(depth + 1, next, nextCost);
+				}
+				visited[next >>> 6] &= ~(1L << next);
+			}
+		}
+	}
+
+	// Mutator functions
+
+	/**
+	 * Sets the lower bound used below the split levels
+	 *
+	 * @param strategy
+	 */
+	public void setBoundingStrategy(BoundingStrategy strategy) {
+		this.strategy = strategy;
+	}
+
+	public void setSplitDepth(int splitDepth) {
+		this.splitDepth = splitDepth;
+	}
+
+	/**
+	 * Sets a route to start from as the best so far
+	 *
+	 * @param initialTour closed tour with the depot at both ends, or null
+	 */
+	public void setInitialTour(int[] initialTour) {
+		if (initialTour != null && (initialTour.length != size + 1 || initialTour[0] != depot
+				|| initialTour[size] != depot)) {
+			throw new IllegalArgumentException("Initial tour must visit " + size + " cities from depot " + depot);
+		}
+		this.initialTour = initialTour == null ? null : initialTour.clone();
+	}
+
+	public void setUpperBound(int upperBound) {
+		this.upperBound = upperBound;
+	}
+
+	/**
+	 * Gets a copy of the best tour found by the last solve, depot at both ends
+	 *
+	 * @return bestTour, null if no route was found within the upper bound
+	 */
+	public int[] getBestTour() {
+		int[] tour = incumbent.tour;
+		return tour == null ? null : tour.clone();
+	}
+
+	public int getBestCost() {
+		Incumbent best = incumbent;
+		return best.tour == null ? Integer.MAX_VALUE : (int) best.cost;
+	}
+
+	public long getNodesExpanded() {
+		return nodesExpanded.sum();
+	}
+
+	// Incumbent counts of the last solve, see IncumbentTracker
+	public synchronized long getIncumbentUpdates() {
+		return incumbents.getUpdates();
+	}
+
+	public synchronized long getTimeToFirstSolution() {
+		return incumbents.getTimeToFirst();
+	}
+
+	public synchronized long getTimeToBestSolution() {
+		return incumbents.getTimeToBest();
+	}
+}
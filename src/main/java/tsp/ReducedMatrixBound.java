@@ -0,0 +1,74 @@
+package TSP;
+
+/**
+ * Reduced cost matrix bound. Rows are the cities still to be left (current and
+ * the unvisited cities), columns the cities still to be entered (the unvisited
+ * cities and the depot). Subtracting the smallest entry of every row and then of
+ * every column gives a bound, as each row and column is used exactly once.
+ */
+public class ReducedMatrixBound implements LowerBound {
+	private int[] matrix;
+	private int size;
+	private int depot;
+	private int[] remaining;
+	private int[] rowMin;
+
+	@Override
+	public void init(int[] matrix, int size, int depot) {
+		this.matrix = matrix;
+		this.size = size;
+		this.depot = depot;
+		// Keep the scratch space of an earlier matrix that was at least as large
+		if (remaining == null || remaining.length < size) {
+			this.remaining = new int[size];
+			this.rowMin = new int[size];
+		}
+	}
+
+	@Override
+	public long bound(int current, long[] visited, long budget) {
+		int count = LowerBound.unvisited(visited, size, remaining);
+		if (count == 0) {
+			return matrix[current * size + depot];
+		}
+
+		// Row reduction, row k is remaining[k] and row count is current
+		long total = 0;
+		for (int r = 0; r <= count; r++) {
+			int from = r == count ? current : remaining[r];
+			int min = Integer.MAX_VALUE;
+			for (int c = 0; c <= count; c++) {
+				if (isOpen(from, c, count, current)) {
+					min = Math.min(min, matrix[from * size + column(c, count)]);
+				}
+			}
+			rowMin[r] = min;
+			total += min;
+		}
+
+		// Column reduction on what is left after the rows
+		for (int c = 0; c <= count && total < budget; c++) {
+			int to = column(c, count);
+			long min = Long.MAX_VALUE;
+			for (int r = 0; r <= count; r++) {
+				int from = r == count ? current : remaining[r];
+				if (isOpen(from, c, count, current)) {
+					min = Math.min(min, (long) matrix[from * size + to] - rowMin[r]);
+				}
+			}
+			total += min;
+		}
+		return total;
+	}
+
+	// Column k is remaining[k] and column count is the depot
+	private int column(int c, int count) {
+		return c == count ? depot : remaining[c];
+	}
+
+	private boolean isOpen(int from, int c, int count, int current) {
+		int to = column(c, count);
+		// Current can only go home once all cities are visited, and no city can stay put
+		return from != to && !(from == current && c == count);
+	}
+}
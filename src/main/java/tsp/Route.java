@@ -50,16 +50,14 @@ public class Route {
 
 	@Override
 	public String toString() {
-		String r = "";
-		if (!route.isEmpty()) {
-			// Short route for easier display
-			for (City c : route) {
-				r += c.getName() + ",";
+		StringBuilder sb = new StringBuilder(16 + 8 * route.size()).append("Route{");
+		// Short route for easier display
+		for (int i = 0; i < route.size(); i++) {
+			if (i > 0) {
+				sb.append(',');
 			}
-
-			// Remove trailing comma
-			r = r.substring(0, r.length() - 1);
+			sb.append(route.get(i).getName());
 		}
-		return "Route{" + r + '}';
+		return sb.append('}').toString();
 	}
 }
@@ -0,0 +1,11 @@
+package TSP;
+
+/**
+ * Order in which {@link BranchAndBoundSolver} expands search nodes
+ */
+public enum SearchOrder {
+	// Recursive, lexicographic, allocation free
+	DEPTH_FIRST,
+	// Always expand the open node with the lowest bound, nodes are kept in a queue
+	BEST_FIRST
+}
@@ -0,0 +1,63 @@
+package TSP;
+
+/**
+ * Row-major distance matrix backed by a short[], for instances whose distances
+ * fit into 16 bits. Uses half the memory of {@link Weight}.
+ */
+public class ShortDistanceMatrix implements DistanceMatrix {
+	private final int size;
+	private final short[] values;
+
+	/**
+	 * Constructor for an empty matrix
+	 *
+	 * @param size
+	 */
+	public ShortDistanceMatrix(int size) {
+		this.size = size;
+		this.values = new short[size * size];
+	}
+
+	/**
+	 * Constructor copying another matrix
+	 *
+	 * @param source
+	 */
+	public ShortDistanceMatrix(DistanceMatrix source) {
+		this(source.getSize());
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				setWeight(i, j, source.getWeight(i, j));
+			}
+		}
+	}
+
+	@Override
+	public int getSize() {
+		return size;
+	}
+
+	@Override
+	public int getWeight(int i, int j) {
+		return values[i * size + j];
+	}
+
+	/**
+	 * Sets the cost of traveling from city i to city j
+	 *
+	 * @param i
+	 * @param j
+	 * @param value must fit into a short
+	 */
+	public void setWeight(int i, int j, int value) {
+		if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+			throw new IllegalArgumentException("Weight " + value + " does not fit into a short");
+		}
+		values[i * size + j] = (short) value;
+	}
+
+	@Override
+	public long getMemoryFootprint() {
+		return Weight.ARRAY_HEADER_BYTES + (long) Short.BYTES * values.length;
+	}
+}
@@ -0,0 +1,621 @@
+package TSP;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Simulated annealing, between nearest neighbour and the exact searches in both
+ * cost and quality. Each restart starts from the nearest neighbour tour and
+ * makes random moves, always taking one that makes the tour shorter and taking
+ * one that makes it longer by delta with probability exp(-delta / T). The
+ * temperature T falls from the initial to the final one over the restart
+ * following a {@link CoolingSchedule}, so the search wanders at first and only
+ * goes downhill at the end.
+ *
+ * A move picks a random city a and one of its nearest neighbours c, and brings
+ * them together: a 2-opt move adding the edge a-c, swapping c with the city
+ * after a, or taking c out and putting it after a. Each is priced in O(1) from
+ * the edges it changes. 2-opt reverses part of the tour, which changes the cost
+ * of the reversed part on an asymmetric matrix, so there only swaps and
+ * inserts are made.
+ *
+ * Restarts run in parallel on the common fork-join pool and the best tour of any
+ * of them is returned. Each restart draws from its own SplittableRandom, split
+ * from the seed in restart order before any of them run, so without a time
+ * limit the same seed gives the same tour however restarts are scheduled. Ties
+ * go to the lowest restart.
+ */
+public class SimulatedAnnealingSolver {
+	private static final int DEFAULT_NEIGHBOURS = 10;
+	// Moves between temperature updates and stop checks
+	private static final int STEP = 128;
+	// Moves priced to pick the initial temperature
+	private static final int SAMPLES = 1000;
+	// Automatic final temperature as a fraction of the initial one
+	private static final double FINAL_FRACTION = 1e-3;
+
+	private final DistanceMatrix distances;
+	private final int size;
+	private final int depot;
+	private final boolean symmetric;
+	private final NeighbourIndex neighbours;
+
+	private int restarts = Math.max(1, ForkJoinPool.commonPool().getParallelism());
+	private long iterations;
+	private CoolingSchedule schedule = CoolingSchedule.GEOMETRIC;
+	private double initialTemperature; // 0 to pick from the first moves
+	private double finalTemperature; // 0 for a fraction of the initial temperature
+	private boolean parallel = true;
+	private long seed = 0L;
+
+	private Duration timeLimit; // null for no limit
+	private CancellationToken cancellationToken;
+	private IncumbentListener listener;
+
+	private StopCondition stop;
+
+	// Best tour of every restart so far, guarded by this
+	private final int[] bestTour;
+	private long bestCost;
+	private int bestRestart;
+	private final IncumbentTracker incumbents = new IncumbentTracker();
+
+	private long movesMade;
+	private long movesAccepted;
+	private boolean stopped; // Time limit ran out or the solve was cancelled
+
+	/**
+	 * Constructor using the last city as the depot
+	 *
+	 * @param distances
+	 */
+	public SimulatedAnnealingSolver(DistanceMatrix distances) {
+		this(distances, distances.getSize() - 1);
+	}
+
+	/**
+	 * Constructor with variables
+	 *
+	 * @param distances
+	 * @param depot     city the tour starts and ends at
+	 */
+	public SimulatedAnnealingSolver(DistanceMatrix distances, int depot) {
+		this.size = distances.getSize();
+		if (depot < 0 || depot >= size) {
+			throw new IllegalArgumentException("Depot " + depot + " is not a city of a " + size + " city matrix");
+		}
+		this.distances = distances;
+		this.depot = depot;
+		this.symmetric = distances.isSymmetric();
+		this.neighbours = distances.getNeighbourIndex(DEFAULT_NEIGHBOURS);
+		this.iterations = 1000L * size;
+		this.bestTour = new int[size + 1];
+	}
+
+	/**
+	 * Runs every restart until it has made its moves, or until the time limit
+	 * runs out or the token is cancelled
+	 *
+	 * @return cost of the shortest route found
+	 */
+	public int solve() {
+		incumbents.start();
+		stop = StopCondition.start(timeLimit, cancellationToken);
+		bestCost = Long.MAX_VALUE;
+		bestRestart = Integer.MAX_VALUE;
+
+		// Split in restart order so each restart's stream does not depend on scheduling
+		SplittableRandom root = new SplittableRandom(seed);
+		Restart[] runs = new Restart[restarts];
+		for (int r = 0; r < restarts; r++) {
+			runs[r] = new Restart(r, root.split());
+		}
+		if (parallel && restarts > 1) {
+			IntStream.range(0, restarts).parallel().forEach(r -> runs[r].run());
+		} else {
+			for (Restart run : runs) {
+				run.run();
+			}
+		}
+
+		movesMade = 0;
+		movesAccepted = 0;
+		stopped = false;
+		for (Restart run : runs) {
+			movesMade += run.movesMade;
+			movesAccepted += run.movesAccepted;
+			stopped |= run.stopped;
+		}
+		return (int) bestCost;
+	}
+
+	/**
+	 * Keeps a restart's best tour if it beats the best so far, or ties with it
+	 * from a lower restart
+	 */
+	private synchronized void offer(int restart, int[] tour, long cost) {
+		if (cost > bestCost || (cost == bestCost && restart >= bestRestart)) {
+			return;
+		}
+		boolean improved = cost < bestCost;
+		bestCost = cost;
+		bestRestart = restart;
+		// Rotate the depot to the front, the direction is kept for asymmetric matrices
+		int start = 0;
+		while (tour[start] != depot) {
+			start++;
+		}
+		for (int p = 0; p < size; p++) {
+			bestTour[p] = tour[(start + p) % size];
+		}
+		bestTour[size] = depot;
+
+		if (improved) {
+			incumbents.improved();
+			if (listener != null) {
+				listener.improved(bestTour.clone(), (int) bestCost);
+			}
+		}
+	}
+
+	/**
+	 * One annealing run with its own tour and random stream
+	 */
+	private final class Restart {
+		private final int index;
+		private final SplittableRandom random;
+		private final int[] tour; // City at each position, as a cycle
+		private final int[] pos; // Position of each city
+		private final int[] best; // Copy of the best tour of this restart
+		private long cost;
+
+		// The move last priced, applied if it is accepted
+		private int kind;
+		private int a;
+		private int c;
+
+		private long movesMade;
+		private long movesAccepted;
+		private boolean stopped;
+
+		Restart(int index, SplittableRandom random) {
+			this.index = index;
+			this.random = random;
+			this.tour = new int[size];
+			this.pos = new int[size];
+			this.best = new int[size];
+		}
+
+		void run() {
+			int[] initial = new NearestNeighbour(distances, neighbours).tour(depot);
+			for (int p = 0; p < size; p++) {
+				tour[p] = initial[p];
+				pos[tour[p]] = p;
+				cost += distances.getWeight(initial[p], initial[p + 1]);
+			}
+			offer(index, tour, cost);
+			// Every move needs a, c and two more cities around them
+			if (size < 5 || neighbours.getK() == 0) {
+				return;
+			}
+
+			double first = initialTemperature > 0 ? initialTemperature : sampleTemperature();
+			double last = finalTemperature > 0 ? Math.min(finalTemperature, first) : first * FINAL_FRACTION;
+
+			long bestCost = cost;
+			boolean bestSaved = false;
+			double temperature = first;
+			for (long move = 0; move < iterations; move++) {
+				if (move % STEP == 0) {
+					if (stop.isReached()) {
+						stopped = true;
+						break;
+					}
+					temperature = temperature(first, last, (double) move / iterations);
+				}
+
+				long delta = price();
+				movesMade++;
+				if (delta < 0 || (delta != Long.MAX_VALUE && random.nextDouble() < Math.exp(-delta / temperature))) {
+					// Save the best tour only when about to leave it
+					if (delta > 0 && !bestSaved && cost == bestCost) {
+						System.arraycopy(tour, 0, best, 0, size);
+						bestSaved = true;
+					}
+					apply();
+					cost += delta;
+					movesAccepted++;
+					if (cost < bestCost) {
+						bestCost = cost;
+						bestSaved = false;
+					}
+				}
+			}
+			if (bestSaved) {
+				offer(index, best, bestCost);
+			} else {
+				offer(index, tour, cost);
+			}
+		}
+
+		/**
+		 * Picks the temperature at which the average uphill move of the starting
+		 * tour is taken with probability 1/e, but no hotter than the average edge
+		 * of the starting tour. On random asymmetric matrices an uphill move adds
+		 * edges far longer than the nearest neighbour tour's, and starting that
+		 * hot the tour never got back below where it started.
+		 */
+		private double sampleTemperature() {
+			long total = 0;
+			int uphill = 0;
+			for (int s = 0; s < SAMPLES; s++) {
+				long delta = price();
+				if (delta > 0 && delta != Long.MAX_VALUE) {
+					total += delta;
+					uphill++;
+				}
+			}
+			double average = uphill == 0 ? 1.0 : (double) total / uphill;
+			return cost > 0 ? Math.min(average, (double) cost / size) : average;
+		}
+
+		/**
+		 * Picks a random move and prices it
+		 *
+		 * @return change in cost, Long.MAX_VALUE if the move does nothing
+		 */
+		private long price() {
+			a = random.nextInt(size);
+			c = neighbours.getNeighbour(a, random.nextInt(neighbours.getK()));
+			// Half 2-opt and a quarter each swap and insert, swap and insert alone on asymmetric
+			int roll = random.nextInt(4);
+			kind = symmetric && roll < 2 ? 0 : roll % 2 + 1;
+
+			int x = next(a);
+			if (c == x) {
+				return Long.MAX_VALUE;
+			}
+			switch (kind) {
+				case 0:
+					return twoOptDelta(x);
+				case 1:
+					return swapDelta(x, c);
+				default:
+					return insertDelta(x);
+			}
+		}
+
+		/**
+		 * Replaces a-x and c-next(c) with a-c and x-next(c)
+		 */
+		private long twoOptDelta(int x) {
+			int d = next(c);
+			if (d == a) {
+				return Long.MAX_VALUE;
+			}
+			return (long) w(a, c) + w(x, d) - w(a, x) - w(c, d);
+		}
+
+		/**
+		 * Swaps u and v, directed edges so it holds on asymmetric matrices
+		 */
+		private long swapDelta(int u, int v) {
+			int pu = prev(u);
+			int nu = next(u);
+			int pv = prev(v);
+			int nv = next(v);
+			if (nu == v) {
+				return (long) w(pu, v) + w(v, u) + w(u, nv) - w(pu, u) - w(u, v) - w(v, nv);
+			}
+			if (nv == u) {
+				return (long) w(pv, u) + w(u, v) + w(v, nu) - w(pv, v) - w(v, u) - w(u, nu);
+			}
+			return (long) w(pu, v) + w(v, nu) + w(pv, u) + w(u, nv) - w(pu, u) - w(u, nu) - w(pv, v) - w(v, nv);
+		}
+
+		/**
+		 * Takes c out and puts it between a and x
+		 */
+		private long insertDelta(int x) {
+			int pc = prev(c);
+			int nc = next(c);
+			return (long) w(pc, nc) - w(pc, c) - w(c, nc) + w(a, c) + w(c, x) - w(a, x);
+		}
+
+		private void apply() {
+			int x = next(a);
+			switch (kind) {
+				case 0:
+					reverse(pos[x], pos[c]);
+					break;
+				case 1:
+					int px = pos[x];
+					int pc = pos[c];
+					tour[px] = c;
+					pos[c] = px;
+					tour[pc] = x;
+					pos[x] = pc;
+					break;
+				default:
+					insert();
+					break;
+			}
+		}
+
+		/**
+		 * Moves c to just after a, shifting the cities on the shorter way between
+		 */
+		private void insert() {
+			int from = pos[c];
+			int forward = (pos[a] - from + size) % size;
+			int backward = (from - pos[a] - 1 + size) % size;
+			if (forward <= backward) {
+				// c, ..., a becomes ..., a, c
+				int p = from;
+				for (int s = 0; s < forward; s++) {
+					int q = p + 1 == size ? 0 : p + 1;
+					tour[p] = tour[q];
+					pos[tour[p]] = p;
+					p = q;
+				}
+				tour[p] = c;
+				pos[c] = p;
+			} else {
+				// a, x, ..., c becomes a, c, x, ...
+				int p = from;
+				for (int s = 0; s < backward; s++) {
+					int q = p == 0 ? size - 1 : p - 1;
+					tour[p] = tour[q];
+					pos[tour[p]] = p;
+					p = q;
+				}
+				tour[p] = c;
+				pos[c] = p;
+			}
+		}
+
+		/**
+		 * Reverses the tour from position i forward to position j, or the rest of
+		 * the cycle if that is shorter, which gives the same tour on a symmetric
+		 * matrix
+		 */
+		private void reverse(int i, int j) {
+			int length = (j - i + size) % size + 1;
+			if (length * 2 > size) {
+				int temp = (j + 1) % size;
+				j = (i - 1 + size) % size;
+				i = temp;
+				length = size - length;
+			}
+			for (int swaps = length / 2; swaps > 0; swaps--) {
+				int u = tour[i];
+				int v = tour[j];
+				tour[i] = v;
+				pos[v] = i;
+				tour[j] = u;
+				pos[u] = j;
+				i = i + 1 == size ? 0 : i + 1;
+				j = j == 0 ? size - 1 : j - 1;
+			}
+		}
+
+		private int next(int city) {
+			int p = pos[city] + 1;
+			return tour[p == size ? 0 : p];
+		}
+
+		private int prev(int city) {
+			int p = pos[city] - 1;
+			return tour[p < 0 ? size - 1 : p];
+		}
+
+		private int w(int from, int to) {
+			return distances.getWeight(from, to);
+		}
+	}
+
+	/**
+	 * Gets the temperature part way through a restart
+	 *
+	 * @param progress 0 at the start to 1 at the end
+	 */
+	private double temperature(double first, double last, double progress) {
+		switch (schedule) {
+			case LINEAR:
+				return first + (last - first) * progress;
+			case LUNDY_MEES:
+				return 1.0 / (1.0 / first + (1.0 / last - 1.0 / first) * progress);
+			default:
+				return first * Math.pow(last / first, progress);
+		}
+	}
+
+	/**
+	 * Gets a copy of the best tour, depot at both ends
+	 *
+	 * @return bestTour
+	 */
+	public int[] getBestTour() {
+		return bestTour.clone();
+	}
+
+	public int getBestCost() {
+		return (int) bestCost;
+	}
+
+	/**
+	 * Gets the number of moves priced by every restart of the last solve
+	 *
+	 * @return movesMade
+	 */
+	public long getMovesMade() {
+		return movesMade;
+	}
+
+	/**
+	 * Gets the number of moves taken, downhill or uphill
+	 *
+	 * @return movesAccepted
+	 */
+	public long getMovesAccepted() {
+		return movesAccepted;
+	}
+
+	// Mutator functions
+
+	public int getRestarts() {
+		return restarts;
+	}
+
+	/**
+	 * Sets the number of independent restarts, one per core unless set
+	 *
+	 * @param restarts at least 1
+	 */
+	public void setRestarts(int restarts) {
+		if (restarts < 1) {
+			throw new IllegalArgumentException("Must run at least one restart, not " + restarts);
+		}
+		this.restarts = restarts;
+	}
+
+	public long getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * Sets the number of moves each restart prices, 1000 per city unless set
+	 *
+	 * @param iterations
+	 */
+	public void setIterations(long iterations) {
+		if (iterations < 0) {
+			throw new IllegalArgumentException("Iterations must not be negative: " + iterations);
+		}
+		this.iterations = iterations;
+	}
+
+	public CoolingSchedule getCoolingSchedule() {
+		return schedule;
+	}
+
+	public void setCoolingSchedule(CoolingSchedule schedule) {
+		if (schedule == null) {
+			throw new IllegalArgumentException("Cooling schedule must not be null");
+		}
+		this.schedule = schedule;
+	}
+
+	public double getInitialTemperature() {
+		return initialTemperature;
+	}
+
+	/**
+	 * Sets the temperature each restart starts at
+	 *
+	 * @param initialTemperature or 0 for the average uphill move of the
+	 *                           starting tour, at most its average edge
+	 */
+	public void setInitialTemperature(double initialTemperature) {
+		if (!(initialTemperature >= 0) || Double.isInfinite(initialTemperature)) {
+			throw new IllegalArgumentException("Temperature must be finite and not negative: " + initialTemperature);
+		}
+		this.initialTemperature = initialTemperature;
+	}
+
+	public double getFinalTemperature() {
+		return finalTemperature;
+	}
+
+	/**
+	 * Sets the temperature each restart ends at, at most the initial one
+	 *
+	 * @param finalTemperature or 0 for a thousandth of the initial temperature
+	 */
+	public void setFinalTemperature(double finalTemperature) {
+		if (!(finalTemperature >= 0) || Double.isInfinite(finalTemperature)) {
+			throw new IllegalArgumentException("Temperature must be finite and not negative: " + finalTemperature);
+		}
+		this.finalTemperature = finalTemperature;
+	}
+
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	/**
+	 * Sets whether restarts run on the common fork-join pool. Without a time
+	 * limit the result is the same either way.
+	 *
+	 * @param parallel
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Sets the longest a solve may run before it stops with the best tour so far
+	 *
+	 * @param timeLimit or null for no limit
+	 */
+	public void setTimeLimit(Duration timeLimit) {
+		StopCondition.check(timeLimit);
+		this.timeLimit = timeLimit;
+	}
+
+	public Duration getTimeLimit() {
+		return timeLimit;
+	}
+
+	/**
+	 * Sets a token that stops a solve early with the best tour so far
+	 *
+	 * @param cancellationToken or null
+	 */
+	public void setCancellationToken(CancellationToken cancellationToken) {
+		this.cancellationToken = cancellationToken;
+	}
+
+	/**
+	 * Sets a listener told of every new best tour as it is found, from whichever
+	 * restart found it
+	 *
+	 * @param listener or null
+	 */
+	public void setIncumbentListener(IncumbentListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Checks if the last solve stopped at the time limit or on cancellation,
+	 * rather than after every move
+	 *
+	 * @return stoppedEarly
+	 */
+	public boolean isStoppedEarly() {
+		return stopped;
+	}
+
+	// Incumbent counts of the last solve, see IncumbentTracker
+	public long getIncumbentUpdates() {
+		return incumbents.getUpdates();
+	}
+
+	public long getTimeToFirstSolution() {
+		return incumbents.getTimeToFirst();
+	}
+
+	public long getTimeToBestSolution() {
+		return incumbents.getTimeToBest();
+	}
+}
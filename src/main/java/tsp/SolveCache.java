@@ -0,0 +1,275 @@
+package TSP;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Results of earlier solves, keyed by the fingerprint of the matrix, the depot
+ * and the algorithm with its options. A repeated matrix is answered with the
+ * cached tour instead of solving again, whichever object holds the distances.
+ *
+ * Tours are kept as city IDs and turned back into a {@link TspResult} with the
+ * caller's cities, so a hit costs a hash lookup and one pass over the tour. That
+ * pass also checks the cached cost against the matrix, so two matrices whose
+ * fingerprints collide are solved rather than mixed up.
+ *
+ * The least recently used entry is dropped once the cache is full, and entries
+ * older than the time to live are dropped when they are next looked up. A miss
+ * solves without holding a lock, so two threads missing on the same key at once
+ * may both solve it.
+ */
+public class SolveCache implements SolveCacheMXBean {
+	private final int maxEntries;
+	private final Duration timeToLive; // null for no limit
+	private final long timeToLiveNanos;
+
+	// Least recently used first. Guarded by itself.
+	private final Map<Key, Entry> entries;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder expirations = new LongAdder();
+
+	/**
+	 * Matrix, depot and algorithm a result was solved for
+	 */
+	private static final class Key {
+		private final long fingerprint;
+		private final int size;
+		private final int depot;
+		private final String options;
+
+		Key(long fingerprint, int size, int depot, String options) {
+			this.fingerprint = fingerprint;
+			this.size = size;
+			this.depot = depot;
+			this.options = options;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) o;
+			return fingerprint == other.fingerprint && size == other.size && depot == other.depot
+					&& options.equals(other.options);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(fingerprint, size, depot, options);
+		}
+	}
+
+	/**
+	 * Cached result without its City objects
+	 */
+	private static final class Entry {
+		private final String algorithm;
+		private final int[] tour; // null if no route was found
+		private final int cost;
+		private final long explored;
+		private final long pruned;
+		private final boolean complete;
+		private final int lowerBound;
+		private final long createdAt; // System.nanoTime()
+
+		Entry(TspResult result, long createdAt) {
+			this.algorithm = result.getAlgorithm();
+			this.tour = result.isFound() ? result.getTour() : null;
+			this.cost = result.getCost();
+			this.explored = result.getExplored();
+			this.pruned = result.getPruned();
+			this.complete = result.isComplete();
+			this.lowerBound = result.getLowerBound();
+			this.createdAt = createdAt;
+		}
+	}
+
+	/**
+	 * Constructor with variables
+	 *
+	 * @param maxEntries most results to keep
+	 * @param timeToLive longest a result is kept, or null for no limit
+	 */
+	public SolveCache(int maxEntries, Duration timeToLive) {
+		if (maxEntries < 1) {
+			throw new IllegalArgumentException("Cache must hold at least one result, not " + maxEntries);
+		}
+		if (timeToLive != null && timeToLive.isNegative()) {
+			throw new IllegalArgumentException("Time to live must not be negative: " + timeToLive);
+		}
+		this.maxEntries = maxEntries;
+		this.timeToLive = timeToLive;
+		this.timeToLiveNanos = timeToLive == null ? Long.MAX_VALUE : saturatedNanos(timeToLive);
+		this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+				if (size() > SolveCache.this.maxEntries) {
+					evictions.increment();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	private static long saturatedNanos(Duration duration) {
+		try {
+			return duration.toNanos();
+		} catch (ArithmeticException e) {
+			return Long.MAX_VALUE;
+		}
+	}
+
+	/**
+	 * Gets a cached result for the matrix, or solves and caches it
+	 *
+	 * @param distances
+	 * @param cities    cities indexed by ID, for the returned route
+	 * @param depot
+	 * @param options   algorithm and every option that changes its result
+	 * @param solve     run on a miss
+	 * @return result
+	 */
+	public TspResult computeIfAbsent(DistanceMatrix distances, List<City> cities, int depot, String options,
+			Supplier<TspResult> solve) {
+		Key key = new Key(distances.getFingerprint(), distances.getSize(), depot, options);
+		TspResult cached = get(key, distances, cities);
+		if (cached != null) {
+			return cached;
+		}
+		TspResult result = solve.get();
+		put(key, result);
+		return result;
+	}
+
+	/**
+	 * Gets a cached result for the matrix
+	 *
+	 * @param distances
+	 * @param cities    cities indexed by ID, for the returned route
+	 * @param depot
+	 * @param options   algorithm and every option that changes its result
+	 * @return result, or null on a miss
+	 */
+	public TspResult get(DistanceMatrix distances, List<City> cities, int depot, String options) {
+		return get(new Key(distances.getFingerprint(), distances.getSize(), depot, options), distances, cities);
+	}
+
+	/**
+	 * Caches a result for the matrix, replacing any earlier one
+	 *
+	 * @param distances
+	 * @param depot
+	 * @param options   algorithm and every option that changes its result
+	 * @param result
+	 */
+	public void put(DistanceMatrix distances, int depot, String options, TspResult result) {
+		put(new Key(distances.getFingerprint(), distances.getSize(), depot, options), result);
+	}
+
+	private TspResult get(Key key, DistanceMatrix distances, List<City> cities) {
+		Entry entry;
+		synchronized (entries) {
+			entry = entries.get(key);
+			if (entry != null && System.nanoTime() - entry.createdAt >= timeToLiveNanos) {
+				entries.remove(key);
+				expirations.increment();
+				entry = null;
+			}
+		}
+		if (entry == null || !matches(entry, distances)) {
+			misses.increment();
+			return null;
+		}
+		hits.increment();
+		return TspResult.of(entry.algorithm, entry.tour, cities, entry.cost, entry.explored, entry.pruned,
+				entry.complete, entry.lowerBound);
+	}
+
+	private void put(Key key, TspResult result) {
+		Entry entry = new Entry(result, System.nanoTime());
+		synchronized (entries) {
+			entries.put(key, entry);
+		}
+	}
+
+	/**
+	 * Checks the cached tour still costs the cached cost on this matrix
+	 */
+	private static boolean matches(Entry entry, DistanceMatrix distances) {
+		if (entry.tour == null) {
+			return true;
+		}
+		long cost = 0;
+		for (int i = 0; i < entry.tour.length - 1; i++) {
+			cost += distances.getWeight(entry.tour[i], entry.tour[i + 1]);
+		}
+		return cost == entry.cost;
+	}
+
+	@Override
+	public long getHits() {
+		return hits.sum();
+	}
+
+	@Override
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	@Override
+	public double getHitRate() {
+		long hitCount = hits.sum();
+		long lookups = hitCount + misses.sum();
+		return lookups == 0 ? 0.0 : (double) hitCount / lookups;
+	}
+
+	@Override
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	@Override
+	public long getExpirations() {
+		return expirations.sum();
+	}
+
+	@Override
+	public int getSize() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	@Override
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	public Duration getTimeToLive() {
+		return timeToLive;
+	}
+
+	@Override
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "SolveCache{" + "size=" + getSize() + ", maxEntries=" + maxEntries + ", hits=" + getHits()
+				+ ", misses=" + getMisses() + ", evictions=" + getEvictions() + ", expirations=" + getExpirations()
+				+ '}';
+	}
+}
@@ -0,0 +1,39 @@
+package TSP;
+
+/**
+ * Management interface of {@link SolveCache}, so its hit rate can be read from
+ * JConsole or any other JMX client
+ */
+public interface SolveCacheMXBean {
+	long getHits();
+
+	long getMisses();
+
+	/**
+	 * Gets the share of lookups answered from the cache
+	 *
+	 * @return hits / (hits + misses), 0 before any lookup
+	 */
+	double getHitRate();
+
+	/**
+	 * Gets the number of entries dropped to stay within the size limit
+	 *
+	 * @return evictions
+	 */
+	long getEvictions();
+
+	/**
+	 * Gets the number of entries dropped on lookup for being older than the time
+	 * to live
+	 *
+	 * @return expirations
+	 */
+	long getExpirations();
+
+	int getSize();
+
+	int getMaxEntries();
+
+	void clear();
+}
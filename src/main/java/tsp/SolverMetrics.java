@@ -0,0 +1,157 @@
+package TSP;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * {@link SolverStats} for each algorithm, created on the first solve that uses
+ * it. Hand one to {@link TspSolver} to turn metrics on; without one it skips
+ * its own clock reads, though the solver classes still time their incumbents.
+ *
+ * Once registered with an MBean server, every algorithm's stats appear as an
+ * MXBean named TSP:type=SolverStats,algorithm=..., including algorithms first
+ * used after registering.
+ */
+public class SolverMetrics {
+	public static final String JMX_DOMAIN = "TSP";
+
+	private final ConcurrentMap<String, SolverStats> stats = new ConcurrentHashMap<>();
+	private MBeanServer server; // null until registered, guarded by this
+
+	/**
+	 * Gets the stats of an algorithm, creating them on first use
+	 *
+	 * @param algorithm
+	 * @return stats
+	 */
+	public SolverStats getStats(String algorithm) {
+		SolverStats existing = stats.get(algorithm);
+		if (existing != null) {
+			return existing;
+		}
+		SolverStats created = new SolverStats(algorithm);
+		existing = stats.putIfAbsent(algorithm, created);
+		if (existing != null) {
+			return existing;
+		}
+
+		// Locked so registering cannot race registerWith or unregister
+		synchronized (this) {
+			if (server != null) {
+				try {
+					register(server, created);
+				} catch (JMException e) {
+					throw new IllegalStateException("Could not register the stats of " + algorithm, e);
+				}
+			}
+		}
+		return created;
+	}
+
+	/**
+	 * Adds the counts of one finished solve to its algorithm's stats
+	 *
+	 * @param algorithm
+	 * @param latencyNanos
+	 * @param expanded
+	 * @param pruned
+	 * @param routeCosts
+	 * @param incumbents
+	 * @param timeToFirstNanos negative if no route was found
+	 * @param timeToBestNanos  negative if no route was found
+	 */
+	public void record(String algorithm, long latencyNanos, long expanded, long pruned, long routeCosts,
+			long incumbents, long timeToFirstNanos, long timeToBestNanos) {
+		getStats(algorithm).record(latencyNanos, expanded, pruned, routeCosts, incumbents, timeToFirstNanos,
+				timeToBestNanos);
+	}
+
+	/**
+	 * Gets the stats of every algorithm used so far, sorted by algorithm
+	 *
+	 * @return stats
+	 */
+	public List<SolverStats> getAll() {
+		List<SolverStats> all = new ArrayList<>(stats.values());
+		all.sort((a, b) -> a.getAlgorithm().compareTo(b.getAlgorithm()));
+		return Collections.unmodifiableList(all);
+	}
+
+	/**
+	 * Registers the stats of every algorithm, now and as they are created, as
+	 * MXBeans
+	 *
+	 * @param mBeanServer for example ManagementFactory.getPlatformMBeanServer()
+	 * @throws JMException if a name is already registered
+	 */
+	public synchronized void registerWith(MBeanServer mBeanServer) throws JMException {
+		if (server != null) {
+			throw new IllegalStateException("Already registered with an MBean server");
+		}
+		server = mBeanServer;
+		for (SolverStats s : stats.values()) {
+			register(mBeanServer, s);
+		}
+	}
+
+	/**
+	 * Removes every MXBean added by {@link #registerWith}
+	 *
+	 * @throws JMException
+	 */
+	public synchronized void unregister() throws JMException {
+		if (server == null) {
+			return;
+		}
+		for (SolverStats s : stats.values()) {
+			ObjectName name = objectName(s.getAlgorithm());
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+		}
+		server = null;
+	}
+
+	private static void register(MBeanServer mBeanServer, SolverStats s) throws JMException {
+		ObjectName name = objectName(s.getAlgorithm());
+		if (!mBeanServer.isRegistered(name)) {
+			mBeanServer.registerMBean(s, name);
+		}
+	}
+
+	/**
+	 * Gets the JMX name of an algorithm's stats
+	 *
+	 * @param algorithm
+	 * @return name
+	 * @throws JMException
+	 */
+	public static ObjectName objectName(String algorithm) throws JMException {
+		return new ObjectName(JMX_DOMAIN + ":type=SolverStats,algorithm=" + ObjectName.quote(algorithm));
+	}
+
+	/**
+	 * Clears the stats of every algorithm
+	 */
+	public void reset() {
+		for (SolverStats s : stats.values()) {
+			s.reset();
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (SolverStats s : getAll()) {
+			sb.append(s).append('\n');
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,162 @@
+package TSP;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms of every solve by one algorithm. Solvers count
+ * into plain fields while they run and add the totals here once at the end, so
+ * the search itself pays nothing for the metrics.
+ */
+public class SolverStats implements SolverStatsMXBean {
+	private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+	private final String algorithm;
+	private final LongAdder solves = new LongAdder();
+	private final LongAdder nodesExpanded = new LongAdder();
+	private final LongAdder nodesPruned = new LongAdder();
+	private final LongAdder routeCostCalls = new LongAdder();
+	private final LongAdder incumbentUpdates = new LongAdder();
+	private final LatencyHistogram latency = new LatencyHistogram();
+	private final LatencyHistogram timeToFirstSolution = new LatencyHistogram();
+	private final LatencyHistogram timeToBestSolution = new LatencyHistogram();
+
+	/**
+	 * Constructor with variables
+	 *
+	 * @param algorithm
+	 */
+	public SolverStats(String algorithm) {
+		this.algorithm = algorithm;
+	}
+
+	/**
+	 * Adds the counts of one finished solve
+	 *
+	 * @param latencyNanos     time the whole solve took
+	 * @param expanded         search nodes expanded
+	 * @param pruned           search nodes cut off by a bound
+	 * @param routeCosts       times a whole route was costed
+	 * @param incumbents       times the best route so far improved
+	 * @param timeToFirstNanos time until the first route was found, negative if
+	 *                         none was
+	 * @param timeToBestNanos  time until the best route was found, negative if
+	 *                         none was
+	 */
+	public void record(long latencyNanos, long expanded, long pruned, long routeCosts, long incumbents,
+			long timeToFirstNanos, long timeToBestNanos) {
+		solves.increment();
+		nodesExpanded.add(expanded);
+		nodesPruned.add(pruned);
+		routeCostCalls.add(routeCosts);
+		incumbentUpdates.add(incumbents);
+		latency.record(latencyNanos);
+		if (timeToFirstNanos >= 0) {
+			timeToFirstSolution.record(timeToFirstNanos);
+		}
+		if (timeToBestNanos >= 0) {
+			timeToBestSolution.record(timeToBestNanos);
+		}
+	}
+
+	@Override
+	public void reset() {
+		solves.reset();
+		nodesExpanded.reset();
+		nodesPruned.reset();
+		routeCostCalls.reset();
+		incumbentUpdates.reset();
+		latency.reset();
+		timeToFirstSolution.reset();
+		timeToBestSolution.reset();
+	}
+
+	// Mutator functions
+
+	@Override
+	public String getAlgorithm() {
+		return algorithm;
+	}
+
+	@Override
+	public long getSolves() {
+		return solves.sum();
+	}
+
+	@Override
+	public long getNodesExpanded() {
+		return nodesExpanded.sum();
+	}
+
+	@Override
+	public long getNodesPruned() {
+		return nodesPruned.sum();
+	}
+
+	@Override
+	public double getPruneRate() {
+		long pruned = getNodesPruned();
+		long total = getNodesExpanded() + pruned;
+		return total == 0 ? 0.0 : (double) pruned / total;
+	}
+
+	@Override
+	public long getRouteCostCalls() {
+		return routeCostCalls.sum();
+	}
+
+	@Override
+	public long getIncumbentUpdates() {
+		return incumbentUpdates.sum();
+	}
+
+	public LatencyHistogram getLatency() {
+		return latency;
+	}
+
+	public LatencyHistogram getTimeToFirstSolution() {
+		return timeToFirstSolution;
+	}
+
+	public LatencyHistogram getTimeToBestSolution() {
+		return timeToBestSolution;
+	}
+
+	@Override
+	public double getLatencyMeanMillis() {
+		return latency.getMean() / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public double getLatencyP50Millis() {
+		return latency.getValueAtPercentile(50) / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public double getLatencyP99Millis() {
+		return latency.getValueAtPercentile(99) / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public double getLatencyMaxMillis() {
+		return latency.getMax() / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public double getTimeToFirstSolutionP50Millis() {
+		return timeToFirstSolution.getValueAtPercentile(50) / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public double getTimeToBestSolutionP50Millis() {
+		return timeToBestSolution.getValueAtPercentile(50) / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: solves=%d nodes=%d pruned=%d (%.1f%%) routeCosts=%d incumbents=%d"
+				+ " latency p50=%.3fms p99=%.3fms max=%.3fms first p50=%.3fms best p50=%.3fms", algorithm,
+				getSolves(), getNodesExpanded(), getNodesPruned(), 100 * getPruneRate(), getRouteCostCalls(),
+				getIncumbentUpdates(), getLatencyP50Millis(), getLatencyP99Millis(), getLatencyMaxMillis(),
+				getTimeToFirstSolutionP50Millis(), getTimeToBestSolutionP50Millis());
+	}
+}
@@ -0,0 +1,44 @@
+package TSP;
+
+/**
+ * Management interface of {@link SolverStats}, so the counters and latencies of
+ * each algorithm can be read from JConsole or any other JMX client. Times are in
+ * milliseconds.
+ */
+public interface SolverStatsMXBean {
+	String getAlgorithm();
+
+	long getSolves();
+
+	long getNodesExpanded();
+
+	long getNodesPruned();
+
+	/**
+	 * Gets the share of search nodes cut off by a bound
+	 *
+	 * @return pruned / (expanded + pruned), 0 before any node
+	 */
+	double getPruneRate();
+
+	long getRouteCostCalls();
+
+	long getIncumbentUpdates();
+
+	double getLatencyMeanMillis();
+
+	double getLatencyP50Millis();
+
+	double getLatencyP99Millis();
+
+	double getLatencyMaxMillis();
+
+	double getTimeToFirstSolutionP50Millis();
+
+	double getTimeToBestSolutionP50Millis();
+
+	/**
+	 * Clears every counter and histogram
+	 */
+	void reset();
+}
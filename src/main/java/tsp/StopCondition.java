@@ -0,0 +1,64 @@
+package TSP;
+
+import java.time.Duration;
+
+/**
+ * Time limit and cancellation token of one solve. Cheap steps such as costing
+ * one tour check it every {@link #CHECK_INTERVAL} steps, as reading the clock on
+ * every one would slow them down. Branch and bound nodes try a child per city,
+ * so they check it every CHECK_INTERVAL / size nodes.
+ */
+final class StopCondition {
+	// Power of two, so a step count can be checked with a mask
+	static final int CHECK_INTERVAL = 1024;
+
+	static final StopCondition NEVER = new StopCondition(false, 0L, null);
+
+	private final boolean hasDeadline;
+	private final long deadline; // System.nanoTime() at which to stop
+	private final CancellationToken token;
+
+	private StopCondition(boolean hasDeadline, long deadline, CancellationToken token) {
+		this.hasDeadline = hasDeadline;
+		this.deadline = deadline;
+		this.token = token;
+	}
+
+	/**
+	 * Starts the clock on a solve
+	 *
+	 * @param timeLimit longest the solve may run, or null for no limit
+	 * @param token     may be null
+	 * @return condition
+	 */
+	static StopCondition start(Duration timeLimit, CancellationToken token) {
+		if (timeLimit == null) {
+			return token == null ? NEVER : new StopCondition(false, 0L, token);
+		}
+		// Limits too long for a long of nanoseconds never run out
+		if (timeLimit.getSeconds() >= Long.MAX_VALUE / 1_000_000_000L / 2) {
+			return new StopCondition(false, 0L, token);
+		}
+		return new StopCondition(true, System.nanoTime() + timeLimit.toNanos(), token);
+	}
+
+	/**
+	 * Rejects a negative time limit
+	 *
+	 * @param timeLimit may be null
+	 */
+	static void check(Duration timeLimit) {
+		if (timeLimit != null && timeLimit.isNegative()) {
+			throw new IllegalArgumentException("Time limit must not be negative: " + timeLimit);
+		}
+	}
+
+	/**
+	 * Checks if the time limit has run out or the token was cancelled
+	 *
+	 * @return reached
+	 */
+	boolean isReached() {
+		return (token != null && token.isCancelled()) || (hasDeadline && System.nanoTime() - deadline >= 0);
+	}
+}
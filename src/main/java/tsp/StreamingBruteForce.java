@@ -0,0 +1,299 @@
+package TSP;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Brute force that walks every permutation in place with Heap's algorithm
+ * instead of storing them all like {@link TSP#bruteForce()}. Each tour is costed
+ * as soon as it is generated and only the running best (optionally the best k)
+ * are kept, so memory does not grow with the number of permutations.
+ *
+ * On a symmetric matrix a tour costs the same as its mirror image, so only the
+ * tours whose first city after the depot is lower than their last are costed,
+ * and the best k never holds both a tour and its mirror image.
+ *
+ * A time limit or cancellation token stops the walk early, keeping the best
+ * tours seen so far.
+ */
+public class StreamingBruteForce {
+	private final int size;
+	private final int depot;
+	private final int[] matrix; // Row-major copy of the distances
+	private final int[] order; // Every city but the depot, permuted in place
+	private final int[] swaps; // Heap's algorithm loop counters
+	private final boolean symmetric;
+
+	// Best k tours ascending by cost, each closed with the depot at both ends
+	private final int[][] topTours;
+	private final long[] topCosts;
+	private int topCount;
+
+	private Duration timeLimit; // null for no limit
+	private CancellationToken cancellationToken;
+	private IncumbentListener listener;
+
+	private long permutations;
+	private long toursCosted;
+	private boolean stopped; // Time limit ran out or the solve was cancelled
+	private final IncumbentTracker incumbents = new IncumbentTracker();
+
+	/**
+	 * Constructor using the last city as the depot and keeping only the best tour
+	 *
+	 * @param distances
+	 */
+	public StreamingBruteForce(DistanceMatrix distances) {
+		this(distances, distances.getSize() - 1, 1);
+	}
+
+	/**
+	 * Constructor with variables
+	 *
+	 * @param distances
+	 * @param depot     city the tour starts and ends at
+	 * @param topK      number of cheapest tours to keep
+	 */
+	public StreamingBruteForce(DistanceMatrix distances, int depot, int topK) {
+		this.size = distances.getSize();
+		if (depot < 0 || depot >= size) {
+			throw new IllegalArgumentException("Depot " + depot + " is not a city of a " + size + " city matrix");
+		}
+		if (topK < 1) {
+			throw new IllegalArgumentException("Must keep at least one tour, not " + topK);
+		}
+		this.depot = depot;
+		this.matrix = new int[size * size];
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				matrix[i * size + j] = distances.getWeight(i, j);
+			}
+		}
+		this.symmetric = distances.isSymmetric();
+		this.order = new int[size - 1];
+		this.swaps = new int[size - 1];
+		this.topTours = new int[topK][size + 1];
+		this.topCosts = new long[topK];
+	}
+
+	/**
+	 * Evaluates every tour starting and ending at the depot, or as many as it can
+	 * before the time limit runs out or the token is cancelled. At least one tour
+	 * is always evaluated.
+	 *
+	 * @return cost of the shortest route found
+	 */
+	public int solve() {
+		incumbents.start();
+		StopCondition stop = StopCondition.start(timeLimit, cancellationToken);
+		int m = order.length;
+		for (int i = 0, city = 0; city < size; city++) {
+			if (city != depot) {
+				order[i++] = city;
+			}
+		}
+		Arrays.fill(swaps, 0);
+		topCount = 0;
+		permutations = 0;
+		toursCosted = 0;
+
+		// Iterative Heap's algorithm, each step is one swap away from the last
+		evaluate();
+		stopped = stop.isReached();
+		int i = 1;
+		while (i < m && !stopped) {
+			if (swaps[i] < i) {
+				swap(i % 2 == 0 ? 0 : swaps[i], i);
+				evaluate();
+				if ((permutations & (StopCondition.CHECK_INTERVAL - 1)) == 0 && stop.isReached()) {
+					stopped = true;
+				}
+				swaps[i]++;
+				i = 1;
+			} else {
+				swaps[i] = 0;
+				i++;
+			}
+		}
+
+		return getBestCost();
+	}
+
+	private void swap(int a, int b) {
+		int temp = order[a];
+		order[a] = order[b];
+		order[b] = temp;
+	}
+
+	/**
+	 * Costs the current permutation and keeps it if it is among the best k
+	 */
+	private void evaluate() {
+		permutations++;
+		if (symmetric && order.length > 1 && order[0] > order[order.length - 1]) {
+			// Mirror image of a tour that is costed
+			return;
+		}
+		toursCosted++;
+
+		int current = depot;
+		long cost = 0;
+		for (int city : order) {
+			cost += matrix[current * size + city];
+			current = city;
+		}
+		cost += matrix[current * size + depot];
+
+		int k = topCosts.length;
+		if (topCount == k && cost >= topCosts[k - 1]) {
+			return;
+		}
+
+		// Insertion into the sorted top k, reusing the evicted tour's array
+		int pos = topCount < k ? topCount++ : k - 1;
+		int[] slot = topTours[pos];
+		while (pos > 0 && topCosts[pos - 1] > cost) {
+			topCosts[pos] = topCosts[pos - 1];
+			topTours[pos] = topTours[pos - 1];
+			pos--;
+		}
+		topCosts[pos] = cost;
+		topTours[pos] = slot;
+		slot[0] = depot;
+		System.arraycopy(order, 0, slot, 1, order.length);
+		slot[size] = depot;
+
+		if (pos == 0) {
+			improved(slot, cost);
+		}
+	}
+
+	/**
+	 * Counts a new best tour and reports it to the listener, if there is one
+	 */
+	private void improved(int[] tour, long cost) {
+		incumbents.improved();
+		if (listener != null) {
+			listener.improved(tour.clone(), (int) cost);
+		}
+	}
+
+	// Mutator functions
+
+	/**
+	 * Gets a copy of the best tour, depot at both ends
+	 *
+	 * @return bestTour
+	 */
+	public int[] getBestTour() {
+		return topTours[0].clone();
+	}
+
+	public int getBestCost() {
+		return (int) topCosts[0];
+	}
+
+	/**
+	 * Gets copies of the best k tours, cheapest first
+	 *
+	 * @return tours
+	 */
+	public int[][] getTopTours() {
+		int[][] tours = new int[topCount][];
+		for (int i = 0; i < topCount; i++) {
+			tours[i] = topTours[i].clone();
+		}
+		return tours;
+	}
+
+	/**
+	 * Gets the costs of the best k tours, cheapest first
+	 *
+	 * @return costs
+	 */
+	public int[] getTopCosts() {
+		int[] costs = new int[topCount];
+		for (int i = 0; i < topCount; i++) {
+			costs[i] = (int) topCosts[i];
+		}
+		return costs;
+	}
+
+	/**
+	 * Gets the number of permutations generated by the last run
+	 *
+	 * @return permutations
+	 */
+	public long getPermutations() {
+		return permutations;
+	}
+
+	/**
+	 * Gets the number of tours costed by the last run, half the permutations on a
+	 * symmetric matrix
+	 *
+	 * @return toursCosted
+	 */
+	public long getToursCosted() {
+		return toursCosted;
+	}
+
+	/**
+	 * Sets the longest a solve may run before it stops with the best tours so far
+	 *
+	 * @param timeLimit or null for no limit
+	 */
+	public void setTimeLimit(Duration timeLimit) {
+		StopCondition.check(timeLimit);
+		this.timeLimit = timeLimit;
+	}
+
+	public Duration getTimeLimit() {
+		return timeLimit;
+	}
+
+	/**
+	 * Sets a token that stops a solve early with the best tours so far
+	 *
+	 * @param cancellationToken or null
+	 */
+	public void setCancellationToken(CancellationToken cancellationToken) {
+		this.cancellationToken = cancellationToken;
+	}
+
+	/**
+	 * Sets a listener told of every new best tour as it is found
+	 *
+	 * @param listener or null
+	 */
+	public void setIncumbentListener(IncumbentListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Checks if the last solve evaluated every tour, rather than stopping at the
+	 * time limit or on cancellation
+	 *
+	 * @return complete
+	 */
+	public boolean isComplete() {
+		return !stopped;
+	}
+
+	// Incumbent counts of the last solve, see IncumbentTracker
+	public long getIncumbentUpdates() {
+		return incumbents.getUpdates();
+	}
+
+	public long getTimeToFirstSolution() {
+		return incumbents.getTimeToFirst();
+	}
+
+	public long getTimeToBestSolution() {
+		return incumbents.getTimeToBest();
+	}
+
+	public boolean isSymmetric() {
+		return symmetric;
+	}
+}
@@ -0,0 +1,81 @@
+package TSP;
+
+/**
+ * Weight for matrices where i -> j always costs the same as j -> i. Only the
+ * upper triangle and diagonal are stored, packed row by row, so it takes about
+ * half the memory of a full Weight.
+ *
+ * Both directions share one value, so every mutator keeps the matrix symmetric:
+ * setWeight(i, j) also sets j -> i.
+ */
+public class SymmetricWeight extends Weight {
+    // rowStart[i] + j is the index of i -> j for j >= i
+    private final int[] rowStart;
+
+    public SymmetricWeight(int size) {
+        super(size, (long) size * (size + 1) / 2);
+        this.rowStart = new int[size];
+        for (int i = 0; i < size; i++) {
+            // Rows before i hold size, size - 1, ... values, and row i starts at column i
+            rowStart[i] = (int) ((long) i * size - (long) i * (i + 1) / 2);
+        }
+    }
+
+    /**
+     * Constructor copying a symmetric matrix
+     *
+     * @param source
+     */
+    public SymmetricWeight(DistanceMatrix source) {
+        this(source.getSize());
+        for (int i = 0; i < source.getSize(); i++) {
+            for (int j = i; j < source.getSize(); j++) {
+                if (source.getWeight(i, j) != source.getWeight(j, i)) {
+                    throw new IllegalArgumentException("Matrix is not symmetric at " + i + ", " + j);
+                }
+                setWeight(i, j, source.getWeight(i, j));
+            }
+        }
+    }
+
+    public SymmetricWeight(Integer[][] values) {
+        this(new Weight(values));
+    }
+
+    @Override
+    protected int index(int i, int j) {
+        return i <= j ? rowStart[i] + j : rowStart[j] + i;
+    }
+
+    /**
+     * Symmetric by construction, no need to compare the halves
+     *
+     * @return true
+     */
+    @Override
+    public boolean isSymmetric() {
+        return true;
+    }
+
+    /**
+     * Adds extra to every edge, each stored value once as it serves both
+     * directions
+     *
+     * @param extra
+     */
+    @Override
+    public void addExtraToAll(int extra) {
+        for (int i = 0; i < getSize(); i++) {
+            // Skip the diagonal, the first value of each row
+            for (int k = rowStart[i] + i + 1; k < rowStart[i] + getSize(); k++) {
+                values[k] += extra;
+            }
+        }
+        changed();
+    }
+
+    @Override
+    public long getMemoryFootprint() {
+        return super.getMemoryFootprint() + ARRAY_HEADER_BYTES + (long) Integer.BYTES * rowStart.length;
+    }
+}
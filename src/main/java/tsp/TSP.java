@@ -2,10 +2,12 @@ package TSP;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 public class TSP {
 	// Distance lookup table
-	public static Weight distances = new Weight(new Integer[][] {
+	public static DistanceMatrix distances = new SymmetricWeight(new Integer[][] {
 			{ 0, 129, 119, 43, 98, 98, 86, 52, 85, 44 },
 			{ 129, 0, 88, 149, 152, 57, 55, 141, 93, 86 },
 			{ 119, 88, 0, 97, 72, 72, 42, 72, 35, 92 },
@@ -18,9 +20,17 @@ public class TSP {
 			{ 44, 86, 92, 60, 90, 56, 44, 52, 47, 0 }
 	});
 
+	// Names of the built-in cities, later cities are called City10, City11, ...
+	private static final String[] CITY_NAMES = { "Vancouver", "Edmonton", "Calgary", "Winnipeg", "Hamilton",
+			"Toronto", "Kingston", "Ottawa", "Montreal", "Halifax" };
+	// Depot of the last city, whatever the size of the matrix
+	public static final int LAST_CITY = -1;
+
 	// Generic variables
 	// Populate a list with the cities
 	private static List<City> cities;
+	// City every route starts and ends at, or LAST_CITY
+	private static int depot = LAST_CITY;
 
 	// Brute force (BF) variables
 	private static List<Route> BFRoutePerms = new ArrayList<Route>();
@@ -32,6 +42,9 @@ public class TSP {
 	public static Integer BaBcheapestCost = Integer.MAX_VALUE;
 	public static Route BaBcheapestRoute;
 
+	// Counts and latencies of every solve run through these functions
+	public static final SolverMetrics metrics = new SolverMetrics();
+
 	/**
 	 * Main function
 	 *
@@ -42,6 +55,13 @@ public class TSP {
 		long time1 = 0;
 		long time2 = 0;
 		long time3 = 0;
+		long time4 = 0;
+		long time5 = 0;
+		long time6 = 0;
+		long time7 = 0;
+		long time8 = 0;
+		long time9 = 0;
+		long time10 = 0;
 		// Used to determine number of times the three algorithms should run
 		int numIterations = 1;
 
@@ -53,23 +73,79 @@ public class TSP {
 			System.out.println("\tTime:" + (System.currentTimeMillis() - time) + "ms");
 			time1 += System.currentTimeMillis() - time;
 
+			time = System.currentTimeMillis();
+			// Run streaming brute force
+			bruteForceStreaming();
+			System.out.println("\tTime:" + (System.currentTimeMillis() - time) + "ms");
+			time5 += System.currentTimeMillis() - time;
+
 			time = System.currentTimeMillis();
 			// Run nearest neighbour
 			nearestNeighbour();
 			System.out.println("\tTime:" + (System.currentTimeMillis() - time) + "ms");
 			time2 += System.currentTimeMillis() - time;
 
+			time = System.currentTimeMillis();
+			// Run nearest neighbour with local search
+			nearestNeighbourLocalSearch();
+			System.out.println("\tTime:" + (System.currentTimeMillis() - time) + "ms");
+			time7 += System.currentTimeMillis() - time;
+
+			time = System.currentTimeMillis();
+			// Run genetic algorithm
+			genetic();
+			System.out.println("\tTime:" + (System.currentTimeMillis() - time) + "ms");
+			time8 += System.currentTimeMillis() - time;
+
+			time = System.currentTimeMillis();
+			// Run Lin-Kernighan
+			linKernighan();
+			System.out.println("\tTime:" + (System.currentTimeMillis() - time) + "ms");
+			time9 += System.currentTimeMillis() - time;
+
+			time = System.currentTimeMillis();
+			// Run simulated annealing
+			simulatedAnnealing();
+			System.out.println("\tTime:" + (System.currentTimeMillis() - time) + "ms");
+			time10 += System.currentTimeMillis() - time;
+
 			time = System.currentTimeMillis();
 			// Run branch and bound
 			branchAndBound();
 			System.out.println("\tTime:" + (System.currentTimeMillis() - time) + "ms");
 			time3 += System.currentTimeMillis() - time;
+
+			time = System.currentTimeMillis();
+			// Run Held-Karp
+			heldKarp();
+			System.out.println("\tTime:" + (System.currentTimeMillis() - time) + "ms");
+			time6 += System.currentTimeMillis() - time;
+
+			time = System.currentTimeMillis();
+			// Run array based branch and bound
+			fastBranchAndBound();
+			System.out.println("\tTime:" + (System.currentTimeMillis() - time) + "ms");
+			time4 += System.currentTimeMillis() - time;
 		}
 
+		// Nodes expanded and pruned per lower bound
+		compareBoundingStrategies();
+		// Parallel against sequential branch and bound
+		compareParallelBranchAndBound(14, 5);
+
 		// Output average time for functions
 		System.out.println("\n\tBF:" + time1 / numIterations + "ms");
+		System.out.println("\tSBF:" + time5 / numIterations + "ms");
 		System.out.println("\tNN:" + time2 / numIterations + "ms");
+		System.out.println("\tNNLS:" + time7 / numIterations + "ms");
+		System.out.println("\tGA:" + time8 / numIterations + "ms");
+		System.out.println("\tLK:" + time9 / numIterations + "ms");
+		System.out.println("\tSA:" + time10 / numIterations + "ms");
 		System.out.println("\tBB:" + time3 / numIterations + "ms");
+		System.out.println("\tFBB:" + time4 / numIterations + "ms");
+		System.out.println("\tHK:" + time6 / numIterations + "ms");
+		// Output node counts and latencies per algorithm
+		System.out.print("\n" + metrics);
 		// Output rough memory usage (profiler is more accurate)
 		System.out.println(
 				"KB: " + (int) (Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()) / 1024);
@@ -84,205 +160,368 @@ public class TSP {
 		// Setup city list
 		resetLists();
 
-		// Remove stoke from permutations as always start and end
-		List<Integer> cityNums = new ArrayList<Integer>();
-		for (int i = 0; i < 9; i++) {
-			cityNums.add(i);
-		}
-
 		// Calculate
-		permute(new Route(), cityNums, true);
+		TspResult result = solver().bruteForce(BFRoutePerms);
 		// Output the number of permutations generated
 		System.out.println("\tComplete Permutations: " + BFRoutePerms.size());
-		findShortestPermutation(BFRoutePerms);
+		BFcheapestRoute = findRoute(BFRoutePerms, result);
+		BFcheapestCost = result.getCost();
+		System.out.println("\t" + BFcheapestRoute.toString() + "\n\tCost: " + BFcheapestCost);
+	}
+
+	/**
+	 * Calculates the shortest route by brute force without storing the
+	 * permutations, so memory stays constant as the number of cities grows
+	 */
+	public static void bruteForceStreaming() {
+		System.out.println("bruteForceStreaming:");
+		// Setup city list
+		resetLists();
+
+		TspResult result = solver().bruteForceStreaming();
+
+		// Output the number of permutations evaluated
+		System.out.println("\tComplete Permutations: " + result.getExplored());
+		BFcheapestRoute = result.toRoute();
+		BFcheapestCost = result.getCost();
+		System.out.println("\t" + BFcheapestRoute.toString() + "\n\tCost: " + BFcheapestCost);
 	}
 
 	/************************************************************************************************************/
 
 	/**
 	 * Calculates shortest route using nearest neighbour algorithm
+	 *
+	 * @return nearestRoute
 	 */
-	public static void nearestNeighbour() {
+	public static Route nearestNeighbour() {
 		System.out.println("nearestNeighbour:");
 		// Setup city list
 		resetLists();
 
-		Integer routeCost = 0;
+		Route nearestRoute = solver().nearestNeighbour().toRoute();
+
+		System.out.println("\t" + nearestRoute.toString() + "\n\tCost: " + getRouteCost(nearestRoute));
+		return nearestRoute;
+	}
+
+	/**
+	 * Calculates a route with nearest neighbour and then improves it with 2-opt and
+	 * Or-opt local search
+	 *
+	 * @return improvedRoute
+	 */
+	public static Route nearestNeighbourLocalSearch() {
+		System.out.println("nearestNeighbourLocalSearch:");
+		// Setup city list
+		resetLists();
+
+		Route improvedRoute = solver().nearestNeighbourLocalSearch().toRoute();
 
-		// New route with start as Stoke
-		Route nearestRoute = new Route(cities.get(9));
+		System.out.println("\t" + improvedRoute.toString() + "\n\tCost: " + getRouteCost(improvedRoute));
+		return improvedRoute;
+	}
 
-		while (nearestRoute.getRoute().size() != cities.size()) {
+	/**
+	 * Calculates a route with a genetic algorithm, improving every child with
+	 * local search
+	 *
+	 * @return geneticRoute
+	 */
+	public static Route genetic() {
+		System.out.println("genetic:");
+		// Setup city list
+		resetLists();
 
-			City neighbourCity = null;
-			int neighbourDistance = Integer.MAX_VALUE;
+		Route geneticRoute = solver().genetic().toRoute();
 
-			for (int i = 0; i < 9; i++) {
-				// If closer and not self and not visited
-				if (distances.getWeight(nearestRoute.getCurrentCity().getID(), i) < neighbourDistance
-						&& distances.getWeight(nearestRoute.getCurrentCity().getID(), i) != 0
-						&& cities.get(i).isVisited() == false) {
+		System.out.println("\t" + geneticRoute.toString() + "\n\tCost: " + getRouteCost(geneticRoute));
+		return geneticRoute;
+	}
 
-					// Update closest neighbour
-					neighbourCity = cities.get(i);
-					neighbourDistance = distances.getWeight(nearestRoute.getCurrentCity().getID(), i);
-				}
-			}
+	/**
+	 * Calculates a route with chained Lin-Kernighan
+	 *
+	 * @return lkRoute
+	 */
+	public static Route linKernighan() {
+		System.out.println("Lin-Kernighan:");
+		// Setup city list
+		resetLists();
 
-			if (neighbourCity != null) {
-				// Update current location, add to route, set current as visited
-				nearestRoute.getRoute().add(neighbourCity);
-				nearestRoute.setCurrentCity(neighbourCity);
-				neighbourCity.setVisited(true);
+		Route lkRoute = solver().linKernighan().toRoute();
 
-				// Add distance
-				routeCost += neighbourDistance;
-			}
-		}
+		System.out.println("\t" + lkRoute.toString() + "\n\tCost: " + getRouteCost(lkRoute));
+		return lkRoute;
+	}
 
-		// Add cost to return to Stoke
-		routeCost += distances.getWeight(nearestRoute.getStartCity().getID(), nearestRoute.getCurrentCity().getID());
+	/**
+	 * Calculates a route with simulated annealing
+	 *
+	 * @return saRoute
+	 */
+	public static Route simulatedAnnealing() {
+		System.out.println("simulatedAnnealing:");
+		// Setup city list
+		resetLists();
 
-		// Add stoke to route end
-		nearestRoute.getRoute().add(cities.get(9));
+		Route saRoute = solver().simulatedAnnealing().toRoute();
 
-		System.out.println("\t" + nearestRoute.toString() + "\n\tCost: " + routeCost);
+		System.out.println("\t" + saRoute.toString() + "\n\tCost: " + getRouteCost(saRoute));
+		return saRoute;
 	}
 
 	/************************************************************************************************************/
 
 	/**
-	 * Calculates the shortest route using branch and bound algorithm
+	 * Calculates the shortest route using branch and bound algorithm, starting
+	 * from the nearest neighbour route as the best so far
 	 */
 	public static void branchAndBound() {
+		// Setup city list, then build the warm start from the cities the search uses
+		resetLists();
+
+		runBranchAndBound(solver().nearestNeighbourRoute());
+	}
+
+	/**
+	 * Calculates the shortest route using branch and bound algorithm, starting
+	 * from a route found by any heuristic as the best so far
+	 *
+	 * @param initialRoute closed route starting and ending at the depot
+	 */
+	public static void branchAndBound(Route initialRoute) {
 		// Setup city list
 		resetLists();
 
-		// Remove halifax from permutations as always start and end
-		List<Integer> cityNums = new ArrayList<Integer>();
-		for (int i = 0; i < distances.getSize() - 1; i++) {
-			cityNums.add(i);
-		}
+		runBranchAndBound(initialRoute);
+	}
 
-		// Calculate
-		permute(new Route(), cityNums, false);
-		// Output the number of complete permutations generated NOTE: This is also the
-		// number of times the optimal route improved
-		// System.out.println("\tComplete Permutations: " + BaBRoutePerms.size());
-		// System.out.println("\t" + BaBcheapestRoute.toString() + "\n\tCost: " +
-		// getRouteCost(BaBcheapestRoute));
+	/**
+	 * Runs branch and bound on the current city list without resetting it
+	 *
+	 * @param initialRoute closed route starting and ending at the depot
+	 */
+	private static void runBranchAndBound(Route initialRoute) {
+		TspResult result = solver().branchAndBound(initialRoute, BaBRoutePerms);
+		BaBcheapestRoute = findRoute(BaBRoutePerms, result);
+		BaBcheapestCost = result.getCost();
+	}
+
+	/**
+	 * Calculates the shortest route using branch and bound algorithm when the
+	 * cost of a route is already known, so branches are pruned from the first
+	 * node. Finds the cheapest route if it costs at most upperBound, otherwise
+	 * BaBcheapestRoute is left null.
+	 *
+	 * @param upperBound
+	 */
+	public static void branchAndBound(int upperBound) {
+		// Setup city list
+		resetLists();
+
+		TspResult result = solver().branchAndBound(upperBound, BaBRoutePerms);
+		BaBcheapestRoute = findRoute(BaBRoutePerms, result);
+		BaBcheapestCost = result.getCost();
 	}
 
 	/************************************************************************************************************/
 
 	/**
-	 * Resets lists to initial state to allow multiple runs of algorithms
+	 * Calculates the shortest route using the allocation free branch and bound
+	 * engine. Results are stored in the same variables as {@link #branchAndBound()}.
 	 */
-	private static void resetLists() {
-		BFRoutePerms = new ArrayList<Route>();
-		BaBRoutePerms = new ArrayList<Route>();
+	public static void fastBranchAndBound() {
+		fastBranchAndBound(BoundingStrategy.NONE, SearchOrder.DEPTH_FIRST);
+	}
+
+	/**
+	 * Calculates the shortest route using the allocation free branch and bound
+	 * engine with a lower bound and node order
+	 *
+	 * @param strategy
+	 * @param order
+	 */
+	public static void fastBranchAndBound(BoundingStrategy strategy, SearchOrder order) {
+		System.out.println("fastBranchAndBound " + strategy + " " + order + ":");
+		// Setup city list
+		resetLists();
 
-		cities = new ArrayList<City>();
+		TspResult result = solver().fastBranchAndBound(strategy, order);
 
-		// Populate City list
-		cities.add(new City("Vancouver", 0, false));
-		cities.add(new City("Edmonton", 1, false));
-		cities.add(new City("Calgary", 2, false));
-		cities.add(new City("Winnipeg", 3, false));
-		cities.add(new City("Hamilton", 4, false));
-		cities.add(new City("Toronto", 5, false));
-		cities.add(new City("Kingston", 6, false));
-		cities.add(new City("Ottawa", 7, false));
-		cities.add(new City("Montreal", 8, false));
-		cities.add(new City("Halifax", 9, false));
+		BaBcheapestRoute = result.toRoute();
+		BaBcheapestCost = result.getCost();
+		BaBRoutePerms.add(BaBcheapestRoute);
+
+		System.out.println("\tNodes: " + result.getExplored() + " Pruned: " + result.getPruned());
+		System.out.println("\t" + BaBcheapestRoute.toString() + "\n\tCost: " + BaBcheapestCost);
 	}
 
 	/**
-	 * Generates all permutations in lexicographic order
+	 * Calculates the shortest route using branch and bound split across all cores.
+	 * Results are stored in the same variables as {@link #branchAndBound()}.
+	 */
+	public static void parallelBranchAndBound() {
+		System.out.println("parallelBranchAndBound:");
+		// Setup city list
+		resetLists();
+
+		TspResult result = solver().parallelBranchAndBound();
+
+		BaBcheapestRoute = result.toRoute();
+		BaBcheapestCost = result.getCost();
+		BaBRoutePerms.add(BaBcheapestRoute);
+
+		System.out.println("\tNodes: " + result.getExplored());
+		System.out.println("\t" + BaBcheapestRoute.toString() + "\n\tCost: " + BaBcheapestCost);
+	}
+
+	/**
+	 * Times the parallel branch and bound against the sequential ones. The
+	 * current matrix is compared with {@link #branchAndBound()}, and a random
+	 * matrix of numCities with the sequential array engine, as the list based
+	 * branchAndBound() is too slow for it.
 	 *
-	 * @param r
-	 * @param notVisited
+	 * @param numCities
+	 * @param numIterations
 	 */
-	private static void permute(Route r, List<Integer> notVisited, boolean isBruteForce) {
-		if (!notVisited.isEmpty()) {
-
-			for (int i = 0; i < notVisited.size(); i++) {
-				// Pointer to first city in list
-				int temp = notVisited.remove(0);
-
-				Route newRoute = new Route();
-				// Lazy copy
-				for (City c1 : r.getRoute()) {
-					newRoute.getRoute().add(c1);
-				}
-
-				// Add the first city from notVisited to the route
-				newRoute.getRoute().add(cities.get(temp));
-
-				if (isBruteForce) {
-					// Recursive call
-					permute(newRoute, notVisited, true);
-				} else {
-					// If a complete route has not yet been created keep permuting
-					if (BaBRoutePerms.isEmpty()) {
-						// Recursive call
-						permute(newRoute, notVisited, false);
-					} else if (getRouteCost(newRoute) < BaBcheapestCost) {
-						// Current route cost is less than the best so far so keep permuting
-						permute(newRoute, notVisited, false);
-					}
-				}
-				// Add first city back into notVisited list
-				notVisited.add(temp);
+	public static void compareParallelBranchAndBound(int numCities, int numIterations) {
+		System.out.println("compareParallelBranchAndBound:");
+		resetLists();
+		long sequential = 0;
+		long parallel = 0;
+		for (int i = 0; i < numIterations; i++) {
+			long time = System.nanoTime();
+			branchAndBound();
+			sequential += System.nanoTime() - time;
+
+			time = System.nanoTime();
+			new ParallelBranchAndBound(distances).solve();
+			parallel += System.nanoTime() - time;
+		}
+		System.out.println("\tbranchAndBound: " + sequential / numIterations / 1000 + "us");
+		System.out.println("\tparallel:       " + parallel / numIterations / 1000 + "us");
+
+		Weight random = randomWeight(numCities, 1000, 42);
+		sequential = 0;
+		parallel = 0;
+		int cost = 0;
+		for (int i = 0; i < numIterations; i++) {
+			long time = System.nanoTime();
+			BranchAndBoundSolver solver = new BranchAndBoundSolver(random);
+			solver.setBoundingStrategy(BoundingStrategy.MIN_OUTGOING_EDGE);
+			cost = solver.solve();
+			sequential += System.nanoTime() - time;
+
+			time = System.nanoTime();
+			ParallelBranchAndBound parallelSolver = new ParallelBranchAndBound(random);
+			parallelSolver.setBoundingStrategy(BoundingStrategy.MIN_OUTGOING_EDGE);
+			if (parallelSolver.solve() != cost) {
+				throw new IllegalStateException("Parallel and sequential branch and bound disagree");
 			}
-		} else {
-			// Route is complete
-			if (isBruteForce) {
-				BFRoutePerms.add(r);
-			} else {
-				// Add stoke to start and end of route
-				r.getRoute().add(0, cities.get(9));
-				r.getRoute().add(cities.get(9));
-
-				BaBRoutePerms.add(r);
-
-				// If shorter than best so far, update best cost
-				if (getRouteCost(r) < BaBcheapestCost) {
-					BaBcheapestRoute = r;
-					BaBcheapestCost = getRouteCost(r);
-				}
+			parallel += System.nanoTime() - time;
+		}
+		System.out.println("\t" + numCities + " cities, cost " + cost + " on "
+				+ ForkJoinPool.commonPool().getParallelism() + " threads");
+		System.out.println("\tsequential: " + sequential / numIterations / 1000 + "us");
+		System.out.println("\tparallel:   " + parallel / numIterations / 1000 + "us");
+		System.out.println("\tspeedup:    " + String.format("%.2f", (double) sequential / parallel));
+	}
+
+	/**
+	 * Creates a symmetric matrix of random distances
+	 *
+	 * @param size
+	 * @param maxWeight
+	 * @param seed
+	 * @return matrix
+	 */
+	private static Weight randomWeight(int size, int maxWeight, long seed) {
+		Random random = new Random(seed);
+		Weight weight = new Weight(size);
+		for (int i = 0; i < size; i++) {
+			for (int j = i + 1; j < size; j++) {
+				int value = 1 + random.nextInt(maxWeight);
+				weight.setWeight(i, j, value);
+				weight.setWeight(j, i, value);
 			}
 		}
+		return weight;
 	}
 
 	/**
-	 * Gets the cost of all the routes in the list and outputs the cheapest
+	 * Calculates the shortest route using Held-Karp dynamic programming
 	 *
-	 * @param routeList
+	 * @return heldKarpRoute
+	 */
+	public static Route heldKarp() {
+		System.out.println("heldKarp:");
+		// Setup city list
+		resetLists();
+
+		TspResult result = solver().heldKarp();
+
+		Route heldKarpRoute = result.toRoute();
+		System.out.println("\t" + heldKarpRoute.toString() + "\n\tCost: " + result.getCost());
+		return heldKarpRoute;
+	}
+
+	/**
+	 * Runs the allocation free branch and bound with every bounding strategy and
+	 * node order, reporting the nodes expanded and pruned by each
 	 */
-	private static void findShortestPermutation(List<Route> routeList) {
-		// Loop through all the permutations
-		for (Route r : routeList) {
-			// Only used by brute force so add stoke to start and end of route
-			appendStoke(r);
-
-			if (getRouteCost(r) < BFcheapestCost) {
-				BFcheapestCost = getRouteCost(r);
-				BFcheapestRoute = r;
+	public static void compareBoundingStrategies() {
+		for (SearchOrder order : SearchOrder.values()) {
+			for (BoundingStrategy strategy : BoundingStrategy.values()) {
+				long time = System.currentTimeMillis();
+				fastBranchAndBound(strategy, order);
+				System.out.println("\tTime:" + (System.currentTimeMillis() - time) + "ms");
 			}
 		}
+	}
 
-		System.out.println("\t" + BFcheapestRoute.toString() + "\n\tCost: " + BFcheapestCost);
+	/************************************************************************************************************/
+
+	/**
+	 * Resets lists to initial state to allow multiple runs of algorithms, with one
+	 * city per row of the matrix
+	 */
+	private static void resetLists() {
+		BFRoutePerms = new ArrayList<Route>();
+		BaBRoutePerms = new ArrayList<Route>();
+
+		cities = new ArrayList<City>(distances.getSize());
+
+		// Populate City list
+		for (int i = 0; i < distances.getSize(); i++) {
+			cities.add(new City(i < CITY_NAMES.length ? CITY_NAMES[i] : "City" + i, i, false));
+		}
 	}
 
 	/**
-	 * Adds stoke to start and finish of route
+	 * Creates a solver over the current matrix and city list
 	 *
-	 * @param r route
+	 * @return solver
 	 */
-	private static void appendStoke(Route r) {
-		r.getRoute().add(0, cities.get(9));
-		r.getRoute().add(cities.get(9));
+	private static TspSolver solver() {
+		return new TspSolver(distances, cities, depot == LAST_CITY ? cities.size() - 1 : depot, metrics);
+	}
+
+	/**
+	 * Finds the route in the list that a result was made from, so the cheapest
+	 * route is the same object as the one in the permutations
+	 *
+	 * @param routes
+	 * @param result
+	 * @return route, or null if the result has none
+	 */
+	private static Route findRoute(List<Route> routes, TspResult result) {
+		for (Route r : routes) {
+			if (result.isFound() && r.getRoute().equals(result.getRoute())) {
+				return r;
+			}
+		}
+		return null;
 	}
 
 	/**
@@ -292,7 +531,7 @@ public class TSP {
 	 * @return tempCost
 	 */
 	public static Integer getRouteCost(Route r) {
-		Integer tempCost = 0;
+		int tempCost = 0;
 		// Add route costs
 		for (int i = 0; i < r.getRoute().size() - 1; i++) {
 			tempCost += distances.getWeight(r.getRoute().get(i).getID(), r.getRoute().get(i + 1).getID());
@@ -325,7 +564,24 @@ public class TSP {
 		return cities;
 	}
 
-	public static void setDistances(Weight distances) {
+	public static void setDistances(DistanceMatrix distances) {
 		TSP.distances = distances;
 	}
+
+	public static int getDepot() {
+		return depot;
+	}
+
+	/**
+	 * Sets the city every route starts and ends at, checked against the matrix
+	 * when an algorithm runs
+	 *
+	 * @param depot city ID, or LAST_CITY for the last city of any matrix
+	 */
+	public static void setDepot(int depot) {
+		if (depot < LAST_CITY) {
+			throw new IllegalArgumentException("Depot must be a city ID or LAST_CITY: " + depot);
+		}
+		TSP.depot = depot;
+	}
 }
\ No newline at end of file
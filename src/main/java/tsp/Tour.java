@@ -0,0 +1,401 @@
+package TSP;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Closed tour of city IDs that never changes once created, the compact
+ * counterpart of {@link Route}. Cities are stored once each in a short[] when
+ * there are at most 32768 of them and an int[] otherwise, with the first city
+ * repeated at the end only when read.
+ *
+ * The cost is worked out when the tour is created, in both directions, so
+ * {@link #getCost()} and the cost of {@link #reversed()} are read in O(1).
+ * Rotations and reversals are views sharing the stored cities. A 2-opt move is
+ * priced with {@link #twoOptDelta} without creating a tour, and applied with
+ * {@link #reverseSegment}.
+ */
+public final class Tour {
+	// Most cities stored as shorts, IDs 0 to Short.MAX_VALUE
+	static final int SHORT_LIMIT = Short.MAX_VALUE + 1;
+
+	// Exactly one of these holds the cities, the other is null
+	private final short[] shortCities;
+	private final int[] intCities;
+	private final int size;
+
+	// Stored index of position 0, and whether positions run backwards through it
+	private final int offset;
+	private final boolean backwards;
+
+	private final int cost;
+	private final int reverseCost; // Cost of the same cities visited the other way
+
+	private Tour(short[] shortCities, int[] intCities, int size, int offset, boolean backwards, int cost,
+			int reverseCost) {
+		this.shortCities = shortCities;
+		this.intCities = intCities;
+		this.size = size;
+		this.offset = offset;
+		this.backwards = backwards;
+		this.cost = cost;
+		this.reverseCost = reverseCost;
+	}
+
+	/**
+	 * Creates a tour from city IDs
+	 *
+	 * @param closedTour every city once, first city repeated at the end
+	 * @param distances  to price the tour with
+	 * @return tour
+	 */
+	public static Tour of(int[] closedTour, DistanceMatrix distances) {
+		int size = distances.getSize();
+		if (size == 0) {
+			throw new IllegalArgumentException("Tour needs at least one city");
+		}
+		if (closedTour.length != size + 1 || closedTour[0] != closedTour[size]) {
+			throw new IllegalArgumentException("Tour must visit all " + size + " cities and return to the start");
+		}
+		boolean[] seen = new boolean[size];
+		for (int i = 0; i < size; i++) {
+			int city = closedTour[i];
+			if (city < 0 || city >= size || seen[city]) {
+				throw new IllegalArgumentException("City " + city + " is not in the matrix or visited twice");
+			}
+			seen[city] = true;
+		}
+
+		if (size <= SHORT_LIMIT) {
+			short[] cities = new short[size];
+			for (int i = 0; i < size; i++) {
+				cities[i] = (short) closedTour[i];
+			}
+			return priced(cities, null, size, distances);
+		}
+		return priced(null, Arrays.copyOf(closedTour, size), size, distances);
+	}
+
+	/**
+	 * Creates a tour from a route of City objects
+	 *
+	 * @param r         closed route, first city at both ends
+	 * @param distances to price the tour with
+	 * @return tour
+	 */
+	public static Tour of(Route r, DistanceMatrix distances) {
+		List<City> cities = r.getRoute();
+		int[] closedTour = new int[cities.size()];
+		for (int i = 0; i < closedTour.length; i++) {
+			closedTour[i] = cities.get(i).getID();
+		}
+		return of(closedTour, distances);
+	}
+
+	/**
+	 * Prices stored cities in both directions in one pass
+	 */
+	private static Tour priced(short[] shortCities, int[] intCities, int size, DistanceMatrix distances) {
+		Tour unpriced = new Tour(shortCities, intCities, size, 0, false, 0, 0);
+		long forward = 0;
+		long backward = 0;
+		boolean symmetric = distances.isSymmetric();
+		for (int p = 0; p < size; p++) {
+			int from = unpriced.stored(p);
+			int to = unpriced.stored(p + 1 == size ? 0 : p + 1);
+			forward += distances.getWeight(from, to);
+			if (!symmetric) {
+				backward += distances.getWeight(to, from);
+			}
+		}
+		if (symmetric) {
+			backward = forward;
+		}
+		return new Tour(shortCities, intCities, size, 0, false, toCost(forward), toCost(backward));
+	}
+
+	private static int toCost(long cost) {
+		if (cost > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Tour cost " + cost + " does not fit in an int");
+		}
+		return (int) cost;
+	}
+
+	/**
+	 * Gets the number of cities, each counted once
+	 *
+	 * @return size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the city at a position, position size being the first city again
+	 *
+	 * @param position 0 to size
+	 * @return city ID
+	 */
+	public int getCity(int position) {
+		if (position < 0 || position > size) {
+			throw new IndexOutOfBoundsException("Position " + position + " is not in a tour of " + size + " cities");
+		}
+		return stored(index(position == size ? 0 : position));
+	}
+
+	/**
+	 * Gets the first city, which is also the last
+	 *
+	 * @return city ID
+	 */
+	public int getStartCity() {
+		return getCity(0);
+	}
+
+	/**
+	 * Gets the cost of the whole tour, back to the first city
+	 *
+	 * @return cost
+	 */
+	public int getCost() {
+		return cost;
+	}
+
+	/**
+	 * Maps a position 0 to size - 1 onto the stored index
+	 */
+	private int index(int position) {
+		int i = backwards ? offset - position : offset + position;
+		if (i < 0) {
+			i += size;
+		} else if (i >= size) {
+			i -= size;
+		}
+		return i;
+	}
+
+	private int stored(int index) {
+		return shortCities != null ? shortCities[index] : intCities[index];
+	}
+
+	/**
+	 * Gets the same tour starting from another position, sharing the stored
+	 * cities. The cost is unchanged.
+	 *
+	 * @param positions to move the start forward by
+	 * @return rotated tour
+	 */
+	public Tour rotate(int positions) {
+		int shift = Math.floorMod(positions, size);
+		if (shift == 0) {
+			return this;
+		}
+		return new Tour(shortCities, intCities, size, index(shift), backwards, cost, reverseCost);
+	}
+
+	/**
+	 * Gets the same tour starting from a city, sharing the stored cities. Finding
+	 * the city takes O(size), rotating is O(1).
+	 *
+	 * @param city
+	 * @return rotated tour
+	 */
+	public Tour startingAt(int city) {
+		return rotate(indexOf(city));
+	}
+
+	/**
+	 * Gets the position of a city
+	 *
+	 * @param city
+	 * @return position, 0 to size - 1
+	 */
+	public int indexOf(int city) {
+		for (int p = 0; p < size; p++) {
+			if (stored(index(p)) == city) {
+				return p;
+			}
+		}
+		throw new IllegalArgumentException("City " + city + " is not in the tour");
+	}
+
+	/**
+	 * Gets the cities visited the other way round from the same first city,
+	 * sharing the stored cities. The cost was worked out with the tour, so this
+	 * is O(1) on asymmetric matrices too.
+	 *
+	 * @return reversed tour
+	 */
+	public Tour reversed() {
+		return new Tour(shortCities, intCities, size, offset, !backwards, reverseCost, cost);
+	}
+
+	/**
+	 * Gets the change in cost of reversing positions from to to on a symmetric
+	 * matrix, replacing the edges into from and out of to. O(1), no tour is
+	 * created.
+	 *
+	 * @param from      first position to reverse, at least 1
+	 * @param to        last position to reverse, at most size - 1
+	 * @param distances the tour was priced with
+	 * @return new cost minus old cost
+	 */
+	public int twoOptDelta(int from, int to, DistanceMatrix distances) {
+		checkSegment(from, to);
+		int a = getCity(from - 1);
+		int b = getCity(from);
+		int c = getCity(to);
+		int d = getCity(to + 1);
+		return distances.getWeight(a, c) + distances.getWeight(b, d) - distances.getWeight(a, b)
+				- distances.getWeight(c, d);
+	}
+
+	/**
+	 * Creates a new tour with positions from to to reversed, keeping the first
+	 * city. On a symmetric matrix the cost is updated from {@link #twoOptDelta},
+	 * otherwise the new tour is priced again.
+	 *
+	 * @param from      first position to reverse, at least 1
+	 * @param to        last position to reverse, at most size - 1
+	 * @param distances the tour was priced with
+	 * @return new tour
+	 */
+	public Tour reverseSegment(int from, int to, DistanceMatrix distances) {
+		checkSegment(from, to);
+		short[] newShort = shortCities == null ? null : new short[size];
+		int[] newInt = intCities == null ? null : new int[size];
+		for (int p = 0; p < size; p++) {
+			int source = p < from || p > to ? p : from + to - p;
+			if (newShort != null) {
+				newShort[p] = shortCities[index(source)];
+			} else {
+				newInt[p] = intCities[index(source)];
+			}
+		}
+		if (!distances.isSymmetric()) {
+			return priced(newShort, newInt, size, distances);
+		}
+		int newCost = toCost((long) cost + twoOptDelta(from, to, distances));
+		return new Tour(newShort, newInt, size, 0, false, newCost, newCost);
+	}
+
+	private void checkSegment(int from, int to) {
+		if (from < 1 || to > size - 1 || from > to) {
+			throw new IllegalArgumentException(
+					"Segment " + from + " to " + to + " must be within positions 1 to " + (size - 1));
+		}
+	}
+
+	/**
+	 * Gets the tour as city IDs
+	 *
+	 * @return closed tour, a new array on every call
+	 */
+	public int[] toArray() {
+		int[] closedTour = new int[size + 1];
+		copyTo(closedTour, 0);
+		return closedTour;
+	}
+
+	/**
+	 * Copies the closed tour into an array the caller reuses
+	 *
+	 * @param out    array with room for size + 1 cities from offset
+	 * @param offset
+	 */
+	public void copyTo(int[] out, int offset) {
+		for (int p = 0; p < size; p++) {
+			out[offset + p] = stored(index(p));
+		}
+		out[offset + size] = out[offset];
+	}
+
+	/**
+	 * Creates a Route of City objects that the caller may change
+	 *
+	 * @param cities cities indexed by ID
+	 * @return route
+	 */
+	public Route toRoute(List<City> cities) {
+		Route r = new Route(cities.get(getCity(0)));
+		List<City> route = new ArrayList<>(size + 1);
+		for (int p = 0; p <= size; p++) {
+			route.add(cities.get(getCity(p)));
+		}
+		r.setRoute(route);
+		r.setCurrentCity(route.get(size));
+		return r;
+	}
+
+	/**
+	 * Gets the bytes used by the stored cities
+	 *
+	 * @return bytes
+	 */
+	public long getMemoryFootprint() {
+		return Weight.ARRAY_HEADER_BYTES
+				+ (shortCities != null ? (long) Short.BYTES * size : (long) Integer.BYTES * size);
+	}
+
+	/**
+	 * Writes the city names the same way as Route.toString
+	 *
+	 * @param cities cities indexed by ID
+	 * @return text
+	 */
+	public String format(List<City> cities) {
+		StringBuilder sb = new StringBuilder(16 + 8 * size).append("Route{");
+		for (int p = 0; p <= size; p++) {
+			if (p > 0) {
+				sb.append(',');
+			}
+			sb.append(cities.get(getCity(p)).getName());
+		}
+		return sb.append('}').toString();
+	}
+
+	/**
+	 * Same cities in the same order from the same first city, views included
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof Tour)) {
+			return false;
+		}
+		Tour other = (Tour) o;
+		if (size != other.size) {
+			return false;
+		}
+		for (int p = 0; p < size; p++) {
+			if (stored(index(p)) != other.stored(other.index(p))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 1;
+		for (int p = 0; p < size; p++) {
+			hash = 31 * hash + stored(index(p));
+		}
+		return hash;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(24 + 6 * size).append("Tour{");
+		for (int p = 0; p <= size; p++) {
+			if (p > 0) {
+				sb.append(',');
+			}
+			sb.append(getCity(p));
+		}
+		return sb.append(", cost=").append(cost).append('}').toString();
+	}
+}
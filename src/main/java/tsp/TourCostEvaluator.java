@@ -0,0 +1,193 @@
+package TSP;
+
+/**
+ * Costs many closed tours at once against a flat copy of the matrix, the same
+ * sums as getRouteCost. Tours are int[] city IDs with the first city repeated at
+ * the end, and a batch is tours one after another at a fixed stride, the layout
+ * GeneticSolver keeps its population in.
+ *
+ * When the JVM runs with --add-modules jdk.incubator.vector, each tour is
+ * summed several edges at a time with vector gathers from the flat matrix.
+ * Otherwise, or after setVectorised(false), a scalar loop over the same matrix
+ * is used.
+ *
+ * The matrix is copied when the evaluator is created, so create a new one after
+ * changing the matrix; {@link #isCopyOf(DistanceMatrix)} tells whether one can
+ * still be reused. Above 2048 cities the copy would take too much memory and
+ * tours are costed through getWeight instead, without vectors.
+ */
+public final class TourCostEvaluator {
+	// Largest matrix copied, 2048 * 2048 ints is 16 MB
+	static final int COPY_LIMIT = 2048;
+	// Fewest cities vectors are used for by default, shorter tours are mostly tail
+	static final int VECTOR_MIN_SIZE = 32;
+
+	private static final boolean VECTOR_AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector")
+			.isPresent();
+
+	private final DistanceMatrix distances;
+	private final long version; // Matrix version the copy was made at
+	private final int size;
+	private final int[] matrix; // matrix[i * size + j] is the cost of i -> j, null above COPY_LIMIT
+	// Vectors added into int lanes before their sum could overflow an int, 0 if one vector could
+	private final int flushEvery;
+	private boolean vectorised;
+
+	/**
+	 * Constructor copying the matrix
+	 *
+	 * @param distances
+	 */
+	public TourCostEvaluator(DistanceMatrix distances) {
+		this.distances = distances;
+		this.version = distances.getVersion();
+		this.size = distances.getSize();
+		if (size > COPY_LIMIT) {
+			this.matrix = null;
+			this.flushEvery = 0;
+			return;
+		}
+
+		this.matrix = new int[size * size];
+		long largest = 1;
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				int value = distances.getWeight(i, j);
+				matrix[i * size + j] = value;
+				largest = Math.max(largest, Math.abs((long) value));
+			}
+		}
+		// Lanes are summed in an int too, so every lane counts
+		int lanes = VECTOR_AVAILABLE ? VectorTourCosts.lanes() : 1;
+		this.flushEvery = (int) (Integer.MAX_VALUE / largest / lanes);
+		this.vectorised = VECTOR_AVAILABLE && flushEvery > 0 && size >= VECTOR_MIN_SIZE;
+	}
+
+	/**
+	 * Checks if this JVM was started with the incubating vector module
+	 *
+	 * @return available
+	 */
+	public static boolean isVectorAvailable() {
+		return VECTOR_AVAILABLE;
+	}
+
+	/**
+	 * Costs one closed tour
+	 *
+	 * @param closedTour size + 1 cities
+	 * @return cost
+	 */
+	public long cost(int[] closedTour) {
+		return cost(closedTour, 0);
+	}
+
+	/**
+	 * Costs the closed tour starting at offset
+	 *
+	 * @param tours
+	 * @param offset
+	 * @return cost
+	 */
+	public long cost(int[] tours, int offset) {
+		if (vectorised) {
+			return VectorTourCosts.cost(matrix, size, tours, offset, flushEvery, new int[VectorTourCosts.lanes()]);
+		}
+		return scalarCost(tours, offset);
+	}
+
+	/**
+	 * Costs count closed tours laid out one after another
+	 *
+	 * @param tours  tour i starts at i * stride
+	 * @param stride at least size + 1
+	 * @param count
+	 * @param costs  cost of tour i written to costs[i]
+	 */
+	public void costs(int[] tours, int stride, int count, long[] costs) {
+		costs(tours, 0, stride, count, costs, 0);
+	}
+
+	/**
+	 * Costs count closed tours laid out one after another from offset, writing
+	 * the costs one after another from costsOffset
+	 *
+	 * @param tours       tour i starts at offset + i * stride
+	 * @param offset
+	 * @param stride      at least size + 1
+	 * @param count
+	 * @param costs       cost of tour i written to costs[costsOffset + i]
+	 * @param costsOffset
+	 */
+	public void costs(int[] tours, int offset, int stride, int count, long[] costs, int costsOffset) {
+		if (stride < size + 1) {
+			throw new IllegalArgumentException("Stride " + stride + " is shorter than a closed tour of " + size);
+		}
+		if (vectorised) {
+			// One index buffer for the whole batch
+			int[] index = new int[VectorTourCosts.lanes()];
+			for (int t = 0; t < count; t++) {
+				costs[costsOffset + t] = VectorTourCosts.cost(matrix, size, tours, offset + t * stride, flushEvery,
+						index);
+			}
+		} else {
+			for (int t = 0; t < count; t++) {
+				costs[costsOffset + t] = scalarCost(tours, offset + t * stride);
+			}
+		}
+	}
+
+	private long scalarCost(int[] tours, int offset) {
+		long cost = 0;
+		int end = offset + size;
+		if (matrix == null) {
+			for (int p = offset; p < end; p++) {
+				cost += distances.getWeight(tours[p], tours[p + 1]);
+			}
+		} else {
+			for (int p = offset; p < end; p++) {
+				cost += matrix[tours[p] * size + tours[p + 1]];
+			}
+		}
+		return cost;
+	}
+
+	/**
+	 * Checks if this evaluator was made from the matrix and the matrix has not
+	 * changed since, so it can be reused instead of copying the matrix again
+	 *
+	 * @param distances
+	 * @return copy
+	 */
+	public boolean isCopyOf(DistanceMatrix distances) {
+		return this.distances == distances && distances.getVersion() == version;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public boolean isVectorised() {
+		return vectorised;
+	}
+
+	/**
+	 * Sets whether tours are summed with vectors, on by default from 32 cities
+	 * when the vector module is available, the matrix was copied and a vector of
+	 * distances fits in an int
+	 *
+	 * @param vectorised
+	 */
+	public void setVectorised(boolean vectorised) {
+		if (vectorised && !VECTOR_AVAILABLE) {
+			throw new IllegalStateException("Vector API not available, run with --add-modules jdk.incubator.vector");
+		}
+		if (vectorised && matrix == null) {
+			throw new IllegalStateException("Matrix of " + size + " cities is too large to copy for vectors");
+		}
+		if (vectorised && flushEvery == 0) {
+			throw new IllegalStateException("Distances too large to sum a vector of them in an int");
+		}
+		this.vectorised = vectorised;
+	}
+}
@@ -0,0 +1,98 @@
+package TSP;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A named problem loaded from a file: the distances and one city per row of the
+ * matrix, city i with ID i
+ */
+public final class TspInstance {
+	private final String name;
+	private final DistanceMatrix distances;
+	private final List<City> cities;
+
+	/**
+	 * Constructor with variables
+	 *
+	 * @param name
+	 * @param distances
+	 * @param cities
+	 */
+	public TspInstance(String name, DistanceMatrix distances, List<City> cities) {
+		this.name = name;
+		this.distances = distances;
+		this.cities = Collections.unmodifiableList(new ArrayList<>(cities));
+	}
+
+	/**
+	 * Loads an instance from a binary matrix file, which is memory mapped, or
+	 * otherwise from a TSPLIB file. Cities of a binary matrix are named City0,
+	 * City1 and so on.
+	 *
+	 * @param file
+	 * @return instance
+	 * @throws IOException if the file cannot be read or is in neither format
+	 */
+	public static TspInstance load(Path file) throws IOException {
+		if (isBinaryMatrix(file)) {
+			MappedDistanceMatrix distances = MappedDistanceMatrix.open(file);
+			return new TspInstance(file.getFileName().toString(), distances,
+					numberedCities(distances.getSize(), 0));
+		}
+		return TsplibReader.read(file);
+	}
+
+	private static boolean isBinaryMatrix(Path file) throws IOException {
+		try (InputStream in = Files.newInputStream(file)) {
+			byte[] magic = in.readNBytes(Integer.BYTES);
+			return magic.length == Integer.BYTES
+					&& ByteBuffer.wrap(magic).order(ByteOrder.LITTLE_ENDIAN).getInt() == MappedDistanceMatrix.MAGIC;
+		}
+	}
+
+	/**
+	 * Creates cities named by their position for a matrix without city names
+	 *
+	 * @param size
+	 * @param firstNumber number in the name of the first city
+	 * @return cities
+	 */
+	static List<City> numberedCities(int size, int firstNumber) {
+		List<City> cities = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			cities.add(new City("City" + (i + firstNumber), i, false));
+		}
+		return cities;
+	}
+
+	/**
+	 * Creates a solver for this instance
+	 *
+	 * @return solver
+	 */
+	public TspSolver solver() {
+		return new TspSolver(distances, cities);
+	}
+
+	// Mutator functions
+
+	public String getName() {
+		return name;
+	}
+
+	public DistanceMatrix getDistances() {
+		return distances;
+	}
+
+	public List<City> getCities() {
+		return cities;
+	}
+}
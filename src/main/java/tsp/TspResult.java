@@ -0,0 +1,244 @@
+package TSP;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of one solve by {@link TspSolver}. Results never change after they
+ * are created, so they can be handed between threads freely.
+ */
+public final class TspResult {
+	// Lower bound of a result without one. Every route meets it, so it is no
+	// bound at all, while any real bound, negative ones included, stays usable.
+	public static final int NO_LOWER_BOUND = Integer.MIN_VALUE;
+
+	private final String algorithm;
+	private final List<City> route; // Closed route, depot at both ends, empty if none was found
+	private final int cost;
+	private final long explored;
+	private final long pruned;
+	private final boolean complete;
+	private final int lowerBound;
+
+	/**
+	 * Constructor for a heuristic result, not known to be the shortest and without
+	 * a lower bound
+	 *
+	 * @param algorithm name of the algorithm that produced the route
+	 * @param route     closed route, or null if no route was found
+	 * @param cost
+	 * @param explored  complete routes or search nodes looked at
+	 * @param pruned    search nodes cut off by a bound
+	 */
+	public TspResult(String algorithm, List<City> route, int cost, long explored, long pruned) {
+		this(algorithm, route, cost, explored, pruned, false, NO_LOWER_BOUND);
+	}
+
+	/**
+	 * Constructor with variables
+	 *
+	 * @param algorithm  name of the algorithm that produced the route
+	 * @param route      closed route, or null if no route was found
+	 * @param cost
+	 * @param explored   complete routes or search nodes looked at
+	 * @param pruned     search nodes cut off by a bound
+	 * @param complete   true if an exact search finished, so the route is the
+	 *                   shortest
+	 * @param lowerBound on the cost of the shortest route, or NO_LOWER_BOUND
+	 */
+	public TspResult(String algorithm, List<City> route, int cost, long explored, long pruned, boolean complete,
+			int lowerBound) {
+		this.algorithm = algorithm;
+		this.route = route == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(route));
+		this.cost = route == null ? Integer.MAX_VALUE : cost;
+		this.explored = explored;
+		this.pruned = pruned;
+		this.complete = complete;
+		this.lowerBound = lowerBound;
+	}
+
+	/**
+	 * Creates a result from a tour of city IDs
+	 *
+	 * @param algorithm
+	 * @param tour      closed tour, or null if no tour was found
+	 * @param cities    cities indexed by ID
+	 * @param cost
+	 * @param explored
+	 * @param pruned
+	 * @return result
+	 */
+	static TspResult of(String algorithm, int[] tour, List<City> cities, int cost, long explored, long pruned) {
+		return of(algorithm, tour, cities, cost, explored, pruned, false, NO_LOWER_BOUND);
+	}
+
+	/**
+	 * Creates a result from a tour of city IDs
+	 *
+	 * @param algorithm
+	 * @param tour       closed tour, or null if no tour was found
+	 * @param cities     cities indexed by ID
+	 * @param cost
+	 * @param explored
+	 * @param pruned
+	 * @param complete
+	 * @param lowerBound
+	 * @return result
+	 */
+	static TspResult of(String algorithm, int[] tour, List<City> cities, int cost, long explored, long pruned,
+			boolean complete, int lowerBound) {
+		if (tour == null) {
+			return new TspResult(algorithm, null, cost, explored, pruned, complete, lowerBound);
+		}
+		List<City> route = new ArrayList<>(tour.length);
+		for (int id : tour) {
+			route.add(cities.get(id));
+		}
+		return new TspResult(algorithm, route, cost, explored, pruned, complete, lowerBound);
+	}
+
+	/**
+	 * Creates the result of an exact search that finished, so the cost is also
+	 * the lower bound
+	 *
+	 * @param algorithm
+	 * @param tour      closed tour, or null if no tour was within an upper bound
+	 * @param cities    cities indexed by ID
+	 * @param cost
+	 * @param explored
+	 * @param pruned
+	 * @return result
+	 */
+	static TspResult exact(String algorithm, int[] tour, List<City> cities, int cost, long explored, long pruned) {
+		return of(algorithm, tour, cities, cost, explored, pruned, true, cost);
+	}
+
+	// Mutator functions
+
+	public String getAlgorithm() {
+		return algorithm;
+	}
+
+	/**
+	 * Checks if a route was found, false when an upper bound ruled every route out
+	 *
+	 * @return found
+	 */
+	public boolean isFound() {
+		return !route.isEmpty();
+	}
+
+	/**
+	 * Gets the closed route as a read only list
+	 *
+	 * @return route
+	 */
+	public List<City> getRoute() {
+		return route;
+	}
+
+	/**
+	 * Gets the route as city IDs
+	 *
+	 * @return tour, a new array on every call
+	 */
+	public int[] getTour() {
+		int[] tour = new int[route.size()];
+		for (int i = 0; i < tour.length; i++) {
+			tour[i] = route.get(i).getID();
+		}
+		return tour;
+	}
+
+	/**
+	 * Gets the cost of the route, Integer.MAX_VALUE if none was found
+	 *
+	 * @return cost
+	 */
+	public int getCost() {
+		return cost;
+	}
+
+	/**
+	 * Gets the number of complete routes (brute force) or search nodes (branch and
+	 * bound) the algorithm looked at
+	 *
+	 * @return explored
+	 */
+	public long getExplored() {
+		return explored;
+	}
+
+	/**
+	 * Gets the number of search nodes cut off by a bound, 0 for algorithms that
+	 * do not prune
+	 *
+	 * @return pruned
+	 */
+	public long getPruned() {
+		return pruned;
+	}
+
+	/**
+	 * Checks if an exact search finished, so the route is the shortest, or no
+	 * route is within the upper bound it was given. False for heuristics and for
+	 * searches stopped by a time limit or cancellation.
+	 *
+	 * @return complete
+	 */
+	public boolean isComplete() {
+		return complete;
+	}
+
+	/**
+	 * Gets a lower bound on the cost of the shortest route
+	 *
+	 * @return lowerBound, NO_LOWER_BOUND if the algorithm has none
+	 */
+	public int getLowerBound() {
+		return lowerBound;
+	}
+
+	/**
+	 * Gets how far the route may be from the shortest, as a fraction of its cost:
+	 * (cost - lowerBound) / |cost|. 0 means the route is the shortest.
+	 *
+	 * @return gap, NaN without a route or a lower bound
+	 */
+	public double getGap() {
+		if (route.isEmpty() || lowerBound == NO_LOWER_BOUND) {
+			return Double.NaN;
+		}
+		if (lowerBound >= cost) {
+			return 0.0;
+		}
+		return ((double) cost - lowerBound) / Math.abs((double) cost);
+	}
+
+	/**
+	 * Copies the route into a new Route that the caller may change
+	 *
+	 * @return route, or null if none was found
+	 */
+	public Route toRoute() {
+		if (route.isEmpty()) {
+			return null;
+		}
+		Route r = new Route(route.get(0));
+		r.getRoute().addAll(route.subList(1, route.size()));
+		r.setCurrentCity(route.get(route.size() - 1));
+		return r;
+	}
+
+	@Override
+	public String toString() {
+		return "TspResult{" + "algorithm=" + algorithm + ", " + toRouteString() + ", cost=" + cost + ", explored="
+				+ explored + ", pruned=" + pruned + ", complete=" + complete + ", lowerBound=" + lowerBound + '}';
+	}
+
+	private String toRouteString() {
+		Route r = toRoute();
+		return r == null ? "Route{}" : r.toString();
+	}
+}
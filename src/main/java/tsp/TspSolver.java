@@ -0,0 +1,772 @@
+package TSP;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Runs the TSP algorithms on one distance matrix and city list. A solver keeps
+ * no state between solves, and each solve builds its own working data, so one
+ * solver, or many, can be used from any number of threads at once.
+ *
+ * The matrix is not copied, so it must not be changed while a solve is running.
+ * Every route starts and ends at the depot, the last city unless another is
+ * given. Any number of cities works, {@link #solve()} picks an exact search or a
+ * heuristic by the size of the matrix.
+ *
+ * Exact searches that finish are marked complete. The anytime overloads take a
+ * time limit and a cancellation token, report each cheaper route to a listener
+ * and, if stopped early, return the best route so far with a lower bound.
+ *
+ * Given a {@link SolverMetrics}, every solve adds its node counts and timings to
+ * the stats of its algorithm. The searches count into local fields either way,
+ * and the list searches here only read the clock when metrics are on. The
+ * solver classes time their own incumbents whether metrics are on or not, one
+ * clock read at the start and one per cheaper route.
+ *
+ * Given a {@link SolveCache}, the solves without a time limit or starting route
+ * are first looked up by the matrix fingerprint and only run on a miss. Hits
+ * are not recorded in the metrics, the cache counts them.
+ */
+public class TspSolver {
+	// Most cities solve() runs an exact search on, Held-Karp needs 2^n * n entries
+	static final int EXACT_LIMIT = 16;
+
+	private final DistanceMatrix distances;
+	private final List<City> cities;
+	private final int depot;
+	private final SolverMetrics metrics; // null when metrics are off
+	private final SolveCache cache; // null when results are not cached
+	private TourCostEvaluator evaluator; // Shared by the genetic solves, guarded by this
+
+	/**
+	 * Constructor without metrics
+	 *
+	 * @param distances
+	 * @param cities    one city per row of the matrix, city i with ID i
+	 */
+	public TspSolver(DistanceMatrix distances, List<City> cities) {
+		this(distances, cities, null);
+	}
+
+	/**
+	 * Constructor using the last city as the depot
+	 *
+	 * @param distances
+	 * @param cities    one city per row of the matrix, city i with ID i
+	 * @param metrics   receives the counts of every solve, may be null
+	 */
+	public TspSolver(DistanceMatrix distances, List<City> cities, SolverMetrics metrics) {
+		this(distances, cities, cities.size() - 1, metrics);
+	}
+
+	/**
+	 * Constructor with variables
+	 *
+	 * @param distances
+	 * @param cities    one city per row of the matrix, city i with ID i
+	 * @param depot     ID of the city every route starts and ends at
+	 * @param metrics   receives the counts of every solve, may be null
+	 */
+	public TspSolver(DistanceMatrix distances, List<City> cities, int depot, SolverMetrics metrics) {
+		this(distances, cities, depot, metrics, null);
+	}
+
+	/**
+	 * Constructor with a cache, answering repeated matrices without solving
+	 *
+	 * @param distances
+	 * @param cities    one city per row of the matrix, city i with ID i
+	 * @param depot     ID of the city every route starts and ends at
+	 * @param metrics   receives the counts of every solve, may be null
+	 * @param cache     results shared with other solvers, may be null
+	 */
+	public TspSolver(DistanceMatrix distances, List<City> cities, int depot, SolverMetrics metrics,
+			SolveCache cache) {
+		if (cities.size() != distances.getSize()) {
+			throw new IllegalArgumentException(
+					cities.size() + " cities given for a matrix of " + distances.getSize() + " cities");
+		}
+		if (depot < 0 || depot >= cities.size()) {
+			throw new IllegalArgumentException(
+					"Depot " + depot + " is not a city of a " + cities.size() + " city matrix");
+		}
+		for (int i = 0; i < cities.size(); i++) {
+			if (cities.get(i).getID() != i) {
+				throw new IllegalArgumentException("City at index " + i + " has ID " + cities.get(i).getID());
+			}
+		}
+		this.distances = distances;
+		this.cities = Collections.unmodifiableList(new ArrayList<>(cities));
+		this.depot = depot;
+		this.metrics = metrics;
+		this.cache = cache;
+	}
+
+	/************************************************************************************************************/
+
+	/**
+	 * Calculates a route with the best algorithm for the size of the matrix:
+	 * Held-Karp, which is exact, up to 16 cities, and beyond that Lin-Kernighan
+	 * on symmetric matrices or nearest neighbour with local search
+	 *
+	 * @return result
+	 */
+	public TspResult solve() {
+		if (cities.size() <= EXACT_LIMIT) {
+			return heldKarp();
+		}
+		return distances.isSymmetric() ? linKernighan() : nearestNeighbourLocalSearch();
+	}
+
+	/**
+	 * Calculates a route with the best algorithm for the size of the matrix,
+	 * stopping early with the best route so far: branch and bound up to 16
+	 * cities, and beyond that Lin-Kernighan on symmetric matrices or the memetic
+	 * genetic algorithm
+	 *
+	 * @param timeLimit longest the solve may run, or null for no limit
+	 * @param token     may be null
+	 * @param listener  told of every cheaper route as it is found, may be null
+	 * @return result
+	 */
+	public TspResult solve(Duration timeLimit, CancellationToken token, IncumbentListener listener) {
+		if (cities.size() <= EXACT_LIMIT) {
+			return branchAndBound(timeLimit, token, listener);
+		}
+		return distances.isSymmetric() ? linKernighan(timeLimit, token, listener)
+				: genetic(timeLimit, token, listener);
+	}
+
+	/************************************************************************************************************/
+
+	/**
+	 * Calculates the shortest route by generating every permutation. On a
+	 * symmetric matrix the mirror image of each route is skipped.
+	 *
+	 * @return result
+	 */
+	public TspResult bruteForce() {
+		return cached("bruteForce", () -> bruteForce(null));
+	}
+
+	/**
+	 * Calculates the shortest route by generating every permutation
+	 *
+	 * @param permutations receives every complete route but mirror images, may be
+	 *                     null
+	 * @return result
+	 */
+	TspResult bruteForce(List<Route> permutations) {
+		Permutations search = new Permutations(true, permutations);
+		search.run();
+		return search.finish("bruteForce");
+	}
+
+	/**
+	 * Calculates the shortest route by brute force without storing the
+	 * permutations, so memory stays constant as the number of cities grows
+	 *
+	 * @return result
+	 */
+	public TspResult bruteForceStreaming() {
+		return cached("bruteForceStreaming", () -> bruteForceStreaming(null, null, null));
+	}
+
+	/**
+	 * Calculates the shortest route by brute force without storing the
+	 * permutations, stopping early with the best route so far if the time limit
+	 * runs out or the token is cancelled. Brute force has no lower bound, so a
+	 * result stopped early has none.
+	 *
+	 * @param timeLimit longest the solve may run, or null for no limit
+	 * @param token     may be null
+	 * @param listener  told of every cheaper route as it is found, may be null
+	 * @return result
+	 */
+	public TspResult bruteForceStreaming(Duration timeLimit, CancellationToken token, IncumbentListener listener) {
+		long start = startTime();
+		StreamingBruteForce solver = new StreamingBruteForce(distances, depot, 1);
+		solver.setTimeLimit(timeLimit);
+		solver.setCancellationToken(token);
+		solver.setIncumbentListener(listener);
+		solver.solve();
+		TspResult result = TspResult.of("bruteForceStreaming", solver.getBestTour(), cities, solver.getBestCost(),
+				solver.getPermutations(), 0, solver.isComplete(),
+				solver.isComplete() ? solver.getBestCost() : TspResult.NO_LOWER_BOUND);
+		return record(result, start, solver.getPermutations(), 0, solver.getToursCosted(),
+				solver.getIncumbentUpdates(), solver.getTimeToFirstSolution(), solver.getTimeToBestSolution());
+	}
+
+	/************************************************************************************************************/
+
+	/**
+	 * Calculates a route by always moving to the nearest unvisited city
+	 *
+	 * @return result
+	 */
+	public TspResult nearestNeighbour() {
+		long start = startTime();
+		int[] tour = nearestNeighbourTour();
+		return recordAtEnd(TspResult.of("nearestNeighbour", tour, cities, getTourCost(tour), 0, 0), start, 1);
+	}
+
+	/**
+	 * Calculates a route with nearest neighbour and then improves it with 2-opt and
+	 * Or-opt local search
+	 *
+	 * @return result
+	 */
+	public TspResult nearestNeighbourLocalSearch() {
+		return cached("nearestNeighbourLocalSearch", this::solveNearestNeighbourLocalSearch);
+	}
+
+	private TspResult solveNearestNeighbourLocalSearch() {
+		long start = startTime();
+		LocalSearch localSearch = new LocalSearch(distances);
+		int[] tour = localSearch.improve(nearestNeighbourTour());
+		TspResult result = TspResult.of("nearestNeighbourLocalSearch", tour, cities, getTourCost(tour),
+				localSearch.getImprovements(), 0);
+		// The nearest neighbour route and then every improving move
+		return recordAtEnd(result, start, 1 + localSearch.getImprovements());
+	}
+
+	/**
+	 * Calculates a route with a memetic genetic algorithm, order crossover with
+	 * every child improved by local search
+	 *
+	 * @return result
+	 */
+	public TspResult genetic() {
+		return cached("genetic", () -> genetic(null, null, null));
+	}
+
+	/**
+	 * Calculates a route with a memetic genetic algorithm, stopping early with the
+	 * best route so far
+	 *
+	 * @param timeLimit longest the solve may run, or null for no limit
+	 * @param token     may be null
+	 * @param listener  told of every cheaper route as it is found, may be null
+	 * @return result
+	 */
+	public TspResult genetic(Duration timeLimit, CancellationToken token, IncumbentListener listener) {
+		long start = startTime();
+		GeneticSolver solver = new GeneticSolver(distances, depot);
+		solver.setEvaluator(evaluator());
+		solver.setLocalSearch(true);
+		solver.setTimeLimit(timeLimit);
+		solver.setCancellationToken(token);
+		solver.setIncumbentListener(listener);
+		solver.solve();
+		TspResult result = TspResult.of("genetic", solver.getBestTour(), cities, solver.getBestCost(),
+				solver.getEvaluations(), 0);
+		return record(result, start, 0, 0, solver.getEvaluations(), solver.getIncumbentUpdates(),
+				solver.getTimeToFirstSolution(), solver.getTimeToBestSolution());
+	}
+
+	/**
+	 * Gets the flat copy of the matrix the genetic solves cost tours with, made
+	 * once and again only after the matrix changes
+	 *
+	 * @return evaluator
+	 */
+	private synchronized TourCostEvaluator evaluator() {
+		if (evaluator == null || !evaluator.isCopyOf(distances)) {
+			evaluator = new TourCostEvaluator(distances);
+		}
+		return evaluator;
+	}
+
+	/**
+	 * Calculates a route with simulated annealing, one restart per core
+	 *
+	 * @return result
+	 */
+	public TspResult simulatedAnnealing() {
+		return cached("simulatedAnnealing", () -> simulatedAnnealing(null, null, null));
+	}
+
+	/**
+	 * Calculates a route with simulated annealing, stopping early with the best
+	 * route so far
+	 *
+	 * @param timeLimit longest the solve may run, or null for no limit
+	 * @param token     may be null
+	 * @param listener  told of every cheaper route as it is found, may be null
+	 * @return result
+	 */
+	public TspResult simulatedAnnealing(Duration timeLimit, CancellationToken token, IncumbentListener listener) {
+		long start = startTime();
+		SimulatedAnnealingSolver solver = new SimulatedAnnealingSolver(distances, depot);
+		solver.setTimeLimit(timeLimit);
+		solver.setCancellationToken(token);
+		solver.setIncumbentListener(listener);
+		solver.solve();
+		TspResult result = TspResult.of("simulatedAnnealing", solver.getBestTour(), cities, solver.getBestCost(),
+				solver.getMovesMade(), 0);
+		return record(result, start, 0, 0, solver.getMovesMade(), solver.getIncumbentUpdates(),
+				solver.getTimeToFirstSolution(), solver.getTimeToBestSolution());
+	}
+
+	/**
+	 * Calculates a route with chained Lin-Kernighan, one trial per core
+	 *
+	 * @return result
+	 */
+	public TspResult linKernighan() {
+		return cached("linKernighan", () -> linKernighan(null, null, null));
+	}
+
+	/**
+	 * Calculates a route with chained Lin-Kernighan, stopping early with the best
+	 * route so far
+	 *
+	 * @param timeLimit longest the solve may run, or null for no limit
+	 * @param token     may be null
+	 * @param listener  told of every cheaper route as it is found, may be null
+	 * @return result
+	 */
+	public TspResult linKernighan(Duration timeLimit, CancellationToken token, IncumbentListener listener) {
+		long start = startTime();
+		LinKernighanSolver solver = new LinKernighanSolver(distances, depot);
+		solver.setTimeLimit(timeLimit);
+		solver.setCancellationToken(token);
+		solver.setIncumbentListener(listener);
+		solver.solve();
+		TspResult result = TspResult.of("linKernighan", solver.getBestTour(), cities, solver.getBestCost(),
+				solver.getKicksMade(), 0);
+		return record(result, start, 0, 0, solver.getKicksMade(), solver.getIncumbentUpdates(),
+				solver.getTimeToFirstSolution(), solver.getTimeToBestSolution());
+	}
+
+	private int[] nearestNeighbourTour() {
+		return new NearestNeighbour(distances).tour(depot);
+	}
+
+	/**
+	 * Builds the nearest neighbour route for a search to start from, without
+	 * recording it as a solve of its own
+	 *
+	 * @return route
+	 */
+	Route nearestNeighbourRoute() {
+		int[] tour = nearestNeighbourTour();
+		Route route = new Route(cities.get(tour[0]));
+		for (int i = 1; i < tour.length; i++) {
+			route.getRoute().add(cities.get(tour[i]));
+		}
+		route.setCurrentCity(cities.get(depot));
+		return route;
+	}
+
+	/************************************************************************************************************/
+
+	/**
+	 * Calculates the shortest route using branch and bound, starting from the
+	 * nearest neighbour route as the best so far
+	 *
+	 * @return result
+	 */
+	public TspResult branchAndBound() {
+		return cached("branchAndBound", () -> branchAndBound(nearestNeighbourRoute(), null));
+	}
+
+	/**
+	 * Calculates the shortest route using branch and bound, starting from a route
+	 * found by any heuristic as the best so far
+	 *
+	 * @param initialRoute closed route starting and ending at the depot
+	 * @return result
+	 */
+	public TspResult branchAndBound(Route initialRoute) {
+		return branchAndBound(initialRoute, null);
+	}
+
+	/**
+	 * Calculates the shortest route using branch and bound, starting from a route
+	 * found by any heuristic as the best so far
+	 *
+	 * @param initialRoute closed route starting and ending at the depot
+	 * @param permutations receives the initial route and every complete route, may
+	 *                     be null
+	 * @return result
+	 */
+	TspResult branchAndBound(Route initialRoute, List<Route> permutations) {
+		Permutations search = new Permutations(false, permutations);
+		search.cheapestRoute = initialRoute;
+		search.cheapestCost = search.routeCost(initialRoute);
+		search.improved();
+		if (permutations != null) {
+			permutations.add(initialRoute);
+		}
+		search.run();
+		return search.finish("branchAndBound");
+	}
+
+	/**
+	 * Calculates the shortest route using branch and bound when the cost of a
+	 * route is already known, so branches are pruned from the first node. No
+	 * route is found if every route costs more than upperBound.
+	 *
+	 * @param upperBound
+	 * @return result
+	 */
+	public TspResult branchAndBound(int upperBound) {
+		return branchAndBound(upperBound, null);
+	}
+
+	/**
+	 * Calculates the shortest route using branch and bound when the cost of a
+	 * route is already known
+	 *
+	 * @param upperBound
+	 * @param permutations receives every complete route, may be null
+	 * @return result
+	 */
+	TspResult branchAndBound(int upperBound, List<Route> permutations) {
+		Permutations search = new Permutations(false, permutations);
+		// Routes must be strictly cheaper than the best so far, so allow ties with the bound
+		search.cheapestCost = upperBound == Integer.MAX_VALUE ? upperBound : upperBound + 1;
+		search.run();
+		return search.finish("branchAndBound");
+	}
+
+	/**
+	 * Calculates the shortest route using branch and bound with the 1-tree lower
+	 * bound, starting from the nearest neighbour route, until the search finishes,
+	 * the time limit runs out or the token is cancelled. A route is always
+	 * returned, and if the search stopped early the root 1-tree bound gives the
+	 * gap to the shortest route.
+	 *
+	 * @param timeLimit longest the solve may run, or null for no limit
+	 * @param token     may be null
+	 * @param listener  told of the nearest neighbour route and then every cheaper
+	 *                  route as it is found, may be null
+	 * @return result
+	 */
+	public TspResult branchAndBound(Duration timeLimit, CancellationToken token, IncumbentListener listener) {
+		long start = startTime();
+		BranchAndBoundSolver solver = new BranchAndBoundSolver(distances, depot);
+		solver.setBoundingStrategy(BoundingStrategy.ONE_TREE);
+		solver.setInitialTour(nearestNeighbourTour());
+		solver.setTimeLimit(timeLimit);
+		solver.setCancellationToken(token);
+		solver.setIncumbentListener(listener);
+		solver.solve();
+		TspResult result = TspResult.of("branchAndBound", solver.getBestTour(), cities, solver.getBestCost(),
+				solver.getNodesExpanded(), solver.getNodesPruned(), solver.isComplete(), solver.getLowerBound());
+		return record(result, start, solver);
+	}
+
+	/**
+	 * Calculates the shortest route using the allocation free branch and bound
+	 * engine with a lower bound and node order, starting from the nearest
+	 * neighbour route
+	 *
+	 * @param strategy
+	 * @param order
+	 * @return result
+	 */
+	public TspResult fastBranchAndBound(BoundingStrategy strategy, SearchOrder order) {
+		return cached("fastBranchAndBound " + strategy + " " + order,
+				() -> solveFastBranchAndBound(strategy, order));
+	}
+
+	private TspResult solveFastBranchAndBound(BoundingStrategy strategy, SearchOrder order) {
+		long start = startTime();
+		BranchAndBoundSolver solver = new BranchAndBoundSolver(distances, depot);
+		solver.setBoundingStrategy(strategy);
+		solver.setSearchOrder(order);
+		solver.setInitialTour(nearestNeighbourTour());
+		solver.solve();
+		TspResult result = TspResult.exact("fastBranchAndBound " + strategy + " " + order, solver.getBestTour(),
+				cities, solver.getBestCost(), solver.getNodesExpanded(), solver.getNodesPruned());
+		return record(result, start, solver);
+	}
+
+	/**
+	 * Calculates the shortest route using branch and bound split across the
+	 * common fork-join pool, starting from the nearest neighbour route
+	 *
+	 * @return result
+	 */
+	public TspResult parallelBranchAndBound() {
+		return cached("parallelBranchAndBound", this::solveParallelBranchAndBound);
+	}
+
+	private TspResult solveParallelBranchAndBound() {
+		long start = startTime();
+		ParallelBranchAndBound solver = new ParallelBranchAndBound(distances, depot, ForkJoinPool.commonPool());
+		solver.setInitialTour(nearestNeighbourTour());
+		solver.solve();
+		TspResult result = TspResult.exact("parallelBranchAndBound", solver.getBestTour(), cities,
+				solver.getBestCost(), solver.getNodesExpanded(), 0);
+		return record(result, start, solver.getNodesExpanded(), 0, 0, solver.getIncumbentUpdates(),
+				solver.getTimeToFirstSolution(), solver.getTimeToBestSolution());
+	}
+
+	/**
+	 * Calculates the shortest route using Held-Karp dynamic programming
+	 *
+	 * @return result
+	 */
+	public TspResult heldKarp() {
+		return cached("heldKarp", this::solveHeldKarp);
+	}
+
+	private TspResult solveHeldKarp() {
+		long start = startTime();
+		HeldKarpSolver solver = new HeldKarpSolver(distances, depot);
+		solver.solve();
+		// Dynamic programming has no route until the last step
+		return recordAtEnd(TspResult.exact("heldKarp", solver.getBestTour(), cities, solver.getBestCost(), 0, 0),
+				start, 1);
+	}
+
+	/************************************************************************************************************/
+
+	/**
+	 * Gets the cost of traveling between the cities in the route
+	 *
+	 * @param r
+	 * @return cost
+	 */
+	public int getRouteCost(Route r) {
+		int cost = 0;
+		for (int i = 0; i < r.getRoute().size() - 1; i++) {
+			cost += distances.getWeight(r.getRoute().get(i).getID(), r.getRoute().get(i + 1).getID());
+		}
+		return cost;
+	}
+
+	/**
+	 * Answers from the cache if it holds a result for this matrix, depot and
+	 * algorithm, otherwise solves and caches the result
+	 *
+	 * @param options algorithm and every option that changes its result
+	 * @param solve
+	 * @return result
+	 */
+	private TspResult cached(String options, Supplier<TspResult> solve) {
+		return cache == null ? solve.get() : cache.computeIfAbsent(distances, cities, depot, options, solve);
+	}
+
+	/**
+	 * Gets the time a solve starts, only read from the clock when metrics are on
+	 *
+	 * @return nanoseconds
+	 */
+	private long startTime() {
+		return metrics == null ? 0L : System.nanoTime();
+	}
+
+	/**
+	 * Adds the counts of a finished solve to the metrics, if they are on
+	 *
+	 * @param result
+	 * @param start       from {@link #startTime()}
+	 * @param expanded
+	 * @param pruned
+	 * @param routeCosts
+	 * @param incumbents
+	 * @param timeToFirst nanoseconds, negative if no route was found
+	 * @param timeToBest  nanoseconds, negative if no route was found
+	 * @return result
+	 */
+	private TspResult record(TspResult result, long start, long expanded, long pruned, long routeCosts,
+			long incumbents, long timeToFirst, long timeToBest) {
+		if (metrics != null) {
+			metrics.record(result.getAlgorithm(), System.nanoTime() - start, expanded, pruned, routeCosts, incumbents,
+					timeToFirst, timeToBest);
+		}
+		return result;
+	}
+
+	private TspResult record(TspResult result, long start, BranchAndBoundSolver solver) {
+		return record(result, start, solver.getNodesExpanded(), solver.getNodesPruned(), 0,
+				solver.getIncumbentUpdates(), solver.getTimeToFirstSolution(), solver.getTimeToBestSolution());
+	}
+
+	/**
+	 * Adds the counts of an algorithm whose route is only known at the end, so the
+	 * first and best routes are found when it finishes
+	 */
+	private TspResult recordAtEnd(TspResult result, long start, long incumbents) {
+		if (metrics != null) {
+			long elapsed = System.nanoTime() - start;
+			metrics.record(result.getAlgorithm(), elapsed, 0, 0, 0, result.isFound() ? incumbents : 0,
+					result.isFound() ? elapsed : -1, result.isFound() ? elapsed : -1);
+		}
+		return result;
+	}
+
+	private int getTourCost(int[] tour) {
+		int cost = 0;
+		for (int i = 0; i < tour.length - 1; i++) {
+			cost += distances.getWeight(tour[i], tour[i + 1]);
+		}
+		return cost;
+	}
+
+	// Mutator functions
+
+	public DistanceMatrix getDistances() {
+		return distances;
+	}
+
+	public List<City> getCities() {
+		return cities;
+	}
+
+	public City getDepot() {
+		return cities.get(depot);
+	}
+
+	/**
+	 * Gets the metrics this solver records into
+	 *
+	 * @return metrics, null when metrics are off
+	 */
+	public SolverMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Gets the cache this solver answers from
+	 *
+	 * @return cache, null when results are not cached
+	 */
+	public SolveCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * State of one brute force or branch and bound run over lists of cities
+	 */
+	private final class Permutations {
+		private final boolean isBruteForce;
+		// Routes cost the same both ways, so brute force can skip mirror images
+		private final boolean skipMirrors;
+		private final List<Route> permutations;
+		private int cheapestCost = Integer.MAX_VALUE;
+		private Route cheapestRoute;
+		private long complete;
+
+		// Counted for the metrics, cheap enough to count whether they are on or not,
+		// but the clock is only read when they are on
+		private final long startTime = startTime();
+		private long nodes;
+		private long pruned;
+		private long routeCostCalls;
+		private long incumbentUpdates;
+		private long timeToFirst = -1;
+		private long timeToBest = -1;
+
+		Permutations(boolean isBruteForce, List<Route> permutations) {
+			this.isBruteForce = isBruteForce;
+			this.skipMirrors = isBruteForce && distances.isSymmetric();
+			this.permutations = permutations;
+		}
+
+		void run() {
+			// Remove the depot from permutations as always start and end
+			List<Integer> cityNums = new ArrayList<Integer>();
+			for (int i = 0; i < cities.size(); i++) {
+				if (i != depot) {
+					cityNums.add(i);
+				}
+			}
+			permute(new Route(), cityNums);
+		}
+
+		/**
+		 * Generates all permutations in lexicographic order, pruning against the
+		 * best so far unless this is brute force
+		 *
+		 * @param r
+		 * @param notVisited
+		 */
+		private void permute(Route r, List<Integer> notVisited) {
+			nodes++;
+			if (!notVisited.isEmpty()) {
+
+				for (int i = 0; i < notVisited.size(); i++) {
+					// Pointer to first city in list
+					int temp = notVisited.remove(0);
+
+					Route newRoute = new Route();
+					// Lazy copy
+					for (City c1 : r.getRoute()) {
+						newRoute.getRoute().add(c1);
+					}
+
+					// Add the first city from notVisited to the route
+					newRoute.getRoute().add(cities.get(temp));
+
+					// Without a best so far cheapestCost is Integer.MAX_VALUE so every route is kept
+					if (isBruteForce || routeCost(newRoute) < cheapestCost) {
+						// Current route cost is less than the best so far so keep permuting
+						permute(newRoute, notVisited);
+					} else {
+						pruned++;
+					}
+					// Add first city back into notVisited list
+					notVisited.add(temp);
+				}
+			} else {
+				List<City> route = r.getRoute();
+				if (skipMirrors && route.size() > 1
+						&& route.get(0).getID() > route.get(route.size() - 1).getID()) {
+					// The same route backwards was or will be generated
+					return;
+				}
+
+				// Route is complete, add the depot to start and end of route
+				r.getRoute().add(0, cities.get(depot));
+				r.getRoute().add(cities.get(depot));
+
+				complete++;
+				if (permutations != null) {
+					permutations.add(r);
+				}
+
+				// If shorter than best so far, update best cost
+				int cost = routeCost(r);
+				if (cost < cheapestCost) {
+					cheapestRoute = r;
+					cheapestCost = cost;
+					improved();
+				}
+			}
+		}
+
+		int routeCost(Route r) {
+			routeCostCalls++;
+			return getRouteCost(r);
+		}
+
+		void improved() {
+			if (metrics != null) {
+				timeToBest = System.nanoTime() - startTime;
+			}
+			if (incumbentUpdates++ == 0) {
+				timeToFirst = timeToBest;
+			}
+		}
+
+		TspResult finish(String algorithm) {
+			// Without a route cheapestCost is still a lower bound, every route costs at least it
+			TspResult result = new TspResult(algorithm, cheapestRoute == null ? null : cheapestRoute.getRoute(),
+					cheapestCost, complete, 0, true, cheapestCost);
+			if (metrics != null) {
+				metrics.record(algorithm, System.nanoTime() - startTime, nodes, pruned, routeCostCalls,
+						incumbentUpdates, timeToFirst, timeToBest);
+			}
+			return result;
+		}
+	}
+}
@@ -0,0 +1,280 @@
+package TSP;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Reads TSP and ATSP instances in the TSPLIB format. Supports EXPLICIT matrices
+ * in every full, upper and lower row format, and EUC_2D, MAN_2D and GEO
+ * coordinates, with distances rounded the way TSPLIB defines them. Coordinate
+ * instances of more than 8192 cities are not turned into a matrix, their
+ * distances are computed when needed by {@link CoordinateDistances}.
+ *
+ * Cities are named by their TSPLIB node number, so node 1 is City1 with ID 0.
+ */
+public final class TsplibReader {
+	// Largest coordinate instance read into a full matrix, 256 MB of ints
+	static final int MAX_MATRIX_CITIES = 8192;
+
+	private TsplibReader() {
+	}
+
+	/**
+	 * Reads an instance from a file
+	 *
+	 * @param file
+	 * @return instance
+	 * @throws IOException if the file cannot be read or is not valid TSPLIB
+	 */
+	public static TspInstance read(Path file) throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+			return read(reader, file.getFileName().toString());
+		}
+	}
+
+	/**
+	 * Reads an instance from TSPLIB text
+	 *
+	 * @param reader
+	 * @param defaultName name used when the file has no NAME entry
+	 * @return instance
+	 * @throws IOException if the text cannot be read or is not valid TSPLIB
+	 */
+	public static TspInstance read(BufferedReader reader, String defaultName) throws IOException {
+		String name = defaultName;
+		int dimension = -1;
+		String weightType = null;
+		String weightFormat = "FULL_MATRIX";
+		double[] x = null;
+		double[] y = null;
+		DistanceMatrix weight = null;
+
+		String line;
+		while ((line = reader.readLine()) != null) {
+			line = line.trim();
+			if (line.isEmpty()) {
+				continue;
+			}
+			if (line.equals("EOF")) {
+				break;
+			}
+
+			// Specification lines are "KEY : VALUE", sections are a keyword on their own
+			int colon = line.indexOf(':');
+			String key = (colon < 0 ? line : line.substring(0, colon)).trim().toUpperCase(Locale.ROOT);
+			String value = colon < 0 ? "" : line.substring(colon + 1).trim();
+
+			switch (key) {
+				case "NAME":
+					name = value;
+					break;
+				case "TYPE":
+					if (!value.startsWith("TSP") && !value.startsWith("ATSP")) {
+						throw new IOException("Unsupported problem type " + value);
+					}
+					break;
+				case "DIMENSION":
+					dimension = parseInt(value);
+					break;
+				case "EDGE_WEIGHT_TYPE":
+					weightType = value.toUpperCase(Locale.ROOT);
+					break;
+				case "EDGE_WEIGHT_FORMAT":
+					weightFormat = value.toUpperCase(Locale.ROOT);
+					break;
+				case "NODE_COORD_SECTION":
+					requireDimension(dimension);
+					x = new double[dimension];
+					y = new double[dimension];
+					readCoordinates(reader, x, y);
+					break;
+				case "EDGE_WEIGHT_SECTION":
+					requireDimension(dimension);
+					weight = readExplicit(reader, dimension, weightFormat);
+					break;
+				case "DISPLAY_DATA_SECTION":
+					requireDimension(dimension);
+					// Only used for drawing, one line per node
+					for (int i = 0; i < dimension; i++) {
+						reader.readLine();
+					}
+					break;
+				default:
+					// COMMENT, CAPACITY, DISPLAY_DATA_TYPE and other entries do not affect distances
+					break;
+			}
+		}
+
+		requireDimension(dimension);
+		if (weightType == null) {
+			throw new IOException("Missing EDGE_WEIGHT_TYPE");
+		}
+		switch (weightType) {
+			case "EXPLICIT":
+				if (weight == null) {
+					throw new IOException("Missing EDGE_WEIGHT_SECTION");
+				}
+				break;
+			case "EUC_2D":
+			case "MAN_2D":
+			case "GEO":
+				if (x == null) {
+					throw new IOException("Missing NODE_COORD_SECTION");
+				}
+				DistanceMetric metric = weightType.equals("GEO") ? DistanceMetric.GEO
+						: weightType.equals("MAN_2D") ? DistanceMetric.MANHATTAN : DistanceMetric.EUCLIDEAN;
+				weight = coordinateDistances(metric, x, y);
+				break;
+			default:
+				throw new IOException("Unsupported EDGE_WEIGHT_TYPE " + weightType);
+		}
+
+		return new TspInstance(name, weight, TspInstance.numberedCities(dimension, 1));
+	}
+
+	private static void requireDimension(int dimension) throws IOException {
+		if (dimension < 1) {
+			throw new IOException("Missing DIMENSION before the data sections");
+		}
+	}
+
+	private static int parseInt(String value) throws IOException {
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			throw new IOException("Not a number: " + value, e);
+		}
+	}
+
+	private static double parseDouble(String value) throws IOException {
+		try {
+			return Double.parseDouble(value);
+		} catch (NumberFormatException e) {
+			throw new IOException("Not a number: " + value, e);
+		}
+	}
+
+	/**
+	 * Reads "node x y" lines, nodes numbered from 1
+	 */
+	private static void readCoordinates(BufferedReader reader, double[] x, double[] y) throws IOException {
+		for (int read = 0; read < x.length; read++) {
+			String line = reader.readLine();
+			if (line == null) {
+				throw new IOException("NODE_COORD_SECTION ends after " + read + " of " + x.length + " nodes");
+			}
+			String[] parts = line.trim().split("\\s+");
+			if (parts.length < 3) {
+				throw new IOException("Expected \"node x y\" but got: " + line);
+			}
+			int node = parseInt(parts[0]);
+			if (node < 1 || node > x.length) {
+				throw new IOException("Node " + node + " is outside 1.." + x.length);
+			}
+			x[node - 1] = parseDouble(parts[1]);
+			y[node - 1] = parseDouble(parts[2]);
+		}
+	}
+
+	/**
+	 * Reads the numbers of an EDGE_WEIGHT_SECTION, which may be spread over lines
+	 * in any way, into a full matrix
+	 */
+	private static Weight readExplicit(BufferedReader reader, int size, String format) throws IOException {
+		Weight weight = new Weight(size);
+		long expected;
+		switch (format) {
+			case "FULL_MATRIX":
+				expected = (long) size * size;
+				break;
+			case "UPPER_ROW":
+			case "LOWER_ROW":
+				expected = (long) size * (size - 1) / 2;
+				break;
+			case "UPPER_DIAG_ROW":
+			case "LOWER_DIAG_ROW":
+				expected = (long) size * (size + 1) / 2;
+				break;
+			default:
+				throw new IOException("Unsupported EDGE_WEIGHT_FORMAT " + format);
+		}
+
+		// Row and column of the next number
+		int i = 0;
+		int j = firstColumn(format, 0);
+		// LOWER_ROW has nothing in the first row
+		if (j > lastColumn(format, i, size)) {
+			i++;
+			j = firstColumn(format, i);
+		}
+		long read = 0;
+		while (read < expected) {
+			String line = reader.readLine();
+			if (line == null) {
+				throw new IOException("EDGE_WEIGHT_SECTION ends after " + read + " of " + expected + " weights");
+			}
+			for (String token : line.trim().split("\\s+")) {
+				if (token.isEmpty() || read == expected) {
+					continue;
+				}
+				int value = parseInt(token);
+				weight.setWeight(i, j, value);
+				if (!format.equals("FULL_MATRIX")) {
+					weight.setWeight(j, i, value);
+				}
+				read++;
+
+				j++;
+				if (j > lastColumn(format, i, size)) {
+					i++;
+					j = firstColumn(format, i);
+				}
+			}
+		}
+		return weight;
+	}
+
+	private static int firstColumn(String format, int row) {
+		switch (format) {
+			case "UPPER_ROW":
+				return row + 1;
+			case "UPPER_DIAG_ROW":
+				return row;
+			default:
+				return 0;
+		}
+	}
+
+	private static int lastColumn(String format, int row, int size) {
+		switch (format) {
+			case "LOWER_ROW":
+				return row - 1;
+			case "LOWER_DIAG_ROW":
+				return row;
+			default:
+				return size - 1;
+		}
+	}
+
+	/**
+	 * Builds the distances of a coordinate instance, as a full matrix when it is
+	 * small enough and otherwise computed from the coordinates on demand
+	 */
+	private static DistanceMatrix coordinateDistances(DistanceMetric metric, double[] x, double[] y) {
+		if (x.length > MAX_MATRIX_CITIES) {
+			return new CoordinateDistances(metric, x, y);
+		}
+		CoordinateDistances coordinates = new CoordinateDistances(metric, x, y);
+		Weight weight = new Weight(x.length);
+		for (int i = 0; i < x.length; i++) {
+			for (int j = 0; j < x.length; j++) {
+				weight.setWeight(i, j, coordinates.getWeight(i, j));
+			}
+		}
+		return weight;
+	}
+}
@@ -1,72 +1,205 @@
 package TSP;
 
-public class Weight{
-    private Integer[][] values;
+/**
+ * Distance matrix stored row-major in a flat int[] so lookups are a single
+ * primitive array access instead of unboxing through Integer[][]
+ */
+public class Weight implements DistanceMatrix {
+    // Approximate size of an array object header on a 64-bit JVM
+    static final long ARRAY_HEADER_BYTES = 16;
+
+    private final int size;
+    protected final int[] values; // values[index(i, j)] is the cost of i -> j
+
+    // Largest index built so far, dropped when a mutator may change the order of neighbours
+    private volatile NeighbourIndex neighbourIndex;
+    // Bumped by every mutator
+    private volatile long version;
+    // Fingerprint of the values at fingerprintVersion, -1 before the first
+    private long fingerprint;
+    private volatile long fingerprintVersion = -1;
 
     public Weight(int size) {
-        this.values = new Integer[size][size];
+        this(size, (long) size * size);
+    }
+
+    /**
+     * Constructor for subclasses that store the matrix in another layout
+     *
+     * @param size
+     * @param length number of values stored
+     */
+    protected Weight(int size, long length) {
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("A " + size + " city matrix does not fit into one array");
+        }
+        this.size = size;
+        this.values = new int[(int) length];
     }
 
     public Weight(Integer[][] values) {
-        this.values = values;
+        this(values.length);
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                // Unset cells of a boxed matrix are treated as 0
+                this.values[i * size + j] = values[i][j] == null ? 0 : values[i][j];
+            }
+        }
+    }
+
+    public Weight(int[][] values) {
+        this(values.length);
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(values[i], 0, this.values, i * size, size);
+        }
     }
 
+    /**
+     * Gets a boxed copy of the matrix. Changes to the copy do not affect this Weight.
+     *
+     * @return values
+     */
     public Integer[][] getWeight(){
-        return this.values;
+        Integer[][] boxed = new Integer[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                boxed[i][j] = values[index(i, j)];
+            }
+        }
+        return boxed;
     }
+
+    @Override
     public int getSize() {
-        return values.length;
+        return size;
     }
 
+    @Override
     public int getWeight(int i, int j) {
-        return values[i][j];
+        return values[index(i, j)];
     }
 
     public void setWeight(int i, int j, int value) {
-        values[i][j] = value;
+        values[index(i, j)] = value;
+        neighbourIndex = null;
+        changed();
+    }
+
+    /**
+     * Records that values changed, for subclasses that write values directly
+     */
+    protected void changed() {
+        version++;
+    }
+
+    /**
+     * Gets the number of changes made through the mutators
+     *
+     * @return version
+     */
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the fingerprint of the distances, hashed again only after a mutator
+     * has changed them
+     *
+     * @return fingerprint
+     */
+    @Override
+    public long getFingerprint() {
+        long current = version;
+        if (fingerprintVersion != current) {
+            fingerprint = XxHash64.of(this);
+            fingerprintVersion = current;
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Gets the position of the cost of i -> j in values
+     *
+     * @param i
+     * @param j
+     * @return index
+     */
+    protected int index(int i, int j) {
+        return i * size + j;
+    }
+
+    @Override
+    public long getMemoryFootprint() {
+        return ARRAY_HEADER_BYTES + (long) Integer.BYTES * values.length;
+    }
+
+    /**
+     * Gets the k nearest cities of every city. The largest index built is kept
+     * while the matrix has not been changed, and smaller k are served as prefixes
+     * of it, so solvers asking for different k share one index.
+     *
+     * @param k
+     * @return index
+     */
+    @Override
+    public NeighbourIndex getNeighbourIndex(int k) {
+        NeighbourIndex index = neighbourIndex;
+        if (index == null || index.getK() < Math.min(k, size - 1)) {
+            index = new NeighbourIndex(this, k);
+            neighbourIndex = index;
+        }
+        return index.prefix(k);
     }
 
     public void multiplyByM(int m){
-        for (int i = 0; i < values.length; i++) {
-            for (int j = 0; j < values[i].length; j++) {
-                values[i][j] *= m;
-            }
+        for (int k = 0; k < values.length; k++) {
+            values[k] *= m;
+        }
+        changed();
+        // Scaling by a positive m keeps every row in the same order
+        if (m <= 0) {
+            neighbourIndex = null;
         }
     }
     public void addExtraToPos(int extra, int[] pos){
-        values[pos[0]][pos[1]] += extra;
+        values[index(pos[0], pos[1])] += extra;
+        neighbourIndex = null;
+        changed();
     }
 
     public void subtractExtraFromPos(int extra, int[] pos){
-        values[pos[0]][pos[1]] -= extra;
+        values[index(pos[0], pos[1])] -= extra;
+        neighbourIndex = null;
+        changed();
     }
 
+    /**
+     * Adds extra to every edge. The same amount is added to every entry of a
+     * row, so cached neighbours stay valid.
+     *
+     * @param extra
+     */
     public void addExtraToAll(int extra){
-        for (int i = 0; i < values.length; i++) {
-            for (int j = 0; j < values[i].length; j++) {
-                if (i != j){
-                    values[i][j] += extra;
-                }
+        for (int k = 0; k < values.length; k++) {
+            // Skip the diagonal
+            if (k % (size + 1) != 0){
+                values[k] += extra;
             }
         }
+        changed();
     }
 
     public void subtractExtraFromAll(int extra){
-        for (int i = 0; i < values.length; i++) {
-            for (int j = 0; j < values[i].length; j++) {
-                if (i != j){
-                    values[i][j] -= extra;
-                }
-            }
-        }
+        addExtraToAll(-extra);
     }
 
     @Override
     public String toString(){
         StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < values.length; i++) {
-            for (int j = 0; j < values[i].length; j++) {
-                sb.append(values[i][j]).append("\t");
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                sb.append(values[index(i, j)]).append("\t");
             }
             sb.append("\n");
         }
@@ -0,0 +1,122 @@
+package TSP;
+
+/**
+ * XXH64 of a stream of ints, each taken as 4 little-endian bytes, so the hash
+ * is the same as xxHash64 of the int data written out as bytes. Used to
+ * fingerprint distance matrices, where hashing has to be much cheaper than
+ * solving.
+ */
+final class XxHash64 {
+	private static final long PRIME1 = 0x9E3779B185EBCA87L;
+	private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+	private static final long PRIME3 = 0x165667B19E3779F9L;
+	private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+	private static final long PRIME5 = 0x27D4EB2F165667C5L;
+
+	private final long seed;
+	private long v1;
+	private long v2;
+	private long v3;
+	private long v4;
+	// Ints of the current 32 byte stripe not yet mixed in
+	private final int[] pending = new int[8];
+	private int pendingCount;
+	private long length; // Bytes hashed so far
+
+	XxHash64(long seed) {
+		this.seed = seed;
+		this.v1 = seed + PRIME1 + PRIME2;
+		this.v2 = seed + PRIME2;
+		this.v3 = seed;
+		this.v4 = seed - PRIME1;
+	}
+
+	/**
+	 * Hashes every distance of a matrix, row by row
+	 *
+	 * @param distances
+	 * @return hash
+	 */
+	static long of(DistanceMatrix distances) {
+		XxHash64 hash = new XxHash64(0L);
+		int size = distances.getSize();
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				hash.update(distances.getWeight(i, j));
+			}
+		}
+		return hash.digest();
+	}
+
+	/**
+	 * Hashes a long as two ints, low half first, the same bytes as the long
+	 * written out little-endian
+	 *
+	 * @param value
+	 */
+	void update(long value) {
+		update((int) value);
+		update((int) (value >>> 32));
+	}
+
+	void update(int value) {
+		pending[pendingCount++] = value;
+		length += Integer.BYTES;
+		if (pendingCount == pending.length) {
+			v1 = round(v1, lane(0));
+			v2 = round(v2, lane(2));
+			v3 = round(v3, lane(4));
+			v4 = round(v4, lane(6));
+			pendingCount = 0;
+		}
+	}
+
+	long digest() {
+		long h;
+		if (length >= 32) {
+			h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+			h = merge(h, v1);
+			h = merge(h, v2);
+			h = merge(h, v3);
+			h = merge(h, v4);
+		} else {
+			h = seed + PRIME5;
+		}
+		h += length;
+
+		int i = 0;
+		for (; i + 1 < pendingCount; i += 2) {
+			h ^= round(0, lane(i));
+			h = Long.rotateLeft(h, 27) * PRIME1 + PRIME4;
+		}
+		if (i < pendingCount) {
+			h ^= (pending[i] & 0xFFFFFFFFL) * PRIME1;
+			h = Long.rotateLeft(h, 23) * PRIME2 + PRIME3;
+		}
+
+		h ^= h >>> 33;
+		h *= PRIME2;
+		h ^= h >>> 29;
+		h *= PRIME3;
+		h ^= h >>> 32;
+		return h;
+	}
+
+	/**
+	 * Reads two pending ints as one little-endian 8 byte lane
+	 */
+	private long lane(int i) {
+		return (pending[i] & 0xFFFFFFFFL) | ((long) pending[i + 1] << 32);
+	}
+
+	private static long round(long acc, long input) {
+		acc += input * PRIME2;
+		acc = Long.rotateLeft(acc, 31);
+		return acc * PRIME1;
+	}
+
+	private static long merge(long acc, long value) {
+		acc ^= round(0, value);
+		return acc * PRIME1 + PRIME4;
+	}
+}
@@ -0,0 +1,119 @@
+package TSPTest;
+
+import net.jqwik.api.*;
+import org.assertj.core.api.Assertions;
+
+import TSP.MappedDistanceMatrix;
+import TSP.TspInstance;
+import TSP.TsplibReader;
+import TSP.Weight;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.IntStream;
+
+public class TSPLoaderProperties {
+
+    // TESTING TsplibReader.java and MappedDistanceMatrix.java ==========================================================
+
+    @Property
+    @Report(Reporting.GENERATED)
+    void binaryMatrixRoundTrip(@ForAll("matrixGenerator") Integer[][] values, @ForAll("multiplier") int multiplier)
+            throws IOException {
+        Weight weight = new Weight(values);
+        // large enough to need int values for some matrices
+        weight.multiplyByM(multiplier);
+
+        Path file = Files.createTempFile("matrix", ".tspm");
+        try {
+            MappedDistanceMatrix.write(weight, file);
+            TspInstance instance = TspInstance.load(file);
+
+            Assertions.assertThat(instance.getCities()).hasSize(values.length);
+            for (int i = 0; i < values.length; i++) {
+                for (int j = 0; j < values.length; j++) {
+                    Assertions.assertThat(instance.getDistances().getWeight(i, j)).isEqualTo(weight.getWeight(i, j));
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Property
+    @Report(Reporting.GENERATED)
+    void explicitTsplibFormatsRoundTrip(@ForAll("matrixGenerator") Integer[][] values,
+                                        @ForAll("weightFormat") String format) throws IOException {
+        int size = values.length;
+        // the triangle formats describe symmetric matrices
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < i; j++) {
+                values[i][j] = values[j][i];
+            }
+        }
+
+        StringBuilder text = new StringBuilder("NAME: generated\nTYPE: TSP\nDIMENSION: " + size
+                + "\nEDGE_WEIGHT_TYPE: EXPLICIT\nEDGE_WEIGHT_FORMAT: " + format + "\nEDGE_WEIGHT_SECTION\n");
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                boolean written = format.equals("FULL_MATRIX")
+                        || (format.equals("UPPER_ROW") && j > i) || (format.equals("LOWER_ROW") && j < i)
+                        || (format.equals("UPPER_DIAG_ROW") && j >= i) || (format.equals("LOWER_DIAG_ROW") && j <= i);
+                if (written) {
+                    text.append(values[i][j]).append(' ');
+                }
+            }
+            text.append('\n');
+        }
+        text.append("EOF\n");
+
+        TspInstance instance = TsplibReader.read(new BufferedReader(new StringReader(text.toString())), "unnamed");
+
+        Assertions.assertThat(instance.getName()).isEqualTo("generated");
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                Assertions.assertThat(instance.getDistances().getWeight(i, j)).isEqualTo(values[i][j]);
+            }
+        }
+    }
+
+    @Example
+    void burma14HasPublishedOptimum() throws IOException {
+        String text = "NAME: burma14\nTYPE: TSP\nDIMENSION: 14\nEDGE_WEIGHT_TYPE: GEO\nNODE_COORD_SECTION\n"
+                + "1 16.47 96.10\n2 16.47 94.44\n3 20.09 92.54\n4 22.39 93.37\n5 25.23 97.24\n"
+                + "6 22.00 96.05\n7 20.47 97.02\n8 17.20 96.29\n9 16.30 97.38\n10 14.05 98.12\n"
+                + "11 16.53 97.38\n12 21.52 95.59\n13 19.41 97.13\n14 20.09 94.55\nEOF\n";
+
+        TspInstance instance = TsplibReader.read(new BufferedReader(new StringReader(text)), "unnamed");
+
+        Assertions.assertThat(instance.solver().heldKarp().getCost()).isEqualTo(3323);
+    }
+
+    //GENERATORS------------------------------------------------------------
+    @Provide
+    Arbitrary<Integer[][]> matrixGenerator() {
+        int size = 10;
+
+        return Arbitraries.integers().between(1, 500)
+                .array(Integer[].class).ofSize(size)
+                .array(Integer[][].class).ofSize(size)
+                .map(m -> {
+                    // place 0's at diagonal
+                    IntStream.range(0, size).forEach(i -> m[i][i] = 0);
+                    return m;
+                });
+    }
+
+    @Provide
+    Arbitrary<Integer> multiplier() {
+        return Arbitraries.of(1, 1000);
+    }
+
+    @Provide
+    Arbitrary<String> weightFormat() {
+        return Arbitraries.of("FULL_MATRIX", "UPPER_ROW", "LOWER_ROW", "UPPER_DIAG_ROW", "LOWER_DIAG_ROW");
+    }
+}
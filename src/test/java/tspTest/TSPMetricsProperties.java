@@ -0,0 +1,91 @@
+package TSPTest;
+
+import net.jqwik.api.*;
+import org.assertj.core.api.Assertions;
+
+import TSP.BranchAndBoundSolver;
+import TSP.City;
+import TSP.LatencyHistogram;
+import TSP.SolverMetrics;
+import TSP.SolverStats;
+import TSP.TspResult;
+import TSP.TspSolver;
+import TSP.Weight;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+public class TSPMetricsProperties {
+
+    // TESTING LatencyHistogram.java and SolverMetrics.java ============================================================
+
+    @Property
+    @Report(Reporting.GENERATED)
+    void histogramPercentilesWithinOnePercent(@ForAll("durations") List<Long> durations) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long d : durations) {
+            histogram.record(d);
+        }
+        List<Long> sorted = new ArrayList<>(durations);
+        Collections.sort(sorted);
+
+        Assertions.assertThat(histogram.getCount()).isEqualTo((long) durations.size());
+        Assertions.assertThat(histogram.getMin()).isEqualTo(sorted.get(0));
+        Assertions.assertThat(histogram.getMax()).isEqualTo(sorted.get(sorted.size() - 1));
+        for (double percentile : new double[] { 0, 25, 50, 90, 99, 100 }) {
+            long exact = sorted.get(Math.max(0, (int) Math.ceil(percentile / 100 * sorted.size()) - 1));
+            // reported as the highest value of the exact value's bucket, never below it
+            Assertions.assertThat(histogram.getValueAtPercentile(percentile)).isBetween(exact, exact + exact / 100);
+        }
+    }
+
+    @Property
+    @Report(Reporting.GENERATED)
+    void metricsCountEverySolve(@ForAll("matrixGenerator") Integer[][] values) {
+        Weight distances = new Weight(values);
+        List<City> cities = new ArrayList<>();
+        for (int i = 0; i < values.length; i++) {
+            cities.add(new City("City" + i, i, false));
+        }
+        SolverMetrics metrics = new SolverMetrics();
+        TspSolver solver = new TspSolver(distances, cities, metrics);
+        BranchAndBoundSolver expected = new BranchAndBoundSolver(distances);
+        expected.setInitialTour(solver.nearestNeighbour().getTour());
+        expected.solve();
+
+        TspResult result = solver.branchAndBound();
+        solver.branchAndBound();
+        SolverStats stats = metrics.getStats("branchAndBound");
+
+        Assertions.assertThat(stats.getSolves()).isEqualTo(2L);
+        Assertions.assertThat(stats.getLatency().getCount()).isEqualTo(2L);
+        Assertions.assertThat(stats.getIncumbentUpdates()).isGreaterThanOrEqualTo(2L);
+        Assertions.assertThat(stats.getTimeToBestSolution().getMax()).isLessThanOrEqualTo(stats.getLatency().getMax());
+        Assertions.assertThat(stats.getPruneRate()).isBetween(0.0, 1.0);
+        // only the solve above, branch and bound builds its starting route without recording it
+        Assertions.assertThat(metrics.getStats("nearestNeighbour").getSolves()).isEqualTo(1L);
+        Assertions.assertThat(result.getCost()).isEqualTo(expected.getBestCost());
+    }
+
+    //GENERATORS------------------------------------------------------------
+    @Provide
+    Arbitrary<List<Long>> durations() {
+        return Arbitraries.longs().between(0L, LatencyHistogram.HIGHEST_TRACKABLE_VALUE).list().ofMinSize(1).ofMaxSize(500);
+    }
+
+    @Provide
+    Arbitrary<Integer[][]> matrixGenerator() {
+        int size = 9;
+
+        return Arbitraries.integers().between(1, 500)
+                .array(Integer[].class).ofSize(size)
+                .array(Integer[][].class).ofSize(size)
+                .map(m -> {
+                    // place 0's at diagonal
+                    IntStream.range(0, size).forEach(i -> m[i][i] = 0);
+                    return m;
+                });
+    }
+}
@@ -7,8 +7,13 @@ import net.jqwik.api.constraints.StringLength;
 import org.assertj.core.api.Assertions;
 
 import TSP.City;
+import TSP.GeneticSolver;
 import TSP.Route;
+import TSP.SymmetricWeight;
 import TSP.TSP;
+import TSP.Tour;
+import TSP.TourCostEvaluator;
+import TSP.Weight;
 
 import java.util.*;
 import java.util.stream.*;
@@ -60,6 +65,156 @@ public class TSPRouteProperties {
         Assertions.assertThat(route.getRoute()).isEqualTo(newRoute);
     }
 
+    // TESTING Tour.java ================================================================================================
+    @Property
+    @Report(Reporting.GENERATED)
+    void tourRoundTripsThroughRoute(@ForAll @IntRange(min = 2, max = 12) int size, @ForAll long seed) {
+        Random random = new Random(seed);
+        Weight distances = randomMatrix(size, random, false);
+        List<City> cities = namedCities(size);
+        int[] closedTour = randomTour(size, random);
+
+        Tour tour = Tour.of(closedTour, distances);
+        Route route = tour.toRoute(cities);
+
+        Assertions.assertThat(Tour.of(route, distances)).isEqualTo(tour);
+        Assertions.assertThat(tour.toArray()).isEqualTo(closedTour);
+        Assertions.assertThat(tour.getCost()).isEqualTo(cost(closedTour, distances));
+        Assertions.assertThat(tour.format(cities)).isEqualTo(route.toString());
+    }
+
+    @Property
+    @Report(Reporting.GENERATED)
+    void rotatedAndReversedToursKeepTheirCost(@ForAll @IntRange(min = 2, max = 12) int size, @ForAll long seed,
+                                              @ForAll boolean symmetric, @ForAll int positions) {
+        Random random = new Random(seed);
+        Weight distances = randomMatrix(size, random, symmetric);
+        Tour tour = Tour.of(randomTour(size, random), distances);
+
+        Tour rotated = tour.rotate(positions);
+        Tour reversed = tour.reversed();
+
+        Assertions.assertThat(rotated.getCost()).isEqualTo(tour.getCost());
+        Assertions.assertThat(rotated.getStartCity()).isEqualTo(tour.getCity(Math.floorMod(positions, size)));
+        Assertions.assertThat(rotated.startingAt(tour.getStartCity())).isEqualTo(tour);
+        Assertions.assertThat(reversed.getCost()).isEqualTo(cost(reversed.toArray(), distances));
+        Assertions.assertThat(reversed.reversed()).isEqualTo(tour);
+    }
+
+    @Property
+    @Report(Reporting.GENERATED)
+    void reverseSegmentMatchesRepricing(@ForAll @IntRange(min = 3, max = 12) int size, @ForAll long seed,
+                                        @ForAll boolean symmetric) {
+        Random random = new Random(seed);
+        Weight distances = randomMatrix(size, random, symmetric);
+        Tour tour = Tour.of(randomTour(size, random), distances).rotate(random.nextInt(size));
+        int from = 1 + random.nextInt(size - 1);
+        int to = from + random.nextInt(size - from);
+
+        Tour moved = tour.reverseSegment(from, to, distances);
+
+        Assertions.assertThat(moved.getCost()).isEqualTo(cost(moved.toArray(), distances));
+        Assertions.assertThat(moved.getStartCity()).isEqualTo(tour.getStartCity());
+        if (symmetric) {
+            Assertions.assertThat(moved.getCost() - tour.getCost()).isEqualTo(tour.twoOptDelta(from, to, distances));
+        }
+    }
+
+    // TESTING TourCostEvaluator.java ===================================================================================
+    @Property
+    @Report(Reporting.GENERATED)
+    void batchCostsMatchTourCosts(@ForAll @IntRange(min = 1, max = 80) int size,
+                                  @ForAll @IntRange(min = 1, max = 8) int count, @ForAll long seed) {
+        Random random = new Random(seed);
+        Weight distances = randomMatrix(size, random, random.nextBoolean());
+        int stride = size + 1 + random.nextInt(3);
+        int[] tours = new int[count * stride];
+        long[] expected = new long[count];
+        for (int t = 0; t < count; t++) {
+            int[] closedTour = randomTour(size, random);
+            System.arraycopy(closedTour, 0, tours, t * stride, size + 1);
+            expected[t] = cost(closedTour, distances);
+        }
+        TourCostEvaluator evaluator = new TourCostEvaluator(distances);
+        long[] costs = new long[count];
+
+        evaluator.costs(tours, stride, count, costs);
+        Assertions.assertThat(costs).isEqualTo(expected);
+
+        // the vector and scalar sums agree when this JVM has both
+        if (TourCostEvaluator.isVectorAvailable()) {
+            evaluator.setVectorised(!evaluator.isVectorised());
+            evaluator.costs(tours, stride, count, costs);
+            Assertions.assertThat(costs).isEqualTo(expected);
+        }
+    }
+
+    @Property
+    @Report(Reporting.GENERATED)
+    void evaluatorIsReusedUntilTheMatrixChanges(@ForAll @IntRange(min = 3, max = 20) int size, @ForAll long seed) {
+        Random random = new Random(seed);
+        Weight distances = randomMatrix(size, random, false);
+        TourCostEvaluator evaluator = new TourCostEvaluator(distances);
+        int[] closedTour = randomTour(size, random);
+
+        Assertions.assertThat(evaluator.isCopyOf(distances)).isTrue();
+        Assertions.assertThat(evaluator.isCopyOf(new Weight(distances.getWeight()))).isFalse();
+
+        // a genetic solver given the copy finds the same tour as one making its own
+        GeneticSolver shared = new GeneticSolver(distances);
+        shared.setEvaluator(evaluator);
+        GeneticSolver own = new GeneticSolver(distances);
+        Assertions.assertThat(shared.solve()).isEqualTo(own.solve());
+        Assertions.assertThat(shared.getBestTour()).isEqualTo(own.getBestTour());
+
+        // the copy keeps the old distances, so it is stale after a change
+        distances.addExtraToPos(1 + random.nextInt(50), new int[] {closedTour[0], closedTour[1]});
+        Assertions.assertThat(evaluator.isCopyOf(distances)).isFalse();
+        Assertions.assertThat(new TourCostEvaluator(distances).cost(closedTour)).isEqualTo(cost(closedTour, distances));
+    }
+
+    private static Weight randomMatrix(int size, Random random, boolean symmetric) {
+        Weight distances = symmetric ? new SymmetricWeight(size) : new Weight(size);
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (i != j && (!symmetric || i < j)) {
+                    distances.setWeight(i, j, 1 + random.nextInt(100));
+                }
+            }
+        }
+        return distances;
+    }
+
+    private static int[] randomTour(int size, Random random) {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            order.add(i);
+        }
+        Collections.shuffle(order, random);
+        int[] closedTour = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            closedTour[i] = order.get(i);
+        }
+        closedTour[size] = closedTour[0];
+        return closedTour;
+    }
+
+    private static int cost(int[] closedTour, Weight distances) {
+        int cost = 0;
+        for (int i = 0; i < closedTour.length - 1; i++) {
+            cost += distances.getWeight(closedTour[i], closedTour[i + 1]);
+        }
+        return cost;
+    }
+
+    private static List<City> namedCities(int size) {
+        List<City> cities = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            cities.add(new City("City" + i, i, false));
+        }
+        return cities;
+    }
+
     // custom generator for valid cities
     @Provide
     Arbitrary<City> validCities() {
@@ -1,14 +1,40 @@
 package TSPTest;
 
 import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
 import org.assertj.core.api.Assertions;
 
+import TSP.BatchResult;
+import TSP.BatchSolver;
+import TSP.BoundingStrategy;
+import TSP.BranchAndBoundSolver;
+import TSP.CancellationToken;
+import TSP.DistanceMatrix;
 import TSP.City;
+import TSP.CoolingSchedule;
+import TSP.Crossover;
+import TSP.GeneticSolver;
+import TSP.IncrementalSolver;
+import TSP.LinKernighanSolver;
+import TSP.NearestNeighbour;
+import TSP.NeighbourIndex;
+import TSP.ParallelBranchAndBound;
 import TSP.Route;
+import TSP.SearchOrder;
+import TSP.SimulatedAnnealingSolver;
+import TSP.SolveCache;
+import TSP.StreamingBruteForce;
+import TSP.SymmetricWeight;
 import TSP.TSP;
+import TSP.TspResult;
+import TSP.TspSolver;
 import TSP.Weight;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -129,6 +155,671 @@ public class TSPSolverProperties {
         Assertions.assertThat(TSP.getRouteCost(newTSP.getBaBcheapestRoute())).isLessThan(maxWeight * 11);
     }
 
+    @Property
+    @Report(Reporting.GENERATED)
+    void testFastBranchAndBoundVisitsEachCityOnce(@ForAll("matrixGenerator") Weight distances) {
+        BranchAndBoundSolver solver = new BranchAndBoundSolver(distances);
+        int cost = solver.solve();
+        int[] tour = solver.getBestTour();
+
+        // closed tour starting and ending at the depot
+        Assertions.assertThat(tour.length).isEqualTo(distances.getSize() + 1);
+        Assertions.assertThat(tour[0]).isEqualTo(solver.getDepot());
+        Assertions.assertThat(tour[tour.length - 1]).isEqualTo(solver.getDepot());
+        Assertions.assertThat(Arrays.stream(tour).distinct().count()).isEqualTo((long) distances.getSize());
+        Assertions.assertThat(cost).isEqualTo(tourCost(distances, tour));
+    }
+
+    @Property
+    @Report(Reporting.GENERATED)
+    void testFastBranchAndBoundIsNoWorseThanAnyTour(@ForAll("matrixGenerator") Weight distances) {
+        int cost = new BranchAndBoundSolver(distances).solve();
+
+        // the depot followed by the other cities in a random order
+        List<Integer> order = IntStream.range(0, distances.getSize() - 1).boxed().collect(Collectors.toList());
+        Collections.shuffle(order);
+        int[] tour = new int[distances.getSize() + 1];
+        tour[0] = distances.getSize() - 1;
+        for (int i = 0; i < order.size(); i++) {
+            tour[i + 1] = order.get(i);
+        }
+        tour[tour.length - 1] = distances.getSize() - 1;
+
+        Assertions.assertThat(cost).isLessThanOrEqualTo(tourCost(distances, tour));
+    }
+
+    @Property
+    @Report(Reporting.GENERATED)
+    void testBoundingStrategiesAgree(@ForAll("matrixGenerator") Weight distances,
+                                     @ForAll BoundingStrategy strategy, @ForAll SearchOrder order) {
+        int expected = new BranchAndBoundSolver(distances).solve();
+
+        BranchAndBoundSolver solver = new BranchAndBoundSolver(distances);
+        solver.setBoundingStrategy(strategy);
+        solver.setSearchOrder(order);
+
+        // a lower bound may only prune, never change the optimum
+        Assertions.assertThat(solver.solve()).isEqualTo(expected);
+        Assertions.assertThat(tourCost(distances, solver.getBestTour())).isEqualTo(expected);
+    }
+
+    @Property
+    @Report(Reporting.GENERATED)
+    void testWarmStartFindsSameCost(@ForAll("matrixGenerator") Weight distances) {
+        TSP.distances = distances; // assigning our generated distance table to the instance
+        TSP.branchAndBound();
+        int cost1 = newTSP.getBaBcheapestCost();
+
+        // starting from the optimum as a known bound still finds a route of that cost
+        TSP.branchAndBound(cost1);
+        int cost2 = newTSP.getBaBcheapestCost();
+
+        Assertions.assertThat(cost2).isEqualTo(cost1);
+        Assertions.assertThat(TSP.getRouteCost(newTSP.getBaBcheapestRoute())).isEqualTo(cost1);
+    }
+
+    @Property
+    @Report(Reporting.GENERATED)
+    void testUpperBoundBelowOptimumFindsNoRoute(@ForAll("matrixGenerator") Weight distances) {
+        BranchAndBoundSolver solver = new BranchAndBoundSolver(distances);
+        int cost = solver.solve();
+
+        solver.setUpperBound(cost - 1);
+
+        Assertions.assertThat(solver.solve()).isEqualTo(Integer.MAX_VALUE);
+        Assertions.assertThat(solver.getBestTour()).isEqualTo(null);
+    }
+
+    @Property
+    @Report(Reporting.GENERATED)
+    void testParallelBranchAndBoundAgrees(@ForAll("matrixGenerator") Weight distances) {
+        int expected = new BranchAndBoundSolver(distances).solve();
+
+        ParallelBranchAndBound solver = new ParallelBranchAndBound(distances);
+
+        Assertions.assertThat(solver.solve()).isEqualTo(expected);
+        Assertions.assertThat(tourCost(distances, solver.getBestTour())).isEqualTo(expected);
+    }
+
+    @Property(tries = 50)
+    @Report(Reporting.GENERATED)
+    void testStreamingBruteForceAgrees(@ForAll("matrixGenerator") Weight distances) {
+        int expected = new BranchAndBoundSolver(distances).solve();
+
+        StreamingBruteForce solver = new StreamingBruteForce(distances, distances.getSize() - 1, 3);
+        int cost = solver.solve();
+        int[] topCosts = solver.getTopCosts();
+
+        Assertions.assertThat(cost).isEqualTo(expected);
+        Assertions.assertThat(tourCost(distances, solver.getBestTour())).isEqualTo(expected);
+        // 9! permutations of the cities other than the depot
+        Assertions.assertThat(solver.getPermutations()).isEqualTo(362880L);
+        Assertions.assertThat(topCosts).isSorted();
+        Assertions.assertThat(topCosts[0]).isEqualTo(expected);
+    }
+
+    @Property(tries = 50)
+    @Report(Reporting.GENERATED)
+    void testStreamingBruteForceSkipsMirrorsOnSymmetricWeight(@ForAll("matrixGenerator") Weight distances) {
+        int expected = new BranchAndBoundSolver(distances).solve();
+
+        StreamingBruteForce solver = new StreamingBruteForce(new SymmetricWeight(distances));
+
+        Assertions.assertThat(solver.solve()).isEqualTo(expected);
+        Assertions.assertThat(solver.getPermutations()).isEqualTo(362880L);
+        // each tour and its mirror image cost the same, only one of them is costed
+        Assertions.assertThat(solver.getToursCosted()).isEqualTo(181440L);
+    }
+
+    @Property
+    @Report(Reporting.GENERATED)
+    void testHeldKarpAgreesWithBranchAndBound(@ForAll("matrixGenerator") Weight distances) {
+        TSP.distances = distances; // assigning our generated distance table to the instance
+        TSP.branchAndBound();
+        int cost1 = newTSP.getBaBcheapestCost();
+
+        Route heldKarpRoute = TSP.heldKarp();
+
+        Assertions.assertThat(TSP.getRouteCost(heldKarpRoute)).isEqualTo(cost1);
+        Assertions.assertThat(heldKarpRoute.getRoute().size() - 1).isEqualTo(distances.getSize());
+    }
+
+    @Property
+    @Report(Reporting.GENERATED)
+    void testLocalSearchNeverWorseThanNearestNeighbour(@ForAll("matrixGenerator") Weight distances) {
+        TSP.distances = distances; // assigning our generated distance table to the instance
+        int nearestCost = TSP.getRouteCost(TSP.nearestNeighbour());
+        TSP.branchAndBound();
+        int optimalCost = newTSP.getBaBcheapestCost();
+
+        Route improved = TSP.nearestNeighbourLocalSearch();
+        List<City> cities = improved.getRoute();
+
+        Assertions.assertThat(TSP.getRouteCost(improved)).isBetween(optimalCost, nearestCost);
+        Assertions.assertThat(cities.get(0).getID()).isEqualTo(distances.getSize() - 1);
+        Assertions.assertThat(new HashSet<>(cities).size()).isEqualTo(distances.getSize());
+    }
+
+    @Property
+    @Report(Reporting.GENERATED)
+    void testCandidateNearestNeighbourMatchesFullScan(@ForAll("matrixGenerator") Weight distances,
+                                                      @ForAll("extraWeight") int k) {
+        int size = distances.getSize();
+        int[] tour = new NearestNeighbour(distances, new NeighbourIndex(distances, k % size)).tour(size - 1);
+
+        // nearest unvisited city by scanning every city, lowest ID on ties
+        boolean[] visited = new boolean[size];
+        visited[size - 1] = true;
+        for (int i = 1; i < size; i++) {
+            int best = -1;
+            for (int city = 0; city < size; city++) {
+                if (!visited[city] && (best < 0
+                        || distances.getWeight(tour[i - 1], city) < distances.getWeight(tour[i - 1], best))) {
+                    best = city;
+                }
+            }
+            visited[best] = true;
+            Assertions.assertThat(tour[i]).isEqualTo(best);
+        }
+    }
+
+    @Property(tries = 50)
+    @Report(Reporting.GENERATED)
+    void testConcurrentSolversAgree(@ForAll("matrixGenerator") Weight distances,
+                                    @ForAll("matrixGenerator") Weight other) throws Exception {
+        List<City> cities = Arrays.asList(VANCOUVER, EDMONTON, CALGARY, WINNIPEG, HAMILTON,
+                TORONTO, KINGSTON, OTTAWA, MONTREAL, HALIFAX);
+        TspSolver solver = new TspSolver(distances, cities);
+        TspSolver otherSolver = new TspSolver(other, cities);
+        int expected = new BranchAndBoundSolver(distances).solve();
+        int otherExpected = new BranchAndBoundSolver(other).solve();
+
+        // solves on two matrices at once must not see each other's state
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<TspResult>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(pool.submit(() -> solver.branchAndBound()));
+                results.add(pool.submit(() -> otherSolver.fastBranchAndBound(BoundingStrategy.ONE_TREE, SearchOrder.DEPTH_FIRST)));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                TspResult result = results.get(i).get();
+                Assertions.assertThat(result.getCost()).isEqualTo(i % 2 == 0 ? expected : otherExpected);
+                Assertions.assertThat(result.getRoute().get(0)).isEqualTo(HALIFAX);
+                Assertions.assertThat(result.getRoute()).hasSize(cities.size() + 1);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Property
+    @Report(Reporting.GENERATED)
+    void testAnytimeBranchAndBoundReportsEachImprovement(@ForAll("matrixGenerator") Weight distances) {
+        int expected = new BranchAndBoundSolver(distances).solve();
+        TspSolver solver = new TspSolver(distances, Arrays.asList(VANCOUVER, EDMONTON, CALGARY, WINNIPEG,
+                HAMILTON, TORONTO, KINGSTON, OTTAWA, MONTREAL, HALIFAX));
+
+        List<Integer> costs = new ArrayList<>();
+        TspResult result = solver.branchAndBound(Duration.ofMinutes(1), new CancellationToken(), (tour, cost) -> {
+            Assertions.assertThat(tourCost(distances, tour)).isEqualTo(cost);
+            costs.add(cost);
+        });
+
+        // with time to spare the search finishes, so the route is the shortest
+        Assertions.assertThat(result.isComplete()).isTrue();
+        Assertions.assertThat(result.getCost()).isEqualTo(expected);
+        Assertions.assertThat(result.getGap()).isEqualTo(0.0);
+        // the nearest neighbour route first, then only cheaper routes, ending at the result
+        Assertions.assertThat(costs.get(0)).isEqualTo(solver.nearestNeighbour().getCost());
+        for (int i = 1; i < costs.size(); i++) {
+            Assertions.assertThat(costs.get(i)).isLessThan(costs.get(i - 1));
+        }
+        Assertions.assertThat(costs.get(costs.size() - 1)).isEqualTo(expected);
+    }
+
+    @Property
+    @Report(Reporting.GENERATED)
+    void testCancelledSolveReturnsBestSoFar(@ForAll("matrixGenerator") Weight distances) {
+        int expected = new BranchAndBoundSolver(distances).solve();
+        TspSolver solver = new TspSolver(distances, Arrays.asList(VANCOUVER, EDMONTON, CALGARY, WINNIPEG,
+                HAMILTON, TORONTO, KINGSTON, OTTAWA, MONTREAL, HALIFAX));
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+
+        TspResult bab = solver.branchAndBound(null, token, null);
+        TspResult bruteForce = solver.bruteForceStreaming(null, token, null);
+
+        // the search never starts, leaving the nearest neighbour route and the root bound
+        Assertions.assertThat(bab.isComplete()).isFalse();
+        Assertions.assertThat(bab.getCost()).isEqualTo(solver.nearestNeighbour().getCost());
+        Assertions.assertThat(bab.getLowerBound()).isBetween(0, expected);
+        Assertions.assertThat(bab.getGap()).isBetween(0.0, 1.0);
+        // brute force still evaluates one tour but has no lower bound
+        Assertions.assertThat(bruteForce.isComplete()).isFalse();
+        Assertions.assertThat(bruteForce.getRoute()).hasSize(distances.getSize() + 1);
+        Assertions.assertThat(tourCost(distances, bruteForce.getTour())).isEqualTo(bruteForce.getCost());
+        Assertions.assertThat(bruteForce.getLowerBound()).isEqualTo(TspResult.NO_LOWER_BOUND);
+    }
+
+    @Property
+    @Report(Reporting.GENERATED)
+    void testExactResultsOnNegativeWeights(@ForAll @IntRange(min = 2, max = 8) int size, @ForAll long seed) {
+        Random random = new Random(seed);
+        Weight distances = new Weight(size);
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (i != j) {
+                    distances.setWeight(i, j, -1 - random.nextInt(100));
+                }
+            }
+        }
+        List<City> cities = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            cities.add(new City("City" + i, i, false));
+        }
+        TspSolver solver = new TspSolver(distances, cities);
+
+        // searches that never prune find the optimum, and its cost is their lower bound
+        int optimum = solver.heldKarp().getCost();
+        for (TspResult result : Arrays.asList(solver.heldKarp(), solver.bruteForce(), solver.bruteForceStreaming())) {
+            Assertions.assertThat(result.getCost()).isEqualTo(optimum);
+            Assertions.assertThat(result.getLowerBound()).isEqualTo(optimum);
+            Assertions.assertThat(result.getGap()).isEqualTo(0.0);
+            Assertions.assertThat(tourCost(distances, result.getTour())).isEqualTo(optimum);
+        }
+
+        // branch and bound assumes non-negative weights to prune, but still returns a route
+        TspResult bab = solver.branchAndBound();
+        Assertions.assertThat(bab.getRoute()).hasSize(size + 1);
+        Assertions.assertThat(tourCost(distances, bab.getTour())).isEqualTo(bab.getCost());
+        Assertions.assertThat(bab.getCost()).isGreaterThanOrEqualTo(optimum);
+    }
+
+    @Property(tries = 10)
+    @Report(Reporting.GENERATED)
+    void testTimeLimitStopsStreamingBruteForce(@ForAll("matrixGenerator") Weight distances) {
+        StreamingBruteForce solver = new StreamingBruteForce(distances);
+        solver.setTimeLimit(Duration.ZERO);
+        int cost = solver.solve();
+
+        Assertions.assertThat(solver.isComplete()).isFalse();
+        Assertions.assertThat(solver.getPermutations()).isLessThan(362880L);
+        Assertions.assertThat(tourCost(distances, solver.getBestTour())).isEqualTo(cost);
+    }
+
+    @Property(tries = 50)
+    @Report(Reporting.GENERATED)
+    void testBatchSolverAgreesWithBranchAndBound(@ForAll("matrixGenerator") Weight distances,
+                                                 @ForAll("matrixGenerator") Weight other) {
+        // smaller and larger instances, so reused solvers shrink and grow
+        Weight[] instances = { distances, firstCities(other, 6), other, firstCities(distances, 8), distances };
+
+        BatchResult result = new BatchSolver().solve(instances);
+
+        Assertions.assertThat(result.size()).isEqualTo(instances.length);
+        for (int i = 0; i < instances.length; i++) {
+            int expected = new BranchAndBoundSolver(instances[i]).solve();
+            Assertions.assertThat(result.getCost(i)).isEqualTo(expected);
+            Assertions.assertThat(result.getTourLength(i)).isEqualTo(instances[i].getSize() + 1);
+            Assertions.assertThat(tourCost(instances[i], result.getTour(i))).isEqualTo(expected);
+        }
+    }
+
+    @Property(tries = 20)
+    @Report(Reporting.GENERATED)
+    void testBatchSolverReusesSolversWithTheLatestSettings(@ForAll("matrixGenerator") Weight distances,
+                                                           @ForAll BoundingStrategy strategy,
+                                                           @ForAll SearchOrder order) {
+        Weight[] instances = { distances, firstCities(distances, 6) };
+        BatchSolver batch = new BatchSolver();
+        batch.solve(instances);
+
+        // the next batch takes the solver the first one left, which must not keep the old settings
+        batch.setBoundingStrategy(strategy);
+        batch.setSearchOrder(order);
+        BatchResult reused = batch.solve(instances);
+        BatchSolver fresh = new BatchSolver();
+        fresh.setBoundingStrategy(strategy);
+        fresh.setSearchOrder(order);
+        BatchResult expected = fresh.solve(instances);
+
+        for (int i = 0; i < instances.length; i++) {
+            Assertions.assertThat(reused.getCost(i)).isEqualTo(expected.getCost(i));
+            Assertions.assertThat(reused.getNodesExpanded(i)).isEqualTo(expected.getNodesExpanded(i));
+        }
+    }
+
+    @Property
+    @Report(Reporting.GENERATED)
+    void testGeneticSolverNeverWorseThanNearestNeighbour(@ForAll("matrixGenerator") Weight distances,
+                                                         @ForAll boolean edgeRecombination, @ForAll boolean localSearch) {
+        int optimum = new BranchAndBoundSolver(distances).solve();
+        int[] nearest = new NearestNeighbour(distances).tour(distances.getSize() - 1);
+
+        GeneticSolver solver = new GeneticSolver(distances);
+        solver.setCrossover(edgeRecombination ? Crossover.EDGE_RECOMBINATION : Crossover.ORDER);
+        solver.setLocalSearch(localSearch);
+        solver.setGenerations(50);
+        int cost = solver.solve();
+
+        // the nearest neighbour route is in the first population and the best route always survives
+        Assertions.assertThat(cost).isBetween(optimum, tourCost(distances, nearest));
+        assertClosedTour(distances, solver.getBestTour(), distances.getSize() - 1, cost);
+    }
+
+    @Property(tries = 10)
+    @Report(Reporting.GENERATED)
+    void testGeneticSolverOnLargeMatrices(@ForAll @IntRange(min = 200, max = 250) int size,
+                                          @ForAll long seed, @ForAll boolean symmetric,
+                                          @ForAll Crossover crossover, @ForAll boolean localSearch) {
+        Random random = new Random(seed);
+        Weight distances = symmetric ? euclideanMatrix(size, random) : asymmetricMatrix(size, random);
+        int depot = size - 1;
+
+        GeneticSolver solver = new GeneticSolver(distances);
+        solver.setCrossover(crossover);
+        solver.setLocalSearch(localSearch);
+        solver.setSeed(seed);
+        solver.setGenerations(10);
+        List<Integer> incumbents = new ArrayList<>();
+        solver.setIncumbentListener((tour, cost) -> {
+            assertClosedTour(distances, tour, depot, cost);
+            incumbents.add(cost);
+        });
+        int cost = solver.solve();
+
+        // children are costed in batches from a flat copy of the matrix, which has to agree with the matrix
+        assertClosedTour(distances, solver.getBestTour(), depot, cost);
+        Assertions.assertThat(cost).isLessThanOrEqualTo(tourCost(distances, new NearestNeighbour(distances).tour(depot)));
+        Assertions.assertThat(incumbents.get(incumbents.size() - 1)).isEqualTo(cost);
+        for (int i = 1; i < incumbents.size(); i++) {
+            Assertions.assertThat(incumbents.get(i)).isLessThan(incumbents.get(i - 1));
+        }
+    }
+
+    @Property
+    @Report(Reporting.GENERATED)
+    void testGeneticSolverSameTourInParallel(@ForAll("matrixGenerator") Weight distances, @ForAll long seed) {
+        GeneticSolver solver = new GeneticSolver(distances);
+        solver.setSeed(seed);
+        solver.setGenerations(30);
+        int parallelCost = solver.solve();
+        int[] parallelTour = solver.getBestTour();
+
+        solver.setParallel(false);
+
+        Assertions.assertThat(solver.solve()).isEqualTo(parallelCost);
+        Assertions.assertThat(solver.getBestTour()).isEqualTo(parallelTour);
+    }
+
+    @Property
+    @Report(Reporting.GENERATED)
+    void testLinKernighanSolverNeverWorseThanNearestNeighbour(@ForAll @IntRange(min = 1, max = 12) int size,
+                                                              @ForAll long seed) {
+        Random random = new Random(seed);
+        SymmetricWeight distances = new SymmetricWeight(size);
+        for (int i = 0; i < size; i++) {
+            for (int j = i + 1; j < size; j++) {
+                distances.setWeight(i, j, 1 + random.nextInt(100));
+            }
+        }
+        int depot = random.nextInt(size);
+        int optimum = new BranchAndBoundSolver(distances, depot).solve();
+        int[] nearest = new NearestNeighbour(distances).tour(depot);
+
+        LinKernighanSolver solver = new LinKernighanSolver(distances, depot);
+        solver.setSeed(seed);
+        solver.setTrials(3);
+        int cost = solver.solve();
+        int[] tour = solver.getBestTour();
+
+        // the first trial starts from the nearest neighbour route and only keeps shorter tours
+        Assertions.assertThat(cost).isBetween(optimum, tourCost(distances, nearest));
+        Assertions.assertThat(tourCost(distances, tour)).isEqualTo(cost);
+        Assertions.assertThat(tour[0]).isEqualTo(depot);
+        Assertions.assertThat(tour[size]).isEqualTo(depot);
+        Assertions.assertThat(Arrays.stream(tour).distinct().count()).isEqualTo((long) size);
+
+        // trials do not share state, so scheduling them differently gives the same tour
+        solver.setParallel(false);
+        Assertions.assertThat(solver.solve()).isEqualTo(cost);
+        Assertions.assertThat(solver.getBestTour()).isEqualTo(tour);
+    }
+
+    @Property(tries = 10)
+    @Report(Reporting.GENERATED)
+    void testLinKernighanSolverKicksOnLargeTours(@ForAll @IntRange(min = 200, max = 400) int size,
+                                                 @ForAll long seed) {
+        Random random = new Random(seed);
+        SymmetricWeight distances = euclideanMatrix(size, random);
+        int depot = random.nextInt(size);
+
+        LinKernighanSolver solver = new LinKernighanSolver(distances, depot);
+        solver.setSeed(seed);
+        solver.setTrials(2);
+        solver.setKicks(0);
+        int unkicked = solver.solve();
+
+        // long tours reach the double bridge kicks, Or-opt moves and reversals of the shorter side
+        solver.setKicks(50);
+        List<Integer> incumbents = new ArrayList<>();
+        solver.setIncumbentListener((tour, cost) -> {
+            assertClosedTour(distances, tour, depot, cost);
+            synchronized (incumbents) {
+                incumbents.add(cost);
+            }
+        });
+        int cost = solver.solve();
+        int[] tour = solver.getBestTour();
+
+        // kicked trials start where the unkicked ones stopped and only keep shorter tours
+        assertClosedTour(distances, tour, depot, cost);
+        Assertions.assertThat(cost).isLessThanOrEqualTo(unkicked);
+        Assertions.assertThat(cost).isLessThan(tourCost(distances, new NearestNeighbour(distances).tour(depot)));
+        Assertions.assertThat(solver.getKicksMade()).isEqualTo(100L);
+        Assertions.assertThat(solver.getKicksKept()).isBetween(0L, 100L);
+        Assertions.assertThat(incumbents.get(incumbents.size() - 1)).isEqualTo(cost);
+        for (int i = 1; i < incumbents.size(); i++) {
+            Assertions.assertThat(incumbents.get(i)).isLessThan(incumbents.get(i - 1));
+        }
+
+        solver.setIncumbentListener(null);
+        solver.setParallel(false);
+        Assertions.assertThat(solver.solve()).isEqualTo(cost);
+        Assertions.assertThat(solver.getBestTour()).isEqualTo(tour);
+    }
+
+    @Property
+    @Report(Reporting.GENERATED)
+    void testSimulatedAnnealingNeverWorseThanNearestNeighbour(@ForAll("matrixGenerator") Weight distances,
+                                                              @ForAll CoolingSchedule schedule, @ForAll long seed) {
+        int optimum = new BranchAndBoundSolver(distances).solve();
+        int[] nearest = new NearestNeighbour(distances).tour(distances.getSize() - 1);
+
+        SimulatedAnnealingSolver solver = new SimulatedAnnealingSolver(distances);
+        solver.setCoolingSchedule(schedule);
+        solver.setSeed(seed);
+        solver.setRestarts(3);
+        solver.setIterations(2000);
+        int cost = solver.solve();
+        int[] tour = solver.getBestTour();
+
+        // every restart starts from the nearest neighbour route and keeps its best tour
+        Assertions.assertThat(cost).isBetween(optimum, tourCost(distances, nearest));
+        Assertions.assertThat(tourCost(distances, tour)).isEqualTo(cost);
+        Assertions.assertThat(Arrays.stream(tour).distinct().count()).isEqualTo((long) distances.getSize());
+
+        // restarts split their random streams before running, so the seed alone decides the tour
+        solver.setParallel(false);
+        Assertions.assertThat(solver.solve()).isEqualTo(cost);
+        Assertions.assertThat(solver.getBestTour()).isEqualTo(tour);
+    }
+
+    @Property(tries = 10)
+    @Report(Reporting.GENERATED)
+    void testSimulatedAnnealingOnLargeMatrices(@ForAll @IntRange(min = 200, max = 300) int size,
+                                               @ForAll long seed, @ForAll boolean symmetric,
+                                               @ForAll CoolingSchedule schedule) {
+        Random random = new Random(seed);
+        // asymmetric matrices only get swap and insert moves, symmetric ones also reverse segments
+        Weight distances = symmetric ? euclideanMatrix(size, random) : asymmetricMatrix(size, random);
+        int depot = random.nextInt(size);
+
+        SimulatedAnnealingSolver solver = new SimulatedAnnealingSolver(distances, depot);
+        solver.setCoolingSchedule(schedule);
+        solver.setSeed(seed);
+        solver.setRestarts(2);
+        solver.setIterations(50L * size);
+        List<Integer> incumbents = new ArrayList<>();
+        solver.setIncumbentListener((tour, cost) -> {
+            assertClosedTour(distances, tour, depot, cost);
+            synchronized (incumbents) {
+                incumbents.add(cost);
+            }
+        });
+        int cost = solver.solve();
+        int[] tour = solver.getBestTour();
+
+        // moves are priced from the edges they change, which has to agree with costing the whole tour
+        assertClosedTour(distances, tour, depot, cost);
+        Assertions.assertThat(cost).isLessThan(tourCost(distances, new NearestNeighbour(distances).tour(depot)));
+        Assertions.assertThat(solver.getMovesMade()).isEqualTo(2 * 50L * size);
+        Assertions.assertThat(solver.getMovesAccepted()).isBetween(0L, solver.getMovesMade());
+        Assertions.assertThat(incumbents.get(incumbents.size() - 1)).isEqualTo(cost);
+        for (int i = 1; i < incumbents.size(); i++) {
+            Assertions.assertThat(incumbents.get(i)).isLessThan(incumbents.get(i - 1));
+        }
+
+        solver.setIncumbentListener(null);
+        solver.setParallel(false);
+        Assertions.assertThat(solver.solve()).isEqualTo(cost);
+        Assertions.assertThat(solver.getBestTour()).isEqualTo(tour);
+    }
+
+    @Property
+    @Report(Reporting.GENERATED)
+    void testAnySizeAndDepot(@ForAll @IntRange(min = 2, max = 9) int size, @ForAll long seed) {
+        Random random = new Random(seed);
+        Weight distances = new Weight(size);
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (i != j) {
+                    distances.setWeight(i, j, 1 + random.nextInt(100));
+                }
+            }
+        }
+        int depot = random.nextInt(size);
+        int optimum = new BranchAndBoundSolver(distances, depot).solve();
+
+        DistanceMatrix builtIn = TSP.distances;
+        TSP.setDistances(distances);
+        TSP.setDepot(depot);
+        try {
+            TSP.branchAndBound();
+            List<City> heldKarp = TSP.heldKarp().getRoute();
+            List<City> nearest = TSP.nearestNeighbour().getRoute();
+
+            Assertions.assertThat(newTSP.getBaBcheapestCost()).isEqualTo(optimum);
+            Assertions.assertThat(heldKarp).hasSize(size + 1);
+            Assertions.assertThat(heldKarp.get(0).getID()).isEqualTo(depot);
+            Assertions.assertThat(heldKarp.get(size).getID()).isEqualTo(depot);
+            Assertions.assertThat(nearest.get(0).getID()).isEqualTo(depot);
+            Assertions.assertThat(newTSP.getCities()).hasSize(size);
+        } finally {
+            TSP.setDistances(builtIn);
+            TSP.setDepot(TSP.LAST_CITY);
+        }
+    }
+
+    @Property
+    @Report(Reporting.GENERATED)
+    void testSolveCacheAnswersRepeatedMatrices(@ForAll("matrixGenerator") Weight distances, @ForAll("extraWeight") int extra) {
+        SolveCache cache = new SolveCache(2, null);
+        List<City> cities = Arrays.asList(VANCOUVER, EDMONTON, CALGARY, WINNIPEG, HAMILTON,
+                TORONTO, KINGSTON, OTTAWA, MONTREAL, HALIFAX);
+        TspResult solved = new TspSolver(distances, cities, 9, null, cache).heldKarp();
+
+        // a copy of the matrix is answered from the cache with the same route
+        TspResult cached = new TspSolver(new Weight(distances.getWeight()), cities, 9, null, cache).heldKarp();
+        Assertions.assertThat(cache.getHits()).isEqualTo(1L);
+        Assertions.assertThat(cached.getRoute()).isEqualTo(solved.getRoute());
+        Assertions.assertThat(cached.getCost()).isEqualTo(solved.getCost());
+
+        // another depot or a changed matrix is solved again
+        new TspSolver(distances, cities, 0, null, cache).heldKarp();
+        distances.addExtraToPos(extra, new int[] {0, 1});
+        TspResult changed = new TspSolver(distances, cities, 9, null, cache).heldKarp();
+        Assertions.assertThat(cache.getMisses()).isEqualTo(3L);
+        Assertions.assertThat(cache.getEvictions()).isEqualTo(1L);
+        Assertions.assertThat(changed.getCost()).isEqualTo(new BranchAndBoundSolver(distances).solve());
+
+        // nothing outlives a zero time to live
+        SolveCache expiring = new SolveCache(2, Duration.ZERO);
+        new TspSolver(distances, cities, 9, null, expiring).heldKarp();
+        new TspSolver(distances, cities, 9, null, expiring).heldKarp();
+        Assertions.assertThat(expiring.getHits()).isEqualTo(0L);
+        Assertions.assertThat(expiring.getExpirations()).isEqualTo(1L);
+    }
+
+    private static Weight firstCities(Weight distances, int size) {
+        Weight smaller = new Weight(size);
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                smaller.setWeight(i, j, distances.getWeight(i, j));
+            }
+        }
+        return smaller;
+    }
+
+    private static int tourCost(Weight distances, int[] tour) {
+        int cost = 0;
+        for (int i = 0; i < tour.length - 1; i++) {
+            cost += distances.getWeight(tour[i], tour[i + 1]);
+        }
+        return cost;
+    }
+
+    // every city once, depot at both ends, and the cost the solver reported
+    private static void assertClosedTour(Weight distances, int[] tour, int depot, int cost) {
+        int size = distances.getSize();
+        Assertions.assertThat(tour).hasSize(size + 1);
+        Assertions.assertThat(tour[0]).isEqualTo(depot);
+        Assertions.assertThat(tour[size]).isEqualTo(depot);
+        Assertions.assertThat(Arrays.stream(tour).distinct().count()).isEqualTo((long) size);
+        Assertions.assertThat(tourCost(distances, tour)).isEqualTo(cost);
+    }
+
+    // cities on integer points of a 1000 by 1000 square, distances rounded
+    private static SymmetricWeight euclideanMatrix(int size, Random random) {
+        int[] x = new int[size];
+        int[] y = new int[size];
+        for (int i = 0; i < size; i++) {
+            x[i] = random.nextInt(1000);
+            y[i] = random.nextInt(1000);
+        }
+        SymmetricWeight distances = new SymmetricWeight(size);
+        for (int i = 0; i < size; i++) {
+            for (int j = i + 1; j < size; j++) {
+                distances.setWeight(i, j, (int) Math.round(Math.hypot(x[i] - x[j], y[i] - y[j])));
+            }
+        }
+        return distances;
+    }
+
+    // each direction drawn on its own, so a tour and its reverse cost differently
+    private static Weight asymmetricMatrix(int size, Random random) {
+        Weight distances = new Weight(size);
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (i != j) {
+                    distances.setWeight(i, j, 1 + random.nextInt(1000));
+                }
+            }
+        }
+        return distances;
+    }
+
     //OPERATIONS-----------------------------------------------------------
 
     /*
@@ -275,6 +966,40 @@ public class TSPSolverProperties {
         Assertions.assertThat(cost2).isEqualTo(cost1 + (extra * (distances.getSize())));
     }
 
+    /*
+    6)
+     after any change made through the mutators, the incremental solver finds the same cost as a full
+     branch and bound, and it skips the search when an edge off the shortest route gets dearer.
+     */
+    @Property
+    @Report(Reporting.GENERATED)
+    void testIncrementalSolveMatchesFullSolve(@ForAll("matrixGenerator") Weight distances, @ForAll("extraWeight") int extra,
+                                             @ForAll("getPosition") int[] position) {
+        IncrementalSolver solver = new IncrementalSolver(distances);
+        solver.solve();
+        int[] tour = solver.getBestTour();
+
+        distances.addExtraToPos(extra, position);
+        Assertions.assertThat(solver.solve()).isEqualTo(new BranchAndBoundSolver(distances).solve());
+        boolean onTour = false;
+        for (int k = 0; k < tour.length - 1; k++) {
+            onTour |= tour[k] == position[0] && tour[k + 1] == position[1];
+        }
+        if (!onTour) {
+            Assertions.assertThat(solver.getLastOutcome()).isEqualTo(IncrementalSolver.Outcome.TOUR_STILL_OPTIMAL);
+            Assertions.assertThat(solver.getBestTour()).isEqualTo(tour);
+        }
+
+        distances.subtractExtraFromPos(extra, position);
+        distances.addExtraToAll(extra);
+        Assertions.assertThat(solver.solve()).isEqualTo(new BranchAndBoundSolver(distances).solve());
+
+        // nothing changed since the last solve
+        Assertions.assertThat(solver.solve()).isEqualTo(new BranchAndBoundSolver(distances).solve());
+        Assertions.assertThat(solver.getLastOutcome()).isEqualTo(IncrementalSolver.Outcome.UNCHANGED);
+        Assertions.assertThat(tourCost(distances, solver.getBestTour())).isEqualTo(solver.getBestCost());
+    }
+
 
     //GENERATORS------------------------------------------------------------
     @Provide
@@ -0,0 +1,223 @@
+package TSPTest;
+
+import net.jqwik.api.*;
+import org.assertj.core.api.Assertions;
+
+import TSP.CoordinateDistances;
+import TSP.DistanceMetric;
+import TSP.FloatDistanceMatrix;
+import TSP.NeighbourIndex;
+import TSP.ShortDistanceMatrix;
+import TSP.SymmetricWeight;
+import TSP.Weight;
+
+import java.util.stream.IntStream;
+
+public class TSPWeightProperties {
+
+    // TESTING Weight.java ==============================================================================================
+
+    @Property
+    @Report(Reporting.GENERATED)
+    void boxedRoundTripKeepsValues(@ForAll("matrixGenerator") Integer[][] values) {
+        Weight weight = new Weight(values);
+        Integer[][] copy = weight.getWeight();
+
+        for (int i = 0; i < values.length; i++) {
+            for (int j = 0; j < values.length; j++) {
+                Assertions.assertThat(weight.getWeight(i, j)).isEqualTo(values[i][j]);
+                Assertions.assertThat(copy[i][j]).isEqualTo(values[i][j]);
+            }
+        }
+    }
+
+    @Property
+    @Report(Reporting.GENERATED)
+    void addingThenSubtractingFromAllRestoresMatrix(@ForAll("matrixGenerator") Integer[][] values,
+                                                    @ForAll("extraWeight") int extra) {
+        Weight weight = new Weight(values);
+        weight.addExtraToAll(extra);
+
+        for (int i = 0; i < values.length; i++) {
+            for (int j = 0; j < values.length; j++) {
+                int expected = i == j ? values[i][j] : values[i][j] + extra;
+                Assertions.assertThat(weight.getWeight(i, j)).isEqualTo(expected);
+            }
+        }
+
+        weight.subtractExtraFromAll(extra);
+        Assertions.assertThat(weight.toString()).isEqualTo(new Weight(values).toString());
+    }
+
+    @Property
+    @Report(Reporting.GENERATED)
+    void compactRepresentationsMatchWeight(@ForAll("matrixGenerator") Integer[][] values) {
+        Weight weight = new Weight(values);
+        ShortDistanceMatrix shorts = new ShortDistanceMatrix(weight);
+        FloatDistanceMatrix floats = new FloatDistanceMatrix(weight);
+
+        for (int i = 0; i < values.length; i++) {
+            for (int j = 0; j < values.length; j++) {
+                Assertions.assertThat(shorts.getWeight(i, j)).isEqualTo(weight.getWeight(i, j));
+                Assertions.assertThat(floats.getWeight(i, j)).isEqualTo(weight.getWeight(i, j));
+            }
+        }
+
+        Assertions.assertThat(shorts.getMemoryFootprint()).isLessThan(weight.getMemoryFootprint());
+        Assertions.assertThat(floats.getMemoryFootprint()).isEqualTo(weight.getMemoryFootprint());
+    }
+
+    @Property
+    @Report(Reporting.GENERATED)
+    void symmetricWeightMatchesWeightAndStaysSymmetric(@ForAll("matrixGenerator") Integer[][] values,
+                                                       @ForAll("extraWeight") int extra) {
+        // mirror the upper triangle
+        for (int i = 0; i < values.length; i++) {
+            for (int j = 0; j < i; j++) {
+                values[i][j] = values[j][i];
+            }
+        }
+        Weight weight = new Weight(values);
+        SymmetricWeight symmetric = new SymmetricWeight(values);
+
+        Assertions.assertThat(symmetric.toString()).isEqualTo(weight.toString());
+        Assertions.assertThat(symmetric.isSymmetric()).isTrue();
+        Assertions.assertThat(symmetric.getMemoryFootprint()).isLessThan(weight.getMemoryFootprint());
+
+        // changing one direction changes both
+        symmetric.addExtraToPos(extra, new int[] {2, 7});
+        symmetric.setWeight(5, 1, extra);
+        symmetric.addExtraToAll(extra);
+        for (int i = 0; i < values.length; i++) {
+            for (int j = 0; j < values.length; j++) {
+                Assertions.assertThat(symmetric.getWeight(i, j)).isEqualTo(symmetric.getWeight(j, i));
+            }
+            Assertions.assertThat(symmetric.getWeight(i, i)).isEqualTo(0);
+        }
+        Assertions.assertThat(symmetric.getWeight(7, 2)).isEqualTo(values[2][7] + 2 * extra);
+        Assertions.assertThat(symmetric.getWeight(1, 5)).isEqualTo(2 * extra);
+    }
+
+    @Property
+    @Report(Reporting.GENERATED)
+    void neighbourIndexIsSortedAndCachedUntilChanged(@ForAll("matrixGenerator") Integer[][] values,
+                                                     @ForAll("extraWeight") int extra) {
+        Weight weight = new Weight(values);
+        NeighbourIndex index = weight.getNeighbourIndex(4);
+
+        for (int city = 0; city < values.length; city++) {
+            for (int r = 1; r < index.getK(); r++) {
+                Assertions.assertThat(weight.getWeight(city, index.getNeighbour(city, r - 1)))
+                        .isLessThanOrEqualTo(weight.getWeight(city, index.getNeighbour(city, r)));
+            }
+        }
+
+        // a smaller k is a prefix of the cached index, the same as building it alone
+        NeighbourIndex prefix = weight.getNeighbourIndex(2);
+        NeighbourIndex built = new NeighbourIndex(weight, 2);
+        Assertions.assertThat(prefix.getK()).isEqualTo(built.getK());
+        for (int city = 0; city < values.length; city++) {
+            for (int r = 0; r < built.getK(); r++) {
+                Assertions.assertThat(prefix.getNeighbour(city, r)).isEqualTo(built.getNeighbour(city, r));
+            }
+        }
+        Assertions.assertThat(weight.getNeighbourIndex(4)).isSameAs(index);
+
+        // adding to every edge keeps the order, changing one edge may not
+        weight.addExtraToAll(extra);
+        Assertions.assertThat(weight.getNeighbourIndex(4)).isSameAs(index);
+        weight.addExtraToPos(extra, new int[] {0, 1});
+        Assertions.assertThat(weight.getNeighbourIndex(4)).isNotEqualTo(index);
+    }
+
+    @Property
+    @Report(Reporting.GENERATED)
+    void fingerprintFollowsContentsNotClass(@ForAll("matrixGenerator") Integer[][] values,
+                                            @ForAll("extraWeight") int extra) {
+        Weight weight = new Weight(values);
+        long fingerprint = weight.getFingerprint();
+
+        // same distances in another class, or another object, give the same fingerprint
+        Assertions.assertThat(new ShortDistanceMatrix(weight).getFingerprint()).isEqualTo(fingerprint);
+        Assertions.assertThat(new Weight(weight.getWeight()).getFingerprint()).isEqualTo(fingerprint);
+
+        // the cached fingerprint is dropped when a value changes
+        weight.addExtraToPos(extra, new int[] {3, 4});
+        Assertions.assertThat(weight.getFingerprint()).isNotEqualTo(fingerprint);
+        weight.subtractExtraFromPos(extra, new int[] {3, 4});
+        Assertions.assertThat(weight.getFingerprint()).isEqualTo(fingerprint);
+    }
+
+    @Property
+    @Report(Reporting.GENERATED)
+    void cachedCoordinateDistancesMatchUncached(@ForAll("coordinates") Integer[] x, @ForAll("coordinates") Integer[] y,
+                                                @ForAll DistanceMetric metric) {
+        CoordinateDistances plain = new CoordinateDistances(metric, toDoubles(x), toDoubles(y));
+        // fewer rows than cities, so rows are evicted along the way
+        CoordinateDistances cached = new CoordinateDistances(metric, toDoubles(x), toDoubles(y), 5);
+
+        for (int i = 0; i < x.length; i++) {
+            for (int j = 0; j < x.length; j++) {
+                Assertions.assertThat(cached.getWeight(i, j)).isEqualTo(plain.getWeight(i, j));
+                Assertions.assertThat(plain.getWeight(i, j)).isEqualTo(plain.getWeight(j, i));
+            }
+            Assertions.assertThat(plain.getWeight(i, i)).isEqualTo(0);
+        }
+
+        // the fingerprint comes from the metric and coordinates, not the row cache
+        Assertions.assertThat(cached.getFingerprint()).isEqualTo(plain.getFingerprint());
+        double[] moved = toDoubles(x);
+        moved[0] += 1;
+        Assertions.assertThat(new CoordinateDistances(metric, moved, toDoubles(y)).getFingerprint())
+                .isNotEqualTo(plain.getFingerprint());
+    }
+
+    @Property
+    @Report(Reporting.GENERATED)
+    void gridNeighbourIndexMatchesFullScan(@ForAll("coordinates") Integer[] x, @ForAll("coordinates") Integer[] y,
+                                           @ForAll("extraWeight") int k) {
+        // small integer coordinates give many equal distances
+        CoordinateDistances distances = new CoordinateDistances(DistanceMetric.EUCLIDEAN, toDoubles(x), toDoubles(y));
+        NeighbourIndex grid = distances.getNeighbourIndex(k);
+        NeighbourIndex scan = new NeighbourIndex(distances, k);
+
+        for (int city = 0; city < x.length; city++) {
+            for (int r = 0; r < scan.getK(); r++) {
+                Assertions.assertThat(grid.getNeighbour(city, r)).isEqualTo(scan.getNeighbour(city, r));
+            }
+        }
+    }
+
+    private static double[] toDoubles(Integer[] values) {
+        double[] doubles = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            doubles[i] = values[i];
+        }
+        return doubles;
+    }
+
+    //GENERATORS------------------------------------------------------------
+    @Provide
+    Arbitrary<Integer[][]> matrixGenerator() {
+        int size = 10;
+
+        return Arbitraries.integers().between(1, 500)
+                .array(Integer[].class).ofSize(size)
+                .array(Integer[][].class).ofSize(size)
+                .map(m -> {
+                    // place 0's at diagonal
+                    IntStream.range(0, size).forEach(i -> m[i][i] = 0);
+                    return m;
+                });
+    }
+
+    @Provide
+    Arbitrary<Integer[]> coordinates() {
+        return Arbitraries.integers().between(0, 20).array(Integer[].class).ofSize(40);
+    }
+
+    @Provide
+    Arbitrary<Integer> extraWeight() {
+        return Arbitraries.integers().between(1, 50);
+    }
+}
@@ -0,0 +1,59 @@
+package TSP;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector kernel of TourCostEvaluator, kept in its own class so it is only loaded
+ * when the incubating vector module is present
+ */
+final class VectorTourCosts {
+	private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+	private VectorTourCosts() {
+	}
+
+	static int lanes() {
+		return SPECIES.length();
+	}
+
+	/**
+	 * Sums a closed tour a vector of edges at a time: loads the from and to
+	 * cities of consecutive edges, works out their matrix indices and gathers the
+	 * costs
+	 *
+	 * @param matrix     flat matrix, matrix[i * size + j] is i -> j
+	 * @param size       number of cities
+	 * @param tours      closed tour at offset, size + 1 cities
+	 * @param offset
+	 * @param flushEvery vectors added into the int lanes before their sum could
+	 *                   overflow
+	 * @param index      scratch array with room for one vector
+	 * @return cost
+	 */
+	static long cost(int[] matrix, int size, int[] tours, int offset, int flushEvery, int[] index) {
+		long total = 0;
+		IntVector sums = IntVector.zero(SPECIES);
+		int pending = 0;
+		int p = offset;
+		// The to cities read one past the last from city, which is the closing depot
+		int upper = offset + SPECIES.loopBound(size);
+		for (; p < upper; p += SPECIES.length()) {
+			IntVector from = IntVector.fromArray(SPECIES, tours, p);
+			IntVector to = IntVector.fromArray(SPECIES, tours, p + 1);
+			from.mul(size).add(to).intoArray(index, 0);
+			sums = sums.add(IntVector.fromArray(SPECIES, matrix, 0, index, 0));
+			if (++pending == flushEvery) {
+				total += sums.reduceLanesToLong(VectorOperators.ADD);
+				sums = IntVector.zero(SPECIES);
+				pending = 0;
+			}
+		}
+		total += sums.reduceLanesToLong(VectorOperators.ADD);
+		for (int end = offset + size; p < end; p++) {
+			total += matrix[tours[p] * size + tours[p + 1]];
+		}
+		return total;
+	}
+}